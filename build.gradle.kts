@@ -1,5 +1,10 @@
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -16,6 +21,7 @@ dependencies {
     implementation("org.ow2.asm:asm-util:9.5")
 
     implementation("com.fasterxml.jackson.core:jackson-databind:2.15.3")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile:2.15.3")
 
     implementation("org.slf4j:slf4j-api:2.0.9")
     implementation("ch.qos.logback:logback-classic:1.4.11")
@@ -25,6 +31,91 @@ dependencies {
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+jmh {
+    jmhVersion.set("1.37")
+    // allocation rate next to every score; narrow a run with -Pjmh.includes=<regex>
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    findProperty("jmh.includes")?.let { includes.set(listOf(it.toString())) }
+    // ./gradlew jmh -PbenchJar=/path/to/big.jar
+    findProperty("benchJar")?.let { benchmarkParameters.put("jarPath", objects.listProperty<String>().value(listOf(it.toString()))) }
+}
+
+// The agent is appended to the system class path, where its ASM would clash with a different ASM
+// version used by the application, so its classes and ASM's are rewritten to use a private copy
+// under this package, as JaCoCo does.
+val agentAsmPackage = "org/example/agent/asm/"
+
+// Copies a class file with every constant pool string that starts with or embeds an ASM type
+// name (class names, descriptors, signatures) pointing into agentAsmPackage instead.
+fun relocateAsm(bytes: ByteArray): ByteArray {
+    val input = DataInputStream(bytes.inputStream())
+    val buffer = ByteArrayOutputStream(bytes.size + 1024)
+    val output = DataOutputStream(buffer)
+    output.writeLong(input.readLong()) // magic and version
+    val count = input.readUnsignedShort()
+    output.writeShort(count)
+    var index = 1
+    while (index < count) {
+        val tag = input.readUnsignedByte()
+        output.writeByte(tag)
+        val size = when (tag) {
+            1 -> {
+                output.writeUTF(input.readUTF().replace("org/objectweb/asm/", agentAsmPackage))
+                0
+            }
+            7, 8, 16, 19, 20 -> 2
+            15 -> 3
+            3, 4, 9, 10, 11, 12, 17, 18 -> 4
+            5, 6 -> 8
+            else -> throw GradleException("Unknown constant pool tag $tag")
+        }
+        repeat(size) { output.writeByte(input.readUnsignedByte()) }
+        index += if (tag == 5 || tag == 6) 2 else 1
+    }
+    input.transferTo(output)
+    return buffer.toByteArray()
+}
+
+val relocateAgentClasses by tasks.registering {
+    val agentClasses = sourceSets.main.get().output.classesDirs.asFileTree.matching { include("org/example/agent/**") }
+    val asmClasses = files(provider {
+        configurations.runtimeClasspath.get().filter { it.name.startsWith("asm-9") }.map(::zipTree)
+    }).asFileTree.matching { include("org/objectweb/asm/**/*.class") }
+    inputs.files(agentClasses, asmClasses)
+    val destination = layout.buildDirectory.dir("coverage-agent-classes")
+    outputs.dir(destination)
+    doLast {
+        val root = destination.get().asFile
+        root.deleteRecursively()
+        listOf(agentClasses, asmClasses).forEach { tree ->
+            tree.visit {
+                if (!isDirectory) {
+                    val target = root.resolve(relativePath.pathString.replace("org/objectweb/asm/", agentAsmPackage))
+                    target.parentFile.mkdirs()
+                    target.writeBytes(relocateAsm(file.readBytes()))
+                }
+            }
+        }
+    }
+}
+
+// java -javaagent:build/libs/<name>-coverage-agent.jar[=includes=org.acme.*,output=cov.tsv] ...
+val coverageAgentJar by tasks.registering(Jar::class) {
+    archiveClassifier.set("coverage-agent")
+    from(relocateAgentClasses)
+    manifest {
+        attributes(
+            "Premain-Class" to "org.example.agent.CoverageAgent",
+            "Can-Retransform-Classes" to "true",
+        )
+    }
+}
+
+tasks.assemble {
+    dependsOn(coverageAgentJar)
+}
+
 tasks.test {
     useJUnitPlatform()
 }
@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.ClassInfo;
+import org.example.service.JarProcessor;
+import org.example.util.ClassFileScanner;
+import org.example.util.SymbolTable;
+import org.example.visitor.ClassInfoVisitor;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a full {@link ClassInfo}, ABC counts included, with each {@link JarProcessor.Engine}:
+ * a {@link ClassInfoVisitor} driven by {@link ClassReader}, or {@link ClassFileScanner}. Class
+ * bytes are loaded up front and the symbol table is shared across invocations, as in a real run.
+ * Scores are classes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AbcEngineBenchmark {
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    @Param({"ASM", "SCANNER"})
+    public JarProcessor.Engine engine;
+
+    private List<byte[]> classes;
+    private SymbolTable symbols;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        classes = ClassBytes.load(Path.of(jarPath));
+        symbols = new SymbolTable();
+    }
+
+    @Benchmark
+    public ClassInfo parse() {
+        byte[] bytes = nextClass();
+        return switch (engine) {
+            case ASM -> {
+                ClassInfoVisitor visitor = new ClassInfoVisitor(symbols);
+                new ClassReader(bytes).accept(visitor, PARSING_OPTIONS);
+                yield visitor.getClassInfo();
+            }
+            case SCANNER -> ClassFileScanner.scan(bytes, symbols);
+        };
+    }
+
+    private byte[] nextClass() {
+        byte[] bytes = classes.get(next);
+        next = next + 1 == classes.size() ? 0 : next + 1;
+        return bytes;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Loads the class files of a jar into memory so that benchmarks measure parsing only.
+ */
+final class ClassBytes {
+    private ClassBytes() {
+    }
+
+    static List<byte[]> load(Path jarPath) throws IOException {
+        List<byte[]> classes = new ArrayList<>();
+        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        classes.add(in.readAllBytes());
+                    }
+                }
+            }
+        }
+        return classes;
+    }
+}
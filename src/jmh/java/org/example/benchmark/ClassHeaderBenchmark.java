@@ -0,0 +1,80 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.util.ClassFileHeader;
+import org.example.visitor.ClassHeaderVisitor;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading name, superclass, interfaces and access flags of one class three ways:
+ * {@link ClassFileHeader}, the {@link ClassReader} getters, and a {@code SKIP_CODE} visit with
+ * {@link ClassHeaderVisitor}, which also collects method signatures. Class bytes are loaded up
+ * front. Scores are classes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassHeaderBenchmark {
+    private static final int SKIP_CODE = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    private List<byte[]> classes;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        classes = ClassBytes.load(Path.of(jarPath));
+    }
+
+    @Benchmark
+    public void scanHeader(Blackhole blackhole) {
+        ClassFileHeader header = ClassFileHeader.parse(nextClass());
+        blackhole.consume(header.access());
+        blackhole.consume(header.className());
+        blackhole.consume(header.superName());
+        blackhole.consume(header.interfaces());
+    }
+
+    @Benchmark
+    public void classReaderGetters(Blackhole blackhole) {
+        ClassReader reader = new ClassReader(nextClass());
+        blackhole.consume(reader.getAccess());
+        blackhole.consume(reader.getClassName());
+        blackhole.consume(reader.getSuperName());
+        blackhole.consume(reader.getInterfaces());
+    }
+
+    @Benchmark
+    public ClassHeaderVisitor acceptSkipCode() {
+        ClassHeaderVisitor visitor = new ClassHeaderVisitor();
+        new ClassReader(nextClass()).accept(visitor, SKIP_CODE);
+        return visitor;
+    }
+
+    private byte[] nextClass() {
+        byte[] bytes = classes.get(next);
+        next = next + 1 == classes.size() ? 0 : next + 1;
+        return bytes;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.util.SymbolTable;
+import org.example.visitor.ClassInfoVisitor;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of parsing one class with {@link ClassInfoVisitor} under different {@link ClassReader}
+ * flags. Class bytes are loaded up front, so no zip access is measured. Scores are classes per
+ * second; {@code gc.alloc.rate.norm} is bytes allocated per class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassReaderFlagsBenchmark {
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    @Param({"NONE", "SKIP_DEBUG", "SKIP_DEBUG_FRAMES", "SKIP_CODE"})
+    public String flags;
+
+    private List<byte[]> classes;
+    private int parsingOptions;
+    private SymbolTable symbols;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        classes = ClassBytes.load(Path.of(jarPath));
+        parsingOptions = switch (flags) {
+            case "NONE" -> 0;
+            case "SKIP_DEBUG" -> ClassReader.SKIP_DEBUG;
+            case "SKIP_DEBUG_FRAMES" -> ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+            case "SKIP_CODE" -> ClassReader.SKIP_CODE;
+            default -> throw new IllegalArgumentException("Unknown flags: " + flags);
+        };
+        symbols = new SymbolTable();
+    }
+
+    @Benchmark
+    public void parseClass(Blackhole blackhole) {
+        byte[] bytes = classes.get(next);
+        next = next + 1 == classes.size() ? 0 : next + 1;
+        ClassInfoVisitor visitor = new ClassInfoVisitor(symbols);
+        new ClassReader(bytes).accept(visitor, parsingOptions);
+        blackhole.consume(visitor.getClassInfo());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.benchmark;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+
+import org.example.agent.CoverageOptions;
+import org.example.agent.CoverageTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What line probes cost a CPU-bound workload: {@link CoverageWorkload} loaded as compiled
+ * ({@code none}), as {@link CoverageTransformer} rewrites it under {@code -javaagent}
+ * ({@code always}), or as adaptive mode leaves it once it has run ({@code adaptive}): rewritten
+ * again the way a retransformation would, without the probes that fired in a first run, and
+ * sharing their probe array. Each variant is defined by a fresh class loader of its own, so they
+ * differ in the probes alone. Scores are workload runs per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CoverageAgentBenchmark {
+    public enum Probes { NONE, ALWAYS, ADAPTIVE }
+
+    @Param({"NONE", "ALWAYS", "ADAPTIVE"})
+    public Probes probes;
+
+    private LongUnaryOperator workload;
+    private long seed;
+
+    @Setup
+    public void setUp() throws Exception {
+        Class<?> original = CoverageWorkload.class;
+        String className = original.getName();
+        byte[] bytes;
+        try (InputStream in = original.getResourceAsStream(original.getSimpleName() + ".class")) {
+            bytes = in.readAllBytes();
+        }
+        if (probes == Probes.NONE) {
+            workload = newWorkload(new WorkloadLoader().define(className, bytes));
+            return;
+        }
+        String internalName = className.replace('.', '/');
+        CoverageTransformer transformer = new CoverageTransformer(CoverageOptions.parse("includes=" + className));
+        WorkloadLoader loader = new WorkloadLoader();
+        byte[] instrumentedBytes = transformer.transform(loader, internalName, null, null, bytes);
+        Class<?> instrumented = loader.define(className, instrumentedBytes);
+        workload = newWorkload(instrumented);
+        if (probes == Probes.ADAPTIVE) {
+            workload.applyAsLong(seed++);
+            byte[] reinstrumented = transformer.transform(loader, internalName, instrumented, null, bytes);
+            workload = newWorkload(new WorkloadLoader().define(className, reinstrumented));
+        }
+    }
+
+    private static LongUnaryOperator newWorkload(Class<?> type) throws ReflectiveOperationException {
+        return (LongUnaryOperator) type.getDeclaredConstructor().newInstance();
+    }
+
+    @Benchmark
+    public long run() {
+        return workload.applyAsLong(seed++);
+    }
+
+    /**
+     * Defines the workload itself and leaves everything else, the coverage runtime included, to
+     * the benchmark's own loader.
+     */
+    private static final class WorkloadLoader extends ClassLoader {
+        WorkloadLoader() {
+            super(CoverageAgentBenchmark.class.getClassLoader());
+        }
+
+        Class<?> define(String className, byte[] bytes) {
+            return defineClass(className, bytes, 0, bytes.length);
+        }
+    }
+}
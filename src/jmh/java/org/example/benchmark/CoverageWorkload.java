@@ -0,0 +1,63 @@
+package org.example.benchmark;
+
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * CPU-bound work for {@link CoverageAgentBenchmark}: a sieve, an insertion sort and a checksum,
+ * all short lines in tight loops, where line probes cost the most. Loaded by the benchmark
+ * itself, instrumented or not, so it must stay free of anything but the JDK.
+ */
+public class CoverageWorkload implements LongUnaryOperator {
+    private static final int SIZE = 4096;
+
+    private final boolean[] composite = new boolean[SIZE];
+    private final int[] values = new int[SIZE / 8];
+
+    @Override
+    public long applyAsLong(long seed) {
+        return sieve() + sort(seed) + checksum(seed);
+    }
+
+    private int sieve() {
+        Arrays.fill(composite, false);
+        int primes = 0;
+        for (int i = 2; i < SIZE; i++) {
+            if (composite[i]) {
+                continue;
+            }
+            primes++;
+            for (int j = i * i; j < SIZE; j += i) {
+                composite[j] = true;
+            }
+        }
+        return primes;
+    }
+
+    private long sort(long seed) {
+        long state = seed;
+        for (int i = 0; i < values.length; i++) {
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            values[i] = (int) (state >>> 33);
+        }
+        for (int i = 1; i < values.length; i++) {
+            int value = values[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] > value) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+        return values[values.length / 2];
+    }
+
+    private long checksum(long seed) {
+        long hash = seed;
+        for (int value : values) {
+            hash ^= value;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
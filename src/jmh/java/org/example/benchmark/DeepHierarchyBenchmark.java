@@ -0,0 +1,68 @@
+package org.example.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.ClassInfo;
+import org.example.model.JarAnalysisResult;
+import org.example.service.MetricsAccumulator;
+import org.example.service.MetricsCalculator;
+import org.example.util.SymbolTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Stress run of {@link MetricsCalculator} on a single superclass chain of {@code length} classes,
+ * registered deepest first so that no ancestor is memoized before its descendants ask for it.
+ *
+ * <p>Every class implements one of two interfaces that extend each other, so the interface cycle
+ * is hit on every run. The time per operation should grow linearly with {@code length}; a
+ * recursive walk would fail with {@link StackOverflowError} at these depths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeepHierarchyBenchmark {
+    @Param({"10000", "100000"})
+    public int length;
+
+    private MetricsAccumulator accumulator;
+    private MetricsCalculator calculator;
+
+    @Setup
+    public void setUp() {
+        SymbolTable symbols = new SymbolTable();
+        accumulator = new MetricsAccumulator(symbols);
+        calculator = new MetricsCalculator();
+
+        accumulator.add(ClassInfo.builder(symbols).name("IA").superName("java/lang/Object").isInterface(true)
+                .addInterface("IB").addMethod("a", "()V").build());
+        accumulator.add(ClassInfo.builder(symbols).name("IB").superName("java/lang/Object").isInterface(true)
+                .addInterface("IA").addMethod("b", "()V").build());
+        for (int i = length - 1; i >= 0; i--) {
+            accumulator.add(ClassInfo.builder(symbols)
+                    .name("D" + i)
+                    .superName(i == 0 ? "java/lang/Object" : "D" + (i - 1))
+                    .addInterface(i % 2 == 0 ? "IA" : "IB")
+                    .addMethod("m" + i % 50, "()V")
+                    .addMethod("a", "()V")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public JarAnalysisResult calculate() {
+        return calculator.calculate("deep.jar", accumulator);
+    }
+}
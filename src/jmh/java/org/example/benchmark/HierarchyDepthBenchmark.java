@@ -0,0 +1,85 @@
+package org.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.TypeNode;
+import org.example.service.HierarchyIndex;
+import org.example.util.SymbolTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inheritance depth of every type in a synthetic hierarchy made of independent superclass
+ * chains: the memoized {@link HierarchyIndex} against a per-class walk up the chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HierarchyDepthBenchmark {
+    @Param("100000")
+    public int classes;
+
+    @Param("50")
+    public int chainDepth;
+
+    private SymbolTable symbols;
+    private int objectId;
+    private List<TypeNode> types;
+    private TypeNode[] typesById;
+
+    @Setup
+    public void setUp() {
+        symbols = new SymbolTable();
+        objectId = symbols.classId("java/lang/Object");
+        types = new ArrayList<>(classes);
+        typesById = new TypeNode[classes + 1];
+        for (int i = 0; i < classes; i++) {
+            int level = i % chainDepth;
+            int nameId = symbols.classId("c" + i);
+            int superId = level == 0 ? objectId : symbols.classId("c" + (i - 1));
+            TypeNode type = new TypeNode(nameId, superId, new int[0], false, new int[0]);
+            types.add(type);
+            typesById[nameId] = type;
+        }
+    }
+
+    @Benchmark
+    public long memoizedIndex() {
+        HierarchyIndex index = new HierarchyIndex(symbols, id -> typesById[id]);
+        long total = 0;
+        for (TypeNode type : types) {
+            total += index.depth(type);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long chainWalk() {
+        long total = 0;
+        for (TypeNode type : types) {
+            int depth = 1;
+            int current = type.superNameId();
+            while (current != SymbolTable.NO_ID && current != objectId) {
+                depth++;
+                TypeNode superClass = typesById[current];
+                current = superClass != null ? superClass.superNameId() : SymbolTable.NO_ID;
+            }
+            total += depth;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.ClassInfo;
+import org.example.service.JarProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link JarProcessor#process} for 1, 2, 4, ... worker threads.
+ * Run with {@code ./gradlew jmh -PbenchJar=/path/to/big.jar}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JarProcessorScalingBenchmark {
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private Path jar;
+    private JarProcessor processor;
+
+    @Setup
+    public void setUp() {
+        jar = Path.of(jarPath);
+        processor = new JarProcessor(threads);
+    }
+
+    @Benchmark
+    public List<ClassInfo> process() throws IOException {
+        return processor.process(jar);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.ClassInfo;
+import org.example.model.JarAnalysisResult;
+import org.example.model.TypeNode;
+import org.example.service.HierarchyIndex;
+import org.example.service.InheritedSignatureIndex;
+import org.example.service.MetricsAccumulator;
+import org.example.service.MetricsCalculator;
+import org.example.util.SymbolTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inheritance depth and override counting on a synthetic hierarchy, separately and as part of
+ * {@link MetricsCalculator#calculate(String, MetricsAccumulator)}.
+ *
+ * <p>The shape is configurable: {@code classes} classes in superclass chains of length
+ * {@code depth}, each implementing {@code interfaces} interfaces drawn from a pool in which every
+ * interface extends two earlier ones (diamonds), and each declaring {@code methods} methods whose
+ * signatures repeat along the chain, so roughly half of them override something.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetricsCalculatorBenchmark {
+    private static final long SEED = 42;
+
+    @Param("100000")
+    public int classes;
+
+    @Param({"5", "50"})
+    public int depth;
+
+    @Param("2")
+    public int interfaces;
+
+    @Param("10")
+    public int methods;
+
+    private MetricsAccumulator accumulator;
+    private MetricsCalculator calculator;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(SEED);
+        SymbolTable symbols = new SymbolTable();
+        accumulator = new MetricsAccumulator(symbols);
+        calculator = new MetricsCalculator();
+
+        int interfacePool = Math.max(1, classes / 10);
+        for (int i = 0; i < interfacePool; i++) {
+            ClassInfo.Builder iface = ClassInfo.builder(symbols).name("I" + i).superName("java/lang/Object").isInterface(true);
+            if (i > 1) {
+                iface.addInterface("I" + random.nextInt(i)).addInterface("I" + random.nextInt(i));
+            }
+            iface.addMethod("i" + (i % methods), "()V");
+            accumulator.add(iface.build());
+        }
+
+        for (int i = 0; i < classes; i++) {
+            int level = i % depth;
+            ClassInfo.Builder type = ClassInfo.builder(symbols)
+                    .name("C" + i)
+                    .superName(level == 0 ? "java/lang/Object" : "C" + (i - 1))
+                    .fieldCount(random.nextInt(5));
+            for (int k = 0; k < interfaces; k++) {
+                type.addInterface("I" + random.nextInt(interfacePool));
+            }
+            type.addMethod("<init>", "()V");
+            for (int m = 0; m < methods; m++) {
+                // even methods are shared along the chain, odd ones are unique to the class
+                type.addMethod(m % 2 == 0 ? "m" + m : "m" + m + "_" + i, "()V");
+            }
+            if (random.nextInt(4) == 0) {
+                type.addMethod("toString", "()Ljava/lang/String;");
+            }
+            accumulator.add(type.build());
+        }
+    }
+
+    @Benchmark
+    public JarAnalysisResult calculate() {
+        return calculator.calculate("synthetic.jar", accumulator);
+    }
+
+    @Benchmark
+    public long inheritanceDepth() {
+        HierarchyIndex index = new HierarchyIndex(accumulator.getSymbols(), accumulator::getType);
+        long total = 0;
+        for (TypeNode type : accumulator.getTypes()) {
+            total += index.depth(type);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long inheritedSignatures() {
+        InheritedSignatureIndex index = new InheritedSignatureIndex(accumulator.getSymbols(), accumulator::getType);
+        long total = 0;
+        for (TypeNode type : accumulator.getTypes()) {
+            if (!type.isInterface()) {
+                total += index.fromSuperClass(type.superNameId()).size();
+                for (int iface : type.interfaceIds()) {
+                    total += index.fromInterface(iface).size();
+                }
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.example.JarAnalyzer;
+import org.example.model.JarAnalysisResult;
+import org.example.model.Metric;
+import org.example.service.JarProcessor;
+import org.example.service.JarProcessor.ParseLevel;
+import org.example.service.MetricsAccumulator;
+import org.example.util.SymbolTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What a structural-only run saves: parsing a jar at each {@link ParseLevel}, and a whole
+ * streaming analysis with the metrics that level serves ({@code HEADER}: inheritance;
+ * {@code MEMBERS}: inheritance, overrides and fields; {@code CODE}: all). Run with
+ * {@code ./gradlew jmh -PbenchJar=/path/to/big.jar -Pjmh.includes=ParseLevel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseLevelBenchmark {
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    @Param({"HEADER", "MEMBERS", "CODE"})
+    public ParseLevel level;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Path jar;
+    private JarProcessor processor;
+    private JarAnalyzer analyzer;
+
+    @Setup
+    public void setUp() {
+        jar = Path.of(jarPath);
+        processor = new JarProcessor(threads, JarProcessor.Ingestion.MAPPED, null, level);
+        Set<Metric> metrics = switch (level) {
+            case HEADER -> EnumSet.of(Metric.INHERITANCE);
+            case MEMBERS -> EnumSet.of(Metric.INHERITANCE, Metric.OVERRIDES, Metric.FIELDS);
+            case CODE -> Metric.all();
+        };
+        analyzer = JarAnalyzer.builder()
+                .parallelism(threads)
+                .ingestion(JarProcessor.Ingestion.MAPPED)
+                .streaming(true)
+                .metrics(metrics)
+                .build();
+    }
+
+    @Benchmark
+    public MetricsAccumulator parse() throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        return processor.process(jar, symbols, () -> new MetricsAccumulator(symbols),
+                MetricsAccumulator::add, MetricsAccumulator::merge);
+    }
+
+    @Benchmark
+    public JarAnalysisResult analyze() throws IOException {
+        return analyzer.analyze(jar);
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.ClassInfo;
+import org.example.plugin.AllocationSitesPlugin;
+import org.example.plugin.MetricPlugins;
+import org.example.plugin.PluginAccumulators;
+import org.example.util.SymbolTable;
+import org.example.visitor.ClassInfoVisitor;
+import org.objectweb.asm.ClassReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * What fusing metric plugins into the built-in pass saves: the built-in metrics plus
+ * {@code plugins} copies of {@link AllocationSitesPlugin}, either chained behind
+ * {@link ClassInfoVisitor} in one {@link ClassReader} pass ({@code fused}) or each given its own
+ * pass over the class ({@code separate}). {@code plugins = 0} is the built-in pass alone. Class
+ * bytes are loaded up front. Scores are classes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PluginFusionBenchmark {
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    @Param({"0", "1", "3"})
+    public int plugins;
+
+    private List<byte[]> classes;
+    private SymbolTable symbols;
+    private MetricPlugins fused;
+    private MetricPlugins[] separate;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        classes = ClassBytes.load(Path.of(jarPath));
+        symbols = new SymbolTable();
+        AllocationSitesPlugin[] copies = new AllocationSitesPlugin[plugins];
+        separate = new MetricPlugins[plugins];
+        for (int i = 0; i < plugins; i++) {
+            String name = "allocations" + i;
+            copies[i] = new AllocationSitesPlugin() {
+                @Override
+                public String name() {
+                    return name;
+                }
+            };
+            separate[i] = MetricPlugins.of(List.of(copies[i]));
+        }
+        fused = MetricPlugins.of(List.of(copies));
+    }
+
+    @Benchmark
+    public ClassInfo fused() {
+        ClassInfoVisitor visitor = new ClassInfoVisitor(symbols, fused.isEmpty() ? null : fused.newAccumulators());
+        new ClassReader(nextClass()).accept(visitor, PARSING_OPTIONS);
+        return visitor.getClassInfo();
+    }
+
+    @Benchmark
+    public void separate(Blackhole blackhole) {
+        ClassReader reader = new ClassReader(nextClass());
+        ClassInfoVisitor visitor = new ClassInfoVisitor(symbols);
+        reader.accept(visitor, PARSING_OPTIONS);
+        blackhole.consume(visitor.getClassInfo());
+        for (MetricPlugins plugin : separate) {
+            PluginAccumulators accumulators = plugin.newAccumulators();
+            reader.accept(accumulators.classVisitor(), PARSING_OPTIONS);
+            blackhole.consume(accumulators);
+        }
+    }
+
+    private byte[] nextClass() {
+        byte[] bytes = classes.get(next);
+        next = next + 1 == classes.size() ? 0 : next + 1;
+        return bytes;
+    }
+}
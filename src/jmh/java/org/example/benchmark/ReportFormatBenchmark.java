@@ -0,0 +1,124 @@
+package org.example.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.example.model.ABCMetrics;
+import org.example.model.ClassReport;
+import org.example.model.ClassReport.MethodReport;
+import org.example.model.JarAnalysisResult.ABCSummary;
+import org.example.service.DetailedReportWriter;
+import org.example.service.ReportFormat;
+import org.example.service.ReportGenerator;
+import org.example.service.ReportReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding a detailed report of {@code classes} synthetic classes, NDJSON against
+ * Smile, in memory. The encoded sizes, plain and gzipped, are printed once per trial, since JMH
+ * itself only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportFormatBenchmark {
+    private static final long SEED = 42;
+    private static final String[] DESCRIPTORS = {
+            "()V", "()I", "(I)V", "(Ljava/lang/String;)V", "()Ljava/lang/String;", "(Ljava/lang/Object;)Z"
+    };
+
+    @Param({"JSON", "SMILE"})
+    public ReportFormat format;
+
+    @Param("10000")
+    public int classes;
+
+    private ReportGenerator reportGenerator;
+    private ReportReader reportReader;
+    private List<ClassReport> reports;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        reportGenerator = new ReportGenerator();
+        reportReader = new ReportReader();
+        reports = reports(classes);
+        encoded = encode();
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(encoded);
+        }
+        System.out.printf("%n%s: %d bytes, %d bytes gzipped, %.1f bytes per class%n",
+                format, encoded.length, gzipped.size(), (double) encoded.length / classes);
+    }
+
+    @Benchmark
+    public byte[] encodeDetails() throws IOException {
+        return encode();
+    }
+
+    @Benchmark
+    public long decodeDetails() throws IOException {
+        try (Stream<ClassReport> details = reportReader.readDetails(new ByteArrayInputStream(encoded))) {
+            return details.mapToLong(report -> report.methods().size()).sum();
+        }
+    }
+
+    private byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded == null ? 1 << 20 : encoded.length);
+        try (DetailedReportWriter writer = reportGenerator.openDetailedReport(out, format)) {
+            for (ClassReport report : reports) {
+                writer.write(report);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ClassReport> reports(int count) {
+        Random random = new Random(SEED);
+        List<ClassReport> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<MethodReport> methods = new ArrayList<>();
+            ABCMetrics total = new ABCMetrics();
+            for (int m = 0, n = 1 + random.nextInt(15); m < n; m++) {
+                ABCMetrics abc = new ABCMetrics(random.nextInt(20), random.nextInt(40), random.nextInt(10));
+                total.add(abc);
+                methods.add(MethodReport.from("method" + m, DESCRIPTORS[random.nextInt(DESCRIPTORS.length)], abc));
+            }
+            String pkg = "com/example/module" + (i % 50) + "/";
+            reports.add(new ClassReport(
+                    pkg + "Type" + i,
+                    random.nextInt(3) == 0 ? pkg + "Type" + random.nextInt(i + 1) : "java/lang/Object",
+                    random.nextBoolean() ? List.of("java/io/Serializable") : List.of(),
+                    false,
+                    1 + random.nextInt(6),
+                    random.nextInt(5),
+                    random.nextInt(10),
+                    ABCSummary.from(total),
+                    methods
+            ));
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.ABCMetrics;
+import org.example.model.JarAnalysisResult;
+import org.example.model.JarAnalysisResult.ABCSummary;
+import org.example.model.JarAnalysisResult.InheritanceMetrics;
+import org.example.service.ReportGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization cost of a report: {@link ReportGenerator#writeToJson} to a temporary file and the
+ * in-memory NDJSON line used by batch mode and the daemon. {@code nestedJars} adds per-jar
+ * sections, as in a fat-jar report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReportGeneratorBenchmark {
+
+    @Param({"0", "100"})
+    public int nestedJars;
+
+    private ReportGenerator reportGenerator;
+    private JarAnalysisResult result;
+    private Path output;
+
+    @Setup
+    public void setUp() throws IOException {
+        reportGenerator = new ReportGenerator();
+        List<JarAnalysisResult> nested = null;
+        if (nestedJars > 0) {
+            nested = new ArrayList<>(nestedJars);
+            for (int i = 0; i < nestedJars; i++) {
+                nested.add(result("BOOT-INF/lib/library-" + i + ".jar", null));
+            }
+        }
+        result = result("app.jar", nested);
+        output = Files.createTempFile("report", ".json");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public Path writeToJson() throws IOException {
+        reportGenerator.writeToJson(result, output);
+        return output;
+    }
+
+    @Benchmark
+    public String toJsonLine() throws IOException {
+        return reportGenerator.toJsonLine("/srv/app/app.jar", result);
+    }
+
+    private static JarAnalysisResult result(String name, List<JarAnalysisResult> nestedJars) {
+        return new JarAnalysisResult(
+                name,
+                4264,
+                306,
+                new InheritanceMetrics(7, 2.83),
+                ABCSummary.from(new ABCMetrics(45349, 221759, 42460)),
+                2.24,
+                2.49,
+                null,
+                null,
+                null,
+                null,
+                nestedJars
+        );
+    }
+}
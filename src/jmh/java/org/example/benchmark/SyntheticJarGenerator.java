@@ -0,0 +1,507 @@
+package org.example.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Writes synthetic jars of arbitrary size and shape for benchmarks and stress tests.
+ *
+ * <p>Regular classes form trees of configurable depth and fan-out below {@code java/lang/Object}
+ * and implement interfaces from a shared pool, which optionally extend two earlier interfaces
+ * each to produce diamonds. Every class declares the same method names as its ancestors, so
+ * overriding is common, and implements the methods of its interfaces. Method bodies are random
+ * sequences of assignments and conditional branches with the configured densities.
+ *
+ * <p>On top of that, pathological shapes can be added: a superclass chain thousands of levels
+ * deep, a method with a huge {@code tableswitch}, and methods close to the 64 KB code limit.
+ *
+ * <p>The output is fully determined by the configuration: the same seed yields a byte-identical
+ * jar. Classes are streamed to the zip one at a time, so millions of classes need no more memory
+ * than one.
+ */
+public final class SyntheticJarGenerator {
+    /**
+     * Fixed entry timestamp, so that jar bytes do not depend on the time of generation. Zip times
+     * are local, so it is given as one; an instant would map to a different one in every zone.
+     * 1980-01-01 00:00 itself is the JDK's marker for earlier times, which adds an extended
+     * timestamp holding an instant again, so this is the one reproducible builds use.
+     */
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 2, 1, 0, 0);
+    private static final int MAX_CODE_SIZE = 65_535;
+    private static final int MAX_SWITCH_CASES = 16_000;
+    private static final String OBJECT = "java/lang/Object";
+    private static final String METHOD_DESCRIPTOR = "(I)I";
+
+    private final long seed;
+    private final int classCount;
+    private final int hierarchyDepth;
+    private final int fanOut;
+    private final int interfaceCount;
+    private final int interfacesPerClass;
+    private final boolean interfaceDiamonds;
+    private final int methodsPerClass;
+    private final int blocksPerMethod;
+    private final double branchDensity;
+    private final double assignmentDensity;
+    private final int deepChainLength;
+    private final int switchCases;
+    private final int largeMethods;
+
+    private SyntheticJarGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.classCount = builder.classCount;
+        this.hierarchyDepth = builder.hierarchyDepth;
+        this.fanOut = builder.fanOut;
+        this.interfaceCount = builder.interfaceCount;
+        this.interfacesPerClass = builder.interfaceCount == 0 ? 0 : builder.interfacesPerClass;
+        this.interfaceDiamonds = builder.interfaceDiamonds;
+        this.methodsPerClass = builder.methodsPerClass;
+        this.blocksPerMethod = builder.blocksPerMethod;
+        this.branchDensity = builder.branchDensity;
+        this.assignmentDensity = builder.assignmentDensity;
+        this.deepChainLength = builder.deepChainLength;
+        this.switchCases = builder.switchCases;
+        this.largeMethods = builder.largeMethods;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void write(Path jarPath) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(jarPath), 1 << 16)) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream out) throws IOException {
+        Random random = new Random(seed);
+        ZipOutputStream zip = new ZipOutputStream(out);
+        addEntry(zip, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\r\nCreated-By: SyntheticJarGenerator\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+
+        for (int i = 0; i < interfaceCount; i++) {
+            addClass(zip, interfaceName(i), generateInterface(i, random));
+        }
+        int treeSize = treeSize();
+        for (int i = 0; i < classCount; i++) {
+            addClass(zip, className(i), generateClass(i, treeSize, random));
+        }
+        for (int i = 0; i < deepChainLength; i++) {
+            String superName = i == 0 ? OBJECT : "gen/deep/D" + (i - 1);
+            addClass(zip, "gen/deep/D" + i, generateSimpleClass("gen/deep/D" + i, superName, random, 1));
+        }
+        if (switchCases > 0) {
+            addClass(zip, "gen/patho/HugeSwitch", generateHugeSwitch());
+        }
+        for (int i = 0; i < largeMethods; i++) {
+            addClass(zip, "gen/patho/Large" + i, generateLargeMethodClass("gen/patho/Large" + i, random));
+        }
+        zip.finish();
+    }
+
+    /**
+     * Number of classes in one complete tree: {@code 1 + f + f^2 + ... + f^(depth - 1)}, capped
+     * at the class count.
+     */
+    private int treeSize() {
+        long size = 0;
+        long level = 1;
+        for (int d = 0; d < hierarchyDepth && size < classCount; d++) {
+            size += level;
+            level *= fanOut;
+        }
+        return (int) Math.max(1, Math.min(size, classCount));
+    }
+
+    private byte[] generateInterface(int index, Random random) {
+        String[] parents = new String[0];
+        if (interfaceDiamonds && index >= 2) {
+            int first = random.nextInt(index);
+            int second = random.nextInt(index);
+            parents = first == second ? new String[]{interfaceName(first)} : new String[]{interfaceName(first), interfaceName(second)};
+        }
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT | Opcodes.ACC_INTERFACE,
+                interfaceName(index), null, OBJECT, parents);
+        writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, interfaceMethod(index), METHOD_DESCRIPTOR, null, null)
+                .visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private byte[] generateClass(int index, int treeSize, Random random) {
+        int position = index % treeSize;
+        String superName = position == 0 ? OBJECT : className(index - position + (position - 1) / fanOut);
+
+        int[] interfaces = new int[interfacesPerClass];
+        for (int k = 0; k < interfaces.length; k++) {
+            interfaces[k] = random.nextInt(interfaceCount);
+        }
+        interfaces = Arrays.stream(interfaces).distinct().toArray();
+        String[] interfaceNames = Arrays.stream(interfaces).mapToObj(SyntheticJarGenerator::interfaceName).toArray(String[]::new);
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className(index), null, superName, interfaceNames);
+        for (int f = random.nextInt(4); f > 0; f--) {
+            writer.visitField(Opcodes.ACC_PRIVATE, "f" + f, "I", null, null).visitEnd();
+        }
+        generateConstructor(writer, superName);
+        for (int m = 0; m < methodsPerClass; m++) {
+            generateMethod(writer, "m" + m, random);
+        }
+        for (int iface : interfaces) {
+            generateMethod(writer, interfaceMethod(iface), random);
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private byte[] generateSimpleClass(String name, String superName, Random random, int methods) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, superName, null);
+        generateConstructor(writer, superName);
+        for (int m = 0; m < methods; m++) {
+            generateMethod(writer, "m" + m, random);
+        }
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private void generateConstructor(ClassWriter writer, String superName) {
+        MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+    }
+
+    /**
+     * {@code int name(int x)} with {@code blocksPerMethod} blocks, each an assignment to the
+     * accumulator and/or an {@code if (x == k) acc++} branch, according to the densities.
+     */
+    private void generateMethod(ClassWriter writer, String name, Random random) {
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, name, METHOD_DESCRIPTOR, null, null);
+        method.visitCode();
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitVarInsn(Opcodes.ISTORE, 2);
+        for (int b = 0; b < blocksPerMethod; b++) {
+            if (random.nextDouble() < assignmentDensity) {
+                method.visitVarInsn(Opcodes.ILOAD, 2);
+                method.visitVarInsn(Opcodes.ILOAD, 1);
+                method.visitInsn(Opcodes.IADD);
+                method.visitVarInsn(Opcodes.ISTORE, 2);
+            }
+            if (random.nextDouble() < branchDensity) {
+                emitBranch(method, b);
+            }
+        }
+        method.visitVarInsn(Opcodes.ILOAD, 2);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+
+    /**
+     * {@code if (x == k) acc++}: 9 bytes of code.
+     */
+    private void emitBranch(MethodVisitor method, int k) {
+        Label skip = new Label();
+        method.visitVarInsn(Opcodes.ILOAD, 1);
+        method.visitIntInsn(Opcodes.BIPUSH, (byte) k);
+        method.visitJumpInsn(Opcodes.IF_ICMPNE, skip);
+        method.visitIincInsn(2, 1);
+        method.visitLabel(skip);
+    }
+
+    /**
+     * A single {@code tableswitch} with {@code switchCases} cases spread over up to 256 targets,
+     * which keeps the method below the code size limit for up to {@value #MAX_SWITCH_CASES} cases.
+     */
+    private byte[] generateHugeSwitch() {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "gen/patho/HugeSwitch", null, OBJECT, null);
+        generateConstructor(writer, OBJECT);
+
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "dispatch", "(I)I", null, null);
+        method.visitCode();
+        Label[] targets = new Label[Math.min(switchCases, 256)];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = new Label();
+        }
+        Label[] cases = new Label[switchCases];
+        for (int i = 0; i < switchCases; i++) {
+            cases[i] = targets[i % targets.length];
+        }
+        Label defaultCase = new Label();
+        method.visitVarInsn(Opcodes.ILOAD, 0);
+        method.visitTableSwitchInsn(0, switchCases - 1, defaultCase, cases);
+        for (int i = 0; i < targets.length; i++) {
+            method.visitLabel(targets[i]);
+            method.visitIntInsn(Opcodes.SIPUSH, i);
+            method.visitInsn(Opcodes.IRETURN);
+        }
+        method.visitLabel(defaultCase);
+        method.visitInsn(Opcodes.ICONST_M1);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * A class with one method filled with branch blocks up to just below the 64 KB code limit.
+     */
+    private byte[] generateLargeMethodClass(String name, Random random) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, OBJECT, null);
+        generateConstructor(writer, OBJECT);
+
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "large", METHOD_DESCRIPTOR, null, null);
+        method.visitCode();
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitVarInsn(Opcodes.ISTORE, 2);
+        // prologue 2 bytes, epilogue 2 bytes, 9 bytes per branch block
+        int blocks = (MAX_CODE_SIZE - 4) / 9;
+        for (int b = 0; b < blocks; b++) {
+            emitBranch(method, random.nextInt(128));
+        }
+        method.visitVarInsn(Opcodes.ILOAD, 2);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static String className(int index) {
+        return "gen/p" + (index / 1000) + "/C" + index;
+    }
+
+    private static String interfaceName(int index) {
+        return "gen/i" + (index / 1000) + "/I" + index;
+    }
+
+    private static String interfaceMethod(int index) {
+        return "i" + index;
+    }
+
+    private static void addClass(ZipOutputStream zip, String className, byte[] bytes) throws IOException {
+        addEntry(zip, className + ".class", bytes);
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, byte[] bytes) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTimeLocal(ENTRY_TIME);
+        zip.putNextEntry(entry);
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    /**
+     * Generates a jar from {@code key=value} arguments, e.g.
+     * {@code out.jar seed=7 classes=1000000 depth=8 fanOut=3 largeMethods=10}. See
+     * {@link Builder} for the keys.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: SyntheticJarGenerator <output.jar> [key=value]...");
+            System.out.println("Keys: seed, classes, depth, fanOut, interfaces, interfacesPerClass, diamonds,");
+            System.out.println("      methods, blocks, branchDensity, assignmentDensity, deepChain, switchCases, largeMethods");
+            System.exit(1);
+        }
+        Builder builder = builder();
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value: " + args[i]);
+            }
+            String value = args[i].substring(eq + 1);
+            switch (args[i].substring(0, eq)) {
+                case "seed" -> builder.seed(Long.parseLong(value));
+                case "classes" -> builder.classCount(Integer.parseInt(value));
+                case "depth" -> builder.hierarchyDepth(Integer.parseInt(value));
+                case "fanOut" -> builder.fanOut(Integer.parseInt(value));
+                case "interfaces" -> builder.interfaceCount(Integer.parseInt(value));
+                case "interfacesPerClass" -> builder.interfacesPerClass(Integer.parseInt(value));
+                case "diamonds" -> builder.interfaceDiamonds(Boolean.parseBoolean(value));
+                case "methods" -> builder.methodsPerClass(Integer.parseInt(value));
+                case "blocks" -> builder.blocksPerMethod(Integer.parseInt(value));
+                case "branchDensity" -> builder.branchDensity(Double.parseDouble(value));
+                case "assignmentDensity" -> builder.assignmentDensity(Double.parseDouble(value));
+                case "deepChain" -> builder.deepChainLength(Integer.parseInt(value));
+                case "switchCases" -> builder.switchCases(Integer.parseInt(value));
+                case "largeMethods" -> builder.largeMethods(Integer.parseInt(value));
+                default -> throw new IllegalArgumentException("Unknown key: " + args[i]);
+            }
+        }
+        Path output = Path.of(args[0]);
+        builder.build().write(output);
+        System.out.println("Synthetic jar written to: " + output.toAbsolutePath());
+    }
+
+    public static final class Builder {
+        private long seed = 1;
+        private int classCount = 1_000;
+        private int hierarchyDepth = 4;
+        private int fanOut = 3;
+        private int interfaceCount = 100;
+        private int interfacesPerClass = 1;
+        private boolean interfaceDiamonds = true;
+        private int methodsPerClass = 5;
+        private int blocksPerMethod = 8;
+        private double branchDensity = 0.3;
+        private double assignmentDensity = 0.5;
+        private int deepChainLength;
+        private int switchCases;
+        private int largeMethods;
+
+        private Builder() {
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder classCount(int classCount) {
+            this.classCount = requireNonNegative(classCount, "classCount");
+            return this;
+        }
+
+        /**
+         * Levels per class tree; {@code 1} makes every class a direct subclass of {@code Object}.
+         */
+        public Builder hierarchyDepth(int hierarchyDepth) {
+            this.hierarchyDepth = requirePositive(hierarchyDepth, "hierarchyDepth");
+            return this;
+        }
+
+        /**
+         * Direct subclasses per class within a tree; {@code 1} produces plain chains.
+         */
+        public Builder fanOut(int fanOut) {
+            this.fanOut = requirePositive(fanOut, "fanOut");
+            return this;
+        }
+
+        public Builder interfaceCount(int interfaceCount) {
+            this.interfaceCount = requireNonNegative(interfaceCount, "interfaceCount");
+            return this;
+        }
+
+        public Builder interfacesPerClass(int interfacesPerClass) {
+            this.interfacesPerClass = requireNonNegative(interfacesPerClass, "interfacesPerClass");
+            return this;
+        }
+
+        /**
+         * Let every interface extend two earlier ones, producing diamond-shaped interface graphs.
+         */
+        public Builder interfaceDiamonds(boolean interfaceDiamonds) {
+            this.interfaceDiamonds = interfaceDiamonds;
+            return this;
+        }
+
+        public Builder methodsPerClass(int methodsPerClass) {
+            this.methodsPerClass = requireNonNegative(methodsPerClass, "methodsPerClass");
+            return this;
+        }
+
+        public Builder blocksPerMethod(int blocksPerMethod) {
+            // at most 13 bytes of code per block
+            if (blocksPerMethod < 0 || blocksPerMethod > 5_000) {
+                throw new IllegalArgumentException("blocksPerMethod must be in [0, 5000]: " + blocksPerMethod);
+            }
+            this.blocksPerMethod = blocksPerMethod;
+            return this;
+        }
+
+        /**
+         * Probability that a block contains a conditional branch.
+         */
+        public Builder branchDensity(double branchDensity) {
+            this.branchDensity = requireProbability(branchDensity, "branchDensity");
+            return this;
+        }
+
+        /**
+         * Probability that a block contains an assignment.
+         */
+        public Builder assignmentDensity(double assignmentDensity) {
+            this.assignmentDensity = requireProbability(assignmentDensity, "assignmentDensity");
+            return this;
+        }
+
+        /**
+         * Adds a separate superclass chain of this many classes.
+         */
+        public Builder deepChainLength(int deepChainLength) {
+            this.deepChainLength = requireNonNegative(deepChainLength, "deepChainLength");
+            return this;
+        }
+
+        /**
+         * Adds a class with a {@code tableswitch} of this many cases.
+         */
+        public Builder switchCases(int switchCases) {
+            if (switchCases < 0 || switchCases > MAX_SWITCH_CASES) {
+                throw new IllegalArgumentException("switchCases must be in [0, " + MAX_SWITCH_CASES + "]: " + switchCases);
+            }
+            this.switchCases = switchCases;
+            return this;
+        }
+
+        /**
+         * Adds this many classes with one method just below the 64 KB code limit.
+         */
+        public Builder largeMethods(int largeMethods) {
+            this.largeMethods = requireNonNegative(largeMethods, "largeMethods");
+            return this;
+        }
+
+        public SyntheticJarGenerator build() {
+            return new SyntheticJarGenerator(this);
+        }
+
+        private static int requirePositive(int value, String name) {
+            if (value < 1) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+            return value;
+        }
+
+        private static int requireNonNegative(int value, String name) {
+            if (value < 0) {
+                throw new IllegalArgumentException(name + " must not be negative: " + value);
+            }
+            return value;
+        }
+
+        private static double requireProbability(double value, String name) {
+            if (value < 0 || value > 1) {
+                throw new IllegalArgumentException(name + " must be in [0, 1]: " + value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.util.SymbolTable;
+import org.example.visitor.ClassHeaderVisitor;
+import org.example.visitor.ClassInfoVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Overhead of the analyzer's visitors on top of ASM's own event dispatch, over all classes of a
+ * jar with the production flags ({@code SKIP_DEBUG | SKIP_FRAMES}):
+ * <ul>
+ *     <li>{@code baseline}: a visitor that ignores everything, i.e. pure {@link ClassReader} cost;</li>
+ *     <li>{@code header}: {@link ClassHeaderVisitor}, names and signatures only;</li>
+ *     <li>{@code classInfo}: {@link ClassInfoVisitor} including the ABC method visitor.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VisitorDispatchBenchmark {
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    private List<ClassReader> readers;
+    private SymbolTable symbols;
+
+    @Setup
+    public void setUp() throws IOException {
+        readers = ClassBytes.load(Path.of(jarPath)).stream().map(ClassReader::new).toList();
+        symbols = new SymbolTable();
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        ClassVisitor visitor = new ClassVisitor(Opcodes.ASM9) {
+        };
+        for (ClassReader reader : readers) {
+            reader.accept(visitor, PARSING_OPTIONS);
+        }
+        blackhole.consume(visitor);
+    }
+
+    @Benchmark
+    public void header(Blackhole blackhole) {
+        for (ClassReader reader : readers) {
+            ClassHeaderVisitor visitor = new ClassHeaderVisitor();
+            reader.accept(visitor, PARSING_OPTIONS);
+            blackhole.consume(visitor.getMethods());
+        }
+    }
+
+    @Benchmark
+    public void classInfo(Blackhole blackhole) {
+        for (ClassReader reader : readers) {
+            ClassInfoVisitor visitor = new ClassInfoVisitor(symbols);
+            reader.accept(visitor, PARSING_OPTIONS);
+            blackhole.consume(visitor.getClassInfo());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.model.ClassInfo;
+import org.example.service.JarProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code JarFile}-based ingestion against the memory-mapped zip reader. The gc profiler enabled in
+ * the jmh block reports allocation per run.
+ *
+ * @see org.example.util.MappedZipFile
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ZipIngestionBenchmark {
+
+    @Param("src/main/resources/sample.jar")
+    public String jarPath;
+
+    @Param({"JAR_FILE", "MAPPED"})
+    public JarProcessor.Ingestion ingestion;
+
+    @Param({"1", "8"})
+    public int threads;
+
+    private Path jar;
+    private JarProcessor processor;
+
+    @Setup
+    public void setUp() {
+        jar = Path.of(jarPath);
+        processor = new JarProcessor(threads, ingestion);
+    }
+
+    @Benchmark
+    public List<ClassInfo> process() throws IOException {
+        return processor.process(jar);
+    }
+}
@@ -0,0 +1,323 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.URLDecoder;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.model.JarAnalysisResult.CacheStatistics;
+import org.example.service.ClassInfoCache;
+import org.example.util.MappedZipFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a warm {@link JarAnalyzer} behind a local endpoint so that repeated analyses skip JVM
+ * startup and run on JIT-compiled parsing code.
+ *
+ * <p>Two transports are available, both bound to the local machine only:
+ * <ul>
+ *     <li>HTTP on a loopback port: {@code POST /analyze} with a JSON body
+ *     {@code {"jar": "/path/app.jar", "nested": false}}, or {@code GET /analyze?jar=...&nested=...};
+ *     {@code GET /health} reports the current load.</li>
+ *     <li>A Unix domain socket speaking NDJSON: one request object per line, answered by one
+ *     line holding either the result or {@code {"error": ...}}.</li>
+ * </ul>
+ * The HTTP response body is the {@link org.example.model.JarAnalysisResult} JSON, led by the
+ * requested {@code jarPath}, on success, and {@code {"error": ...}} with status 400, 500 or 503
+ * otherwise.
+ *
+ * <p>Admission control: at most {@code maxConcurrent} analyses run at once and at most
+ * {@code maxQueued} more wait for a slot; anything beyond that is rejected immediately with 503
+ * instead of piling up. Each request runs on its own virtual thread. The processor's class cache
+ * stays warm across requests and is saved on {@link #close()}. Its runs, which drive eviction and
+ * statistics, last {@link #CACHE_RUN_INTERVAL} each, so that concurrent requests share one run
+ * instead of each starting its own.
+ */
+public class AnalyzerDaemon implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AnalyzerDaemon.class);
+    private static final Duration CACHE_RUN_INTERVAL = Duration.ofMinutes(1);
+
+    private final JarAnalyzer analyzer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final int maxConcurrent;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService cacheRuns;
+    private HttpServer httpServer;
+    private ServerSocketChannel socketServer;
+    private Path socketPath;
+
+    public AnalyzerDaemon(JarAnalyzer analyzer, int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Invalid admission limits: " + maxConcurrent + " running, " + maxQueued + " queued");
+        }
+        this.analyzer = analyzer;
+        this.maxConcurrent = maxConcurrent;
+        this.admitted = new Semaphore(maxConcurrent + maxQueued);
+        this.running = new Semaphore(maxConcurrent);
+        ClassInfoCache cache = analyzer.getJarProcessor().getCache();
+        if (cache == null) {
+            this.cacheRuns = null;
+        } else {
+            this.cacheRuns = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("analyzer-cache-runs").daemon().factory());
+            long interval = CACHE_RUN_INTERVAL.toMillis();
+            cacheRuns.scheduleAtFixedRate(() -> nextCacheRun(cache), interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Starts serving HTTP on the loopback interface; port {@code 0} picks a free port.
+     *
+     * @return the bound port
+     */
+    public synchronized int startHttp(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/analyze", this::handleAnalyze);
+        httpServer.createContext("/health", this::handleHealth);
+        httpServer.start();
+        int boundPort = httpServer.getAddress().getPort();
+        log.info("Listening on http://{}:{}", httpServer.getAddress().getHostString(), boundPort);
+        return boundPort;
+    }
+
+    /**
+     * Starts serving NDJSON on a Unix domain socket; a stale socket file is replaced.
+     *
+     * @throws FileAlreadyExistsException if something other than a socket exists at {@code path}
+     */
+    public synchronized void startUnixSocket(Path path) throws IOException {
+        removeStaleSocket(path);
+        socketServer = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        socketServer.bind(UnixDomainSocketAddress.of(path));
+        socketPath = path;
+        Thread.ofPlatform().name("analyzer-socket-acceptor").daemon().start(this::acceptConnections);
+        log.info("Listening on unix socket {}", path);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        if (socketServer != null) {
+            socketServer.close();
+            Files.deleteIfExists(socketPath);
+        }
+        executor.shutdownNow();
+        ClassInfoCache cache = analyzer.getJarProcessor().getCache();
+        if (cache != null) {
+            cacheRuns.shutdownNow();
+            cache.save();
+        }
+    }
+
+    private static void removeStaleSocket(Path path) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        // sockets are neither files, directories nor links
+        if (!attributes.isOther()) {
+            throw new FileAlreadyExistsException(path.toString(), null, "not a socket, refusing to replace it");
+        }
+        Files.delete(path);
+    }
+
+    private static void nextCacheRun(ClassInfoCache cache) {
+        try {
+            CacheStatistics finished = cache.nextRun();
+            if (finished.hits() + finished.misses() > 0) {
+                log.info("Class cache: {}", finished);
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the schedule, and the cache works on without new runs
+            log.warn("Failed to start a new class cache run", e);
+        }
+    }
+
+    private void handleAnalyze(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = switch (exchange.getRequestMethod()) {
+                    case "POST" -> analyze(readRequest(exchange.getRequestBody()));
+                    case "GET" -> analyze(queryRequest(exchange.getRequestURI().getRawQuery()));
+                    default -> Response.error(405, "Use GET or POST");
+                };
+            } catch (IOException e) {
+                response = Response.error(400, "Malformed request: " + e.getMessage());
+            }
+            if (response.status() == 503) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            send(exchange, response);
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            ObjectNode health = objectMapper.createObjectNode()
+                    .put("status", "ok")
+                    .put("running", maxConcurrent - running.availablePermits());
+            ClassInfoCache cache = analyzer.getJarProcessor().getCache();
+            if (cache != null) {
+                health.set("cache", objectMapper.valueToTree(cache.statistics()));
+            }
+            send(exchange, new Response(200, objectMapper.writeValueAsString(health)));
+        }
+    }
+
+    private void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void acceptConnections() {
+        while (true) {
+            try {
+                SocketChannel connection = socketServer.accept();
+                executor.submit(() -> serveConnection(connection));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to accept connection", e);
+            }
+        }
+    }
+
+    private void serveConnection(SocketChannel connection) {
+        try (connection;
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(connection), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Response response;
+                try {
+                    response = analyze(parseRequest(objectMapper.readTree(line)));
+                } catch (IOException e) {
+                    response = Response.error(400, "Malformed request: " + e.getMessage());
+                }
+                out.write(response.body());
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            log.debug("Connection closed", e);
+        }
+    }
+
+    private Response analyze(Request request) {
+        if (!admitted.tryAcquire()) {
+            return Response.error(503, "Too many pending requests");
+        }
+        try {
+            running.acquire();
+            try {
+                long start = System.nanoTime();
+                String body = analyzer.getReportGenerator().toJsonLine(request.jar(),
+                        analyzer.withNestedJars(request.nested()).analyze(Path.of(request.jar())));
+                log.info("Analyzed {} in {} ms", request.jar(), (System.nanoTime() - start) / 1_000_000);
+                return new Response(200, body);
+            } finally {
+                // request threads are virtual and not reused, so their inflater goes with the request
+                MappedZipFile.releaseThreadResources();
+                running.release();
+            }
+        } catch (IllegalArgumentException e) {
+            return Response.error(400, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Response.error(503, "Interrupted");
+        } catch (Exception e) {
+            log.error("Failed to analyze {}", request.jar(), e);
+            return Response.error(500, String.valueOf(e.getMessage()));
+        } finally {
+            admitted.release();
+        }
+    }
+
+    private Request readRequest(InputStream body) throws IOException {
+        return parseRequest(objectMapper.readTree(body));
+    }
+
+    private Request queryRequest(String rawQuery) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                parameters.put(key, value);
+            }
+        }
+        String jar = parameters.get("jar");
+        if (jar == null || jar.isEmpty()) {
+            throw new IOException("missing 'jar'");
+        }
+        return new Request(jar, Boolean.parseBoolean(parameters.get("nested")));
+    }
+
+    private Request parseRequest(JsonNode json) throws IOException {
+        if (json == null || !json.path("jar").isTextual()) {
+            throw new IOException("missing 'jar'");
+        }
+        return new Request(json.get("jar").asText(), json.path("nested").asBoolean(false));
+    }
+
+    private record Request(String jar, boolean nested) {
+    }
+
+    private record Response(int status, String body) {
+        static Response error(int status, String message) {
+            return new Response(status, JsonNodeFactory.instance.objectNode().put("error", message).toString());
+        }
+    }
+}
@@ -0,0 +1,545 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.example.model.ClassInfo;
+import org.example.model.ClassReport;
+import org.example.model.JarAnalysisResult;
+import org.example.model.JarAnalysisResult.ABCSummary;
+import org.example.model.Metric;
+import org.example.model.TypeNode;
+import org.example.plugin.MetricPlugins;
+import org.example.service.ClassInfoCache;
+import org.example.service.ClasspathResolver;
+import org.example.service.DetailedReportWriter;
+import org.example.service.JarProcessor;
+import org.example.service.MetricsAccumulator;
+import org.example.service.MetricsAccumulator.MethodStatistics;
+import org.example.service.MetricsCalculator;
+import org.example.service.ReportGenerator;
+import org.example.util.SymbolTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process entry point for embedding the analyzer, e.g. in build plugins or IDE integrations.
+ *
+ * <p>Unlike {@link JarAnalyzerApp}, it never prints, writes files or exits the JVM: results are
+ * returned and failures are thrown. Jars can be given as paths or as in-memory archives
+ * ({@code byte[]} or {@link ByteBuffer}), synchronously or as a {@link CompletableFuture}.
+ *
+ * <p>Instances are immutable, thread-safe and meant to be reused: the processor, calculator,
+ * report generator, class cache and classpath are shared by all calls, so caches and JIT-compiled
+ * code stay warm. The cache and classpath are owned by the caller, who saves and closes them.
+ *
+ * <pre>{@code
+ * JarAnalyzer analyzer = JarAnalyzer.builder().parallelism(4).streaming(true).build();
+ * JarAnalysisResult result = analyzer.analyze(Path.of("app.jar"));
+ * }</pre>
+ *
+ * <p>Selecting fewer {@link Metric}s lets the processor parse less of each class: inheritance
+ * alone needs only class headers, and method bodies are skipped unless ABC is selected.
+ * {@link MetricPlugins} run in the same pass and add their sections to the result.
+ */
+public final class JarAnalyzer {
+    private static final Logger log = LoggerFactory.getLogger(JarAnalyzer.class);
+
+    private final JarProcessor jarProcessor;
+    private final MetricsCalculator metricsCalculator;
+    private final ReportGenerator reportGenerator;
+    private final boolean streaming;
+    private final boolean nestedJars;
+    private final Executor executor;
+
+    private JarAnalyzer(
+            JarProcessor jarProcessor,
+            MetricsCalculator metricsCalculator,
+            ReportGenerator reportGenerator,
+            boolean streaming,
+            boolean nestedJars,
+            Executor executor
+    ) {
+        this.jarProcessor = jarProcessor;
+        this.metricsCalculator = metricsCalculator;
+        this.reportGenerator = reportGenerator;
+        this.streaming = streaming;
+        this.nestedJars = nestedJars;
+        this.executor = executor;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * An analyzer sharing all state with this one that does or does not analyze nested jars.
+     */
+    public JarAnalyzer withNestedJars(boolean nestedJars) {
+        if (nestedJars == this.nestedJars) {
+            return this;
+        }
+        return new JarAnalyzer(jarProcessor, metricsCalculator, reportGenerator, streaming, nestedJars, executor);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the path is not an existing {@code .jar} file
+     */
+    public JarAnalysisResult analyze(Path jarPath) throws IOException {
+        validateInputFile(jarPath);
+        return analyze(jarPath.getFileName().toString(), new PathSource(jarPath));
+    }
+
+    /**
+     * Analyzes a jar held in memory; {@code jarFileName} is only used to label the result.
+     */
+    public JarAnalysisResult analyze(String jarFileName, byte[] jar) throws IOException {
+        return analyze(jarFileName, ByteBuffer.wrap(jar));
+    }
+
+    /**
+     * Analyzes a jar held in memory between the buffer's position and limit. The buffer must not
+     * be modified until the call returns.
+     */
+    public JarAnalysisResult analyze(String jarFileName, ByteBuffer jar) throws IOException {
+        Objects.requireNonNull(jarFileName, "jarFileName cannot be null");
+        return analyze(jarFileName, new BufferSource(jarFileName, jar.slice()));
+    }
+
+    /**
+     * Analyzes a jar like {@link #analyze(Path)} and also writes one {@link ClassReport} per class
+     * to {@code details}, in jar entry order, as the classes are parsed. The jar is read twice:
+     * once to build the hierarchy that depth and overrides depend on, and once to stream the
+     * per-method detail, so neither pass keeps more than the hierarchy skeleton. Nested jars are
+     * not descended into; the writer is left open.
+     *
+     * @throws IllegalStateException if not all {@link Metric}s are selected, since every report
+     *                               carries all of them
+     */
+    public JarAnalysisResult analyzeDetailed(Path jarPath, DetailedReportWriter details) throws IOException {
+        validateInputFile(jarPath);
+        return analyzeDetailed(jarPath.getFileName().toString(), new PathSource(jarPath), details);
+    }
+
+    /**
+     * Same as {@link #analyzeDetailed(Path, DetailedReportWriter)} for a jar held in memory.
+     */
+    public JarAnalysisResult analyzeDetailed(String jarFileName, ByteBuffer jar, DetailedReportWriter details)
+            throws IOException {
+        Objects.requireNonNull(jarFileName, "jarFileName cannot be null");
+        return analyzeDetailed(jarFileName, new BufferSource(jarFileName, jar.slice()), details);
+    }
+
+    public CompletableFuture<JarAnalysisResult> analyzeAsync(Path jarPath) {
+        return supplyAsync(() -> analyze(jarPath));
+    }
+
+    public CompletableFuture<JarAnalysisResult> analyzeAsync(String jarFileName, byte[] jar) {
+        return supplyAsync(() -> analyze(jarFileName, jar));
+    }
+
+    public CompletableFuture<JarAnalysisResult> analyzeAsync(String jarFileName, ByteBuffer jar) {
+        return supplyAsync(() -> analyze(jarFileName, jar));
+    }
+
+    public JarProcessor getJarProcessor() {
+        return jarProcessor;
+    }
+
+    public ReportGenerator getReportGenerator() {
+        return reportGenerator;
+    }
+
+    private JarAnalysisResult analyze(String jarFileName, Source source) throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        if (nestedJars) {
+            return analyzeNested(jarFileName, source, symbols);
+        }
+        if (streaming) {
+            MetricsAccumulator accumulator = source.process(
+                    jarProcessor,
+                    symbols,
+                    () -> new MetricsAccumulator(symbols, jarProcessor.getPlugins()),
+                    MetricsAccumulator::add,
+                    MetricsAccumulator::merge
+            );
+            if (accumulator.getTypeCount() == 0) {
+                log.warn("No classes found in {}", jarFileName);
+            }
+            return metricsCalculator.calculate(jarFileName, accumulator);
+        }
+
+        ParsedClasses parsed = source.process(
+                jarProcessor,
+                symbols,
+                () -> new ParsedClasses(symbols),
+                ParsedClasses::add,
+                ParsedClasses::addAll
+        );
+        if (parsed.classes.isEmpty()) {
+            log.warn("No classes found in {}", jarFileName);
+        }
+        log.info("Processed {} classes from {}", parsed.classes.size(), jarFileName);
+        return metricsCalculator.calculate(jarFileName, symbols, parsed.classes, parsed.methods);
+    }
+
+    private JarAnalysisResult analyzeNested(String jarFileName, Source source, SymbolTable symbols) throws IOException {
+        JarProcessor.NestedArchives<MetricsAccumulator> archives = source.processNested(
+                jarProcessor,
+                symbols,
+                () -> new MetricsAccumulator(symbols, jarProcessor.getPlugins()),
+                MetricsAccumulator::add,
+                MetricsAccumulator::merge
+        );
+
+        MetricsAccumulator overall = new MetricsAccumulator(symbols, jarProcessor.getPlugins());
+        overall.merge(archives.outer());
+        archives.nested().values().forEach(overall::merge);
+        if (overall.getTypeCount() == 0) {
+            log.warn("No classes found in {}", jarFileName);
+        }
+
+        List<JarAnalysisResult> nestedResults = new ArrayList<>();
+        archives.nested().forEach((name, accumulator) ->
+                nestedResults.add(metricsCalculator.calculate(name, accumulator, overall)));
+        return metricsCalculator.calculate(jarFileName, overall, null, nestedResults);
+    }
+
+    private JarAnalysisResult analyzeDetailed(String jarFileName, Source source, DetailedReportWriter details)
+            throws IOException {
+        if (!metricsCalculator.getMetrics().equals(Metric.all())) {
+            throw new IllegalStateException("Detailed reports need all metrics, selected: " + metricsCalculator.getMetrics());
+        }
+        SymbolTable symbols = new SymbolTable();
+        MetricsAccumulator accumulator = source.process(
+                jarProcessor,
+                symbols,
+                () -> new MetricsAccumulator(symbols, jarProcessor.getPlugins()),
+                MetricsAccumulator::add,
+                MetricsAccumulator::merge
+        );
+        if (accumulator.getTypeCount() == 0) {
+            log.warn("No classes found in {}", jarFileName);
+        }
+        JarAnalysisResult result = metricsCalculator.calculate(jarFileName, accumulator);
+
+        MetricsCalculator.TypeMetrics typeMetrics = metricsCalculator.typeMetrics(accumulator, null);
+        try {
+            source.processDetailed(jarProcessor, symbols, (classInfo, methods) -> {
+                TypeNode type = TypeNode.of(classInfo);
+                try {
+                    details.write(new ClassReport(
+                            classInfo.getName(),
+                            classInfo.getSuperName(),
+                            classInfo.getInterfaces(),
+                            classInfo.isInterface(),
+                            typeMetrics.depth(type),
+                            typeMetrics.overriddenMethods(type),
+                            classInfo.getFieldCount(),
+                            ABCSummary.from(classInfo.getAbcMetrics()),
+                            methods
+                    ));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Wrote details of {} classes from {}", details.getWrittenCount(), jarFileName);
+        return result;
+    }
+
+    private CompletableFuture<JarAnalysisResult> supplyAsync(Analysis analysis) {
+        CompletableFuture<JarAnalysisResult> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(analysis.run());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private void validateInputFile(Path jarPath) {
+        if (!Files.exists(jarPath)) {
+            throw new IllegalArgumentException("Input file does not exist: " + jarPath);
+        }
+
+        if (!Files.isRegularFile(jarPath)) {
+            throw new IllegalArgumentException("Input path is not a file: " + jarPath);
+        }
+
+        if (!jarPath.toString().toLowerCase().endsWith(".jar")) {
+            throw new IllegalArgumentException("Input file must be a JAR file: " + jarPath);
+        }
+    }
+
+    /**
+     * Every parsed class, kept without its method counts once they are in {@link #methods}.
+     */
+    private static final class ParsedClasses {
+        private final List<ClassInfo> classes = new ArrayList<>();
+        private final MethodStatistics methods;
+
+        private ParsedClasses(SymbolTable symbols) {
+            this.methods = new MethodStatistics(symbols);
+        }
+
+        private void add(ClassInfo classInfo) {
+            methods.add(classInfo);
+            classes.add(classInfo.withoutMethodMetrics());
+        }
+
+        private void addAll(ParsedClasses other) {
+            classes.addAll(other.classes);
+            methods.merge(other.methods);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Analysis {
+        JarAnalysisResult run() throws IOException;
+    }
+
+    /**
+     * Where the archive comes from; dispatches to the matching {@link JarProcessor} overload.
+     */
+    private interface Source {
+        <R> R process(
+                JarProcessor processor,
+                SymbolTable symbols,
+                Supplier<R> supplier,
+                BiConsumer<R, ? super ClassInfo> accumulator,
+                BiConsumer<R, R> combiner
+        ) throws IOException;
+
+        <R> JarProcessor.NestedArchives<R> processNested(
+                JarProcessor processor,
+                SymbolTable symbols,
+                Supplier<R> supplier,
+                BiConsumer<R, ? super ClassInfo> accumulator,
+                BiConsumer<R, R> combiner
+        ) throws IOException;
+
+        void processDetailed(
+                JarProcessor processor,
+                SymbolTable symbols,
+                BiConsumer<ClassInfo, List<ClassReport.MethodReport>> sink
+        ) throws IOException;
+    }
+
+    private record PathSource(Path path) implements Source {
+        @Override
+        public <R> R process(
+                JarProcessor processor,
+                SymbolTable symbols,
+                Supplier<R> supplier,
+                BiConsumer<R, ? super ClassInfo> accumulator,
+                BiConsumer<R, R> combiner
+        ) throws IOException {
+            return processor.process(path, symbols, supplier, accumulator, combiner);
+        }
+
+        @Override
+        public <R> JarProcessor.NestedArchives<R> processNested(
+                JarProcessor processor,
+                SymbolTable symbols,
+                Supplier<R> supplier,
+                BiConsumer<R, ? super ClassInfo> accumulator,
+                BiConsumer<R, R> combiner
+        ) throws IOException {
+            return processor.processNested(path, symbols, supplier, accumulator, combiner);
+        }
+
+        @Override
+        public void processDetailed(
+                JarProcessor processor,
+                SymbolTable symbols,
+                BiConsumer<ClassInfo, List<ClassReport.MethodReport>> sink
+        ) throws IOException {
+            processor.processDetailed(path, symbols, sink);
+        }
+    }
+
+    private record BufferSource(String name, ByteBuffer archive) implements Source {
+        @Override
+        public <R> R process(
+                JarProcessor processor,
+                SymbolTable symbols,
+                Supplier<R> supplier,
+                BiConsumer<R, ? super ClassInfo> accumulator,
+                BiConsumer<R, R> combiner
+        ) throws IOException {
+            return processor.process(name, archive.duplicate(), symbols, supplier, accumulator, combiner);
+        }
+
+        @Override
+        public <R> JarProcessor.NestedArchives<R> processNested(
+                JarProcessor processor,
+                SymbolTable symbols,
+                Supplier<R> supplier,
+                BiConsumer<R, ? super ClassInfo> accumulator,
+                BiConsumer<R, R> combiner
+        ) throws IOException {
+            return processor.processNested(name, archive.duplicate(), symbols, supplier, accumulator, combiner);
+        }
+
+        @Override
+        public void processDetailed(
+                JarProcessor processor,
+                SymbolTable symbols,
+                BiConsumer<ClassInfo, List<ClassReport.MethodReport>> sink
+        ) throws IOException {
+            processor.processDetailed(name, archive.duplicate(), symbols, sink);
+        }
+    }
+
+    public static final class Builder {
+        private int parallelism = 1;
+        private JarProcessor.Ingestion ingestion = JarProcessor.Ingestion.JAR_FILE;
+        private JarProcessor.Engine engine = JarProcessor.Engine.ASM;
+        private ClassInfoCache cache;
+        private ClasspathResolver classpath;
+        private ReportGenerator reportGenerator;
+        private boolean streaming;
+        private boolean nestedJars;
+        private Set<Metric> metrics = Metric.all();
+        private MetricPlugins plugins = MetricPlugins.none();
+        private Executor executor = ForkJoinPool.commonPool();
+
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder ingestion(JarProcessor.Ingestion ingestion) {
+            this.ingestion = ingestion;
+            return this;
+        }
+
+        public Builder engine(JarProcessor.Engine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * Class cache shared by all analyses; saving it is left to the caller.
+         */
+        public Builder cache(ClassInfoCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Resolves supertypes outside the analyzed jars; closing it is left to the caller.
+         */
+        public Builder classpath(ClasspathResolver classpath) {
+            this.classpath = classpath;
+            return this;
+        }
+
+        public Builder reportGenerator(ReportGenerator reportGenerator) {
+            this.reportGenerator = reportGenerator;
+            return this;
+        }
+
+        /**
+         * Fold classes into a {@link MetricsAccumulator} while parsing instead of keeping every
+         * {@link ClassInfo} until the end.
+         */
+        public Builder streaming(boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+
+        /**
+         * Also analyze nested jars ({@code BOOT-INF/lib/*.jar} and the like) and report them
+         * individually next to the combined result.
+         */
+        public Builder nestedJars(boolean nestedJars) {
+            this.nestedJars = nestedJars;
+            return this;
+        }
+
+        /**
+         * Metrics to compute, all by default. The processor built by {@link #build()} parses
+         * only as much of each class as they need.
+         */
+        public Builder metrics(Set<Metric> metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics cannot be null");
+            return this;
+        }
+
+        /**
+         * Metric plugins to run alongside the built-in metrics, none by default, e.g.
+         * {@code MetricPlugins.discover().select("allocations")}. The processor built by
+         * {@link #build()} parses as much as the plugins need, too.
+         */
+        public Builder plugins(MetricPlugins plugins) {
+            this.plugins = Objects.requireNonNull(plugins, "plugins cannot be null");
+            return this;
+        }
+
+        /**
+         * Executor running {@code analyzeAsync} calls; the common fork-join pool by default.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+            return this;
+        }
+
+        public JarAnalyzer build() {
+            JarProcessor.ParseLevel level = JarProcessor.ParseLevel.forMetrics(metrics);
+            if (!level.covers(plugins.parseLevel())) {
+                level = plugins.parseLevel();
+            }
+            return new JarAnalyzer(
+                    new JarProcessor(parallelism, ingestion, cache, level, engine, plugins),
+                    new MetricsCalculator(classpath, metrics, plugins),
+                    reportGenerator != null ? reportGenerator : new ReportGenerator(),
+                    streaming,
+                    nestedJars,
+                    executor
+            );
+        }
+
+        /**
+         * Builds around an existing processor, ignoring {@link #parallelism}, {@link #ingestion},
+         * {@link #engine}, {@link #cache} and {@link #plugins}: the processor's own plugins are
+         * used.
+         *
+         * @throws IllegalArgumentException if the processor's parse level is too low for the
+         *                                  selected metrics
+         */
+        public JarAnalyzer build(JarProcessor jarProcessor) {
+            Objects.requireNonNull(jarProcessor, "jarProcessor cannot be null");
+            JarProcessor.ParseLevel required = JarProcessor.ParseLevel.forMetrics(metrics);
+            if (!jarProcessor.getParseLevel().covers(required)) {
+                throw new IllegalArgumentException("Processor parses " + jarProcessor.getParseLevel()
+                        + " but the selected metrics need " + required);
+            }
+            return new JarAnalyzer(
+                    jarProcessor,
+                    new MetricsCalculator(classpath, metrics, jarProcessor.getPlugins()),
+                    reportGenerator != null ? reportGenerator : new ReportGenerator(),
+                    streaming,
+                    nestedJars,
+                    executor
+            );
+        }
+    }
+}
@@ -1,49 +1,82 @@
 package org.example;
 
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.example.model.ClassInfo;
 import org.example.model.JarAnalysisResult;
+import org.example.model.Metric;
+import org.example.plugin.MetricPlugins;
+import org.example.service.ClassInfoCache;
+import org.example.service.ClasspathResolver;
+import org.example.service.DetailedReportWriter;
 import org.example.service.JarProcessor;
-import org.example.service.MetricsCalculator;
-import org.example.service.ReportGenerator;
+import org.example.service.ReportFormat;
+import org.example.util.InputPaths;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class JarAnalyzerApp {
     private static final Logger log = LoggerFactory.getLogger(JarAnalyzerApp.class);
+    private static final int DEFAULT_CACHE_SIZE = 1_000_000;
+    private static final int DEFAULT_QUEUE_SIZE = 64;
 
-    private final JarProcessor jarProcessor;
-    private final MetricsCalculator metricsCalculator;
-    private final ReportGenerator reportGenerator;
+    private final JarAnalyzer analyzer;
 
     public JarAnalyzerApp() {
-        this.jarProcessor = new JarProcessor();
-        this.metricsCalculator = new MetricsCalculator();
-        this.reportGenerator = new ReportGenerator();
+        this(JarAnalyzer.builder().build());
+    }
+
+    public JarAnalyzerApp(JarAnalyzer analyzer) {
+        this.analyzer = analyzer;
     }
 
     public void analyze(String jarPath, String outputPath) {
+        analyze(jarPath, outputPath, null);
+    }
+
+    /**
+     * @param outputPath  summary report file, Smile for {@code .smile} and JSON otherwise, or
+     *                    {@code null} to print to the console
+     * @param detailsPath where to stream the per-class report, NDJSON or Smile by extension and
+     *                    gzipped for {@code .gz}, or {@code null} for the summary only
+     */
+    public void analyze(String jarPath, String outputPath, String detailsPath) {
         try {
             Path jarFilePath = Path.of(jarPath);
-            validateInputFile(jarFilePath);
-
             System.out.println("Processing JAR file: " + jarFilePath.getFileName());
-            List<ClassInfo> classes = jarProcessor.process(jarFilePath);
-
-            if (classes.isEmpty()) {
-                log.warn("No classes found in the JAR file");
+            JarAnalysisResult result;
+            if (detailsPath == null) {
+                result = analyzer.analyze(jarFilePath);
+            } else {
+                Path detailsFilePath = Path.of(detailsPath);
+                try (DetailedReportWriter details = analyzer.getReportGenerator().openDetailedReport(detailsFilePath)) {
+                    result = analyzer.analyzeDetailed(jarFilePath, details);
+                }
+                System.out.println("Detailed report written to: " + detailsFilePath.toAbsolutePath());
             }
 
-            System.out.println("Calculating metrics...");
-            String jarFileName = jarFilePath.getFileName().toString();
-            JarAnalysisResult result = metricsCalculator.calculate(jarFileName, classes);
+            ClassInfoCache cache = analyzer.getJarProcessor().getCache();
+            if (cache != null) {
+                cache.save();
+                result = result.withCache(cache.statistics());
+            }
 
             if (outputPath == null) {
-                reportGenerator.printToConsole(result);
+                analyzer.getReportGenerator().printToConsole(result);
             } else {
                 writeToFile(result, outputPath);
             }
@@ -53,38 +86,252 @@ public class JarAnalyzerApp {
         }
     }
 
+    /**
+     * Analyzes many jars in this JVM, at most {@code jobs} at a time, and writes one result per
+     * line to {@code out} (NDJSON) as each jar finishes, so lines appear in completion order and
+     * are told apart by their {@code jarPath}.
+     * The processor, its cache, the classpath and the JSON writer are shared by all jars. A jar
+     * that fails is logged and skipped.
+     *
+     * @return number of jars that could not be analyzed
+     */
+    public int analyzeBatch(List<Path> jarPaths, int jobs, Writer out) throws IOException {
+        if (jobs < 1) {
+            throw new IllegalArgumentException("Jobs must be positive: " + jobs);
+        }
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, Math.max(1, jarPaths.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>(jarPaths.size());
+            for (Path jarPath : jarPaths) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        String line = analyzer.getReportGenerator().toJsonLine(jarPath.toString(), analyzer.analyze(jarPath));
+                        synchronized (out) {
+                            out.write(line);
+                            out.write('\n');
+                            out.flush();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        log.error("Failed to analyze {}", jarPath, e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during batch analysis", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Batch analysis failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ClassInfoCache cache = analyzer.getJarProcessor().getCache();
+        if (cache != null) {
+            cache.save();
+            log.info("Class cache: {}", cache.statistics());
+        }
+        log.info("Analyzed {} of {} jars", jarPaths.size() - failures.get(), jarPaths.size());
+        return failures.get();
+    }
+
     private void writeToFile(JarAnalysisResult result, String outputPath) throws IOException {
         Path outputFilePath = Path.of(outputPath);
-        reportGenerator.writeToJson(result, outputFilePath);
-        System.out.println("JSON report written to: " + outputFilePath.toAbsolutePath());
+        analyzer.getReportGenerator().writeReport(result, outputFilePath);
+        String format = ReportFormat.forPath(outputFilePath) == ReportFormat.SMILE ? "Smile" : "JSON";
+        System.out.println(format + " report written to: " + outputFilePath.toAbsolutePath());
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage:");
+        System.out.println("java -jar analyzer.jar [options] <input.jar> - output to console");
+        System.out.println("java -jar analyzer.jar [options] <input.jar> <output.json|output.smile> - output to file");
+        System.out.println("java -jar analyzer.jar --batch [options] <jar|glob|@list>... - NDJSON, one line per jar");
+        System.out.println("java -jar analyzer.jar [options] --serve <port> | --socket <path> - run as a local daemon");
+        System.out.println();
+        System.out.println("Options:");
+        System.out.println("  --threads <n>  parse classes with n worker threads (default: 1)");
+        System.out.println("  --mmap         read the jar through a memory-mapped zip reader");
+        System.out.println("  --engine <asm|scanner>  parse classes with ASM visitors or scan the bytecode directly"
+                + " (default: asm)");
+        System.out.println("  --streaming    aggregate metrics while parsing instead of keeping all classes");
+        System.out.println("  --cache <file> reuse parsed classes from earlier runs, keyed by entry CRC and size");
+        System.out.println("  --cache-size <n>  maximum number of cached classes (default: " + DEFAULT_CACHE_SIZE + ")");
+        System.out.println("  --metrics <list>  comma-separated subset of inheritance,overrides,fields,abc to compute"
+                + " (default: all); method bodies are only parsed for abc");
+        System.out.println("  --plugins <list>  comma-separated metric plugins to run in the same pass, or all (found: "
+                + String.join(", ", MetricPlugins.discover().names()) + ")");
+        System.out.println("  --nested       also analyze nested jars in place and report each of them");
+        System.out.println("  --details <file>  also stream per-class and per-method metrics as NDJSON, or Smile for .smile"
+                + " (gzipped if it ends in .gz)");
+        System.out.println("  --classpath <path>  jars, class directories or " + ClasspathResolver.JRT
+                + " to resolve supertypes from, separated by '" + File.pathSeparator + "'; each input jar is"
+                + " analyzed on its own, so jars it extends must be listed here, even other --batch inputs");
+        System.out.println("  --batch        analyze every input jar in one process (globs and @files of paths allowed)");
+        System.out.println("  --jobs <n>     jars analyzed concurrently in batch mode (default: available processors)");
+        System.out.println("  --output <file>  write batch NDJSON to a file instead of stdout");
+        System.out.println("  --serve <port> serve analysis requests over HTTP on localhost (0 picks a free port)");
+        System.out.println("  --socket <path>  serve NDJSON analysis requests on a Unix domain socket");
+        System.out.println("  --queue <n>    requests that may wait for a --jobs slot before the daemon answers 503 (default: "
+                + DEFAULT_QUEUE_SIZE + ")");
     }
 
-    private void validateInputFile(Path jarPath) {
-        if (!Files.exists(jarPath)) {
-            throw new IllegalArgumentException("Input file does not exist: " + jarPath);
+    public static void main(String[] args) {
+        int threads = 1;
+        JarProcessor.Ingestion ingestion = JarProcessor.Ingestion.JAR_FILE;
+        JarProcessor.Engine engine = JarProcessor.Engine.ASM;
+        boolean streaming = false;
+        boolean nested = false;
+        boolean batch = false;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        String batchOutput = null;
+        String detailsOutput = null;
+        Integer servePort = null;
+        String socketPath = null;
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        String cacheFile = null;
+        int cacheSize = DEFAULT_CACHE_SIZE;
+        List<String> classpath = new ArrayList<>();
+        Set<Metric> metrics = Metric.all();
+        MetricPlugins plugins = MetricPlugins.none();
+        List<String> positional = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(requireValue(args, ++i, "--threads"));
+                    case "--mmap" -> ingestion = JarProcessor.Ingestion.MAPPED;
+                    case "--engine" -> engine = parseEngine(requireValue(args, ++i, "--engine"));
+                    case "--streaming" -> streaming = true;
+                    case "--nested" -> nested = true;
+                    case "--batch" -> batch = true;
+                    case "--jobs" -> jobs = Integer.parseInt(requireValue(args, ++i, "--jobs"));
+                    case "--output" -> batchOutput = requireValue(args, ++i, "--output");
+                    case "--details" -> detailsOutput = requireValue(args, ++i, "--details");
+                    case "--serve" -> servePort = Integer.parseInt(requireValue(args, ++i, "--serve"));
+                    case "--socket" -> socketPath = requireValue(args, ++i, "--socket");
+                    case "--queue" -> queueSize = Integer.parseInt(requireValue(args, ++i, "--queue"));
+                    case "--cache" -> cacheFile = requireValue(args, ++i, "--cache");
+                    case "--cache-size" -> cacheSize = Integer.parseInt(requireValue(args, ++i, "--cache-size"));
+                    case "--metrics" -> metrics = Metric.parse(requireValue(args, ++i, "--metrics"));
+                    case "--plugins" -> plugins = MetricPlugins.discover().select(requireValue(args, ++i, "--plugins"));
+                    case "--classpath" -> classpath.addAll(ClasspathResolver.parse(requireValue(args, ++i, "--classpath")));
+                    default -> positional.add(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            positional.clear();
+        }
+
+        boolean serve = servePort != null || socketPath != null;
+        boolean validInputs = serve ? positional.isEmpty() : !positional.isEmpty() && (batch || positional.size() <= 2);
+        if (detailsOutput != null && (serve || batch || nested)) {
+            System.out.println("--details cannot be combined with --serve, --socket, --batch or --nested");
+            validInputs = false;
+        }
+        if (detailsOutput != null && !metrics.equals(Metric.all())) {
+            System.out.println("--details needs all metrics");
+            validInputs = false;
+        }
+        if (!validInputs || threads < 1 || jobs < 1 || cacheSize < 0 || queueSize < 0) {
+            printUsage();
+            System.exit(1);
         }
 
-        if (!Files.isRegularFile(jarPath)) {
-            throw new IllegalArgumentException("Input path is not a file: " + jarPath);
+        ClassInfoCache cache = cacheFile != null
+                ? ClassInfoCache.load(Path.of(cacheFile), cacheSize)
+                : serve ? ClassInfoCache.inMemory(cacheSize) : null;
+        int failures = 0;
+        try (ClasspathResolver resolver = classpath.isEmpty() ? null
+                : ClasspathResolver.of(classpath, JarProcessor.ParseLevel.forMetrics(metrics))) {
+            JarAnalyzerApp app = new JarAnalyzerApp(JarAnalyzer.builder()
+                    .parallelism(threads)
+                    .ingestion(ingestion)
+                    .engine(engine)
+                    .cache(cache)
+                    .streaming(streaming)
+                    .classpath(resolver)
+                    .metrics(metrics)
+                    .plugins(plugins)
+                    .nestedJars(nested)
+                    .build());
+            if (serve) {
+                serve(app, servePort, socketPath, jobs, queueSize);
+            } else if (batch) {
+                failures = runBatch(app, positional, jobs, batchOutput);
+            } else {
+                app.analyze(positional.get(0), positional.size() == 2 ? positional.get(1) : null, detailsOutput);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close classpath", e);
         }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
 
-        if (!jarPath.toString().toLowerCase().endsWith(".jar")) {
-            throw new IllegalArgumentException("Input file must be a JAR file: " + jarPath);
+    private static void serve(JarAnalyzerApp app, Integer port, String socketPath, int jobs, int queueSize)
+            throws IOException {
+        AnalyzerDaemon daemon = new AnalyzerDaemon(app.analyzer, jobs, queueSize);
+        if (port != null) {
+            daemon.startHttp(port);
+        }
+        if (socketPath != null) {
+            daemon.startUnixSocket(Path.of(socketPath));
+        }
+        Thread main = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                daemon.close();
+            } catch (IOException e) {
+                log.warn("Failed to shut down cleanly", e);
+            }
+            main.interrupt();
+        }));
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    public static void main(String[] args) {
-        if (args.length < 1 || args.length > 2) {
-            System.out.println("Usage:");
-            System.out.println("java -jar analyzer.jar <input.jar> - output to console");
-            System.out.println("java -jar analyzer.jar <input.jar> <output.json> - output to file");
-            System.exit(1);
+    private static int runBatch(JarAnalyzerApp app, List<String> inputs, int jobs, String outputPath) {
+        try {
+            List<Path> jars = InputPaths.expand(inputs);
+            if (jars.isEmpty()) {
+                log.warn("No input jars matched");
+                return 0;
+            }
+            if (outputPath == null) {
+                Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                return app.analyzeBatch(jars, jobs, out);
+            }
+            try (Writer out = Files.newBufferedWriter(Path.of(outputPath))) {
+                return app.analyzeBatch(jars, jobs, out);
+            }
+        } catch (Exception e) {
+            log.error("Batch run failed", e);
+            return 1;
         }
+    }
 
-        String inputJar = args[0];
-        String outputJson = args.length == 2 ? args[1] : null;
+    private static JarProcessor.Engine parseEngine(String name) {
+        return switch (name) {
+            case "asm" -> JarProcessor.Engine.ASM;
+            case "scanner" -> JarProcessor.Engine.SCANNER;
+            default -> throw new IllegalArgumentException("Unknown engine: " + name + ", expected asm or scanner");
+        };
+    }
 
-        JarAnalyzerApp app = new JarAnalyzerApp();
-        app.analyze(inputJar, outputJson);
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
     }
 }
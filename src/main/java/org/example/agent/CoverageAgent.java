@@ -0,0 +1,48 @@
+package org.example.agent;
+
+import java.io.IOException;
+import java.lang.instrument.Instrumentation;
+
+/**
+ * Line coverage agent for performance tests, where the cost of a full coverage tool would skew
+ * the measurements: {@code java -javaagent:coverage-agent.jar[=options] ...}, with the options of
+ * {@link CoverageOptions}. Classes are instrumented as they load, see
+ * {@link CoverageTransformer}, and the report is written when the JVM shuts down, see
+ * {@link CoverageRuntime#dump}. In adaptive mode, classes are retransformed without the probes
+ * that have fired, see {@link ProbeRemover}.
+ *
+ * <p>The agent jar bundles its own copy of ASM, relocated to {@code org.example.agent.asm} by the
+ * build, so it can be attached to applications that use any other ASM version.
+ */
+public final class CoverageAgent {
+
+    private CoverageAgent() {
+    }
+
+    public static void premain(String agentArgs, Instrumentation instrumentation) {
+        CoverageOptions options = CoverageOptions.parse(agentArgs);
+        CoverageTransformer transformer = new CoverageTransformer(options);
+        // retransformation by any agent must see the instrumented class again, so always capable
+        instrumentation.addTransformer(transformer, true);
+        if (options.adaptive()) {
+            if (instrumentation.isRetransformClassesSupported()) {
+                new ProbeRemover(instrumentation, transformer).start(options.interval());
+            } else {
+                System.err.println("Coverage agent: retransformation is not supported, keeping all probes");
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(options), "coverage-dump"));
+    }
+
+    private static void dump(CoverageOptions options) {
+        try {
+            CoverageRuntime.Totals totals = CoverageRuntime.dump(options.output());
+            System.err.printf("Line coverage: %d of %d lines (%.1f%%) written to %s%n",
+                    totals.coveredLines(), totals.totalLines(),
+                    totals.totalLines() == 0 ? 0.0 : 100.0 * totals.coveredLines() / totals.totalLines(),
+                    options.output().toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Coverage agent: failed to write " + options.output() + ": " + e);
+        }
+    }
+}
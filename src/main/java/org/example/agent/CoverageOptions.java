@@ -0,0 +1,125 @@
+package org.example.agent;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Options of the coverage agent, given after the agent jar as
+ * {@code -javaagent:coverage-agent.jar=includes=org.acme.*,excludes=org.acme.generated.*,output=cov.tsv}.
+ *
+ * <p>{@code includes} and {@code excludes} are {@code :}-separated lists of class name patterns
+ * in dotted form, where {@code *} matches any run of characters, dots included, and {@code ?}
+ * exactly one. A class is instrumented if it matches an include, {@code *} by default, and no
+ * exclude. The JDK and the agent itself, with its relocated copy of ASM, are never instrumented.
+ *
+ * <p>{@code mode=adaptive} removes probes once they have fired, checking every {@code interval}
+ * milliseconds, see {@link ProbeRemover}; the default, {@code mode=always}, keeps them all.
+ */
+public record CoverageOptions(
+        List<Pattern> includes,
+        List<Pattern> excludes,
+        Path output,
+        boolean adaptive,
+        Duration interval
+) {
+    public static final String DEFAULT_OUTPUT = "coverage.tsv";
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+    private static final List<Pattern> ALWAYS_EXCLUDED = globs(
+            "java.*:javax.*:jdk.*:sun.*:com.sun.*:org.example.agent.*");
+
+    public CoverageOptions {
+        includes = List.copyOf(includes);
+        excludes = List.copyOf(excludes);
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive, got: " + interval.toMillis() + " ms");
+        }
+    }
+
+    /**
+     * @param agentArgs the text after {@code =} in {@code -javaagent}, or {@code null}
+     * @throws IllegalArgumentException for an unknown or malformed option
+     */
+    public static CoverageOptions parse(String agentArgs) {
+        List<Pattern> includes = globs("*");
+        List<Pattern> excludes = List.of();
+        Path output = Path.of(DEFAULT_OUTPUT);
+        boolean adaptive = false;
+        Duration interval = DEFAULT_INTERVAL;
+        if (agentArgs != null) {
+            for (String option : agentArgs.split(",")) {
+                if (option.isBlank()) {
+                    continue;
+                }
+                int separator = option.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected key=value, got: " + option);
+                }
+                String value = option.substring(separator + 1).trim();
+                switch (option.substring(0, separator).trim()) {
+                    case "includes" -> includes = globs(value);
+                    case "excludes" -> excludes = globs(value);
+                    case "output" -> output = Path.of(value);
+                    case "mode" -> adaptive = switch (value) {
+                        case "always" -> false;
+                        case "adaptive" -> true;
+                        default -> throw new IllegalArgumentException("Unknown coverage mode: " + value
+                                + ", expected always or adaptive");
+                    };
+                    case "interval" -> interval = Duration.ofMillis(milliseconds(value));
+                    default -> throw new IllegalArgumentException("Unknown coverage agent option: " + option
+                            + ", expected includes, excludes, output, mode or interval");
+                }
+            }
+        }
+        return new CoverageOptions(includes, excludes, output, adaptive, interval);
+    }
+
+    /**
+     * Whether the class with internal name {@code className}, e.g. {@code org/acme/Foo}, is
+     * instrumented.
+     */
+    public boolean accepts(String className) {
+        String name = className.replace('/', '.');
+        return matchesAny(includes, name) && !matchesAny(excludes, name) && !matchesAny(ALWAYS_EXCLUDED, name);
+    }
+
+    private static long milliseconds(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected an interval in milliseconds, got: " + value, e);
+        }
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String name) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> globs(String list) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String glob : list.split(":")) {
+            if (glob.isBlank()) {
+                continue;
+            }
+            StringBuilder regex = new StringBuilder();
+            for (char c : glob.trim().toCharArray()) {
+                switch (c) {
+                    case '*' -> regex.append(".*");
+                    case '?' -> regex.append('.');
+                    default -> regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            patterns.add(Pattern.compile(regex.toString()));
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.agent;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Probe arrays of all instrumented classes and the report written from them.
+ *
+ * <p>Every instrumented class gets an id when it is transformed. Its static initializer fetches
+ * the class's {@code boolean[]} once with {@link #probes(int)} and keeps it in a static final
+ * field; a probe is then a plain array store, without locks, atomics or calls. Only registration
+ * and the final dump synchronize, so a dump taken while threads are still running may miss hits
+ * that are not yet visible to the dumping thread. A class re-emitted without its fired probes
+ * keeps its array, and so the hits already recorded.
+ */
+public final class CoverageRuntime {
+    private static final Object LOCK = new Object();
+    private static ClassProbes[] classes = new ClassProbes[256];
+    private static int classCount;
+    private static int[] releasedIds = new int[16];
+    private static int releasedCount;
+
+    private CoverageRuntime() {
+    }
+
+    /**
+     * The probe array of class {@code classId}; called from instrumented static initializers.
+     */
+    public static boolean[] probes(int classId) {
+        synchronized (LOCK) {
+            return classes[classId].probes();
+        }
+    }
+
+    /**
+     * Reserves an id for a class that is about to be instrumented; its probes are added with
+     * {@link #define} once the transformation is done, or the id is given back with
+     * {@link #release} if the class is left as it was.
+     */
+    static int reserve(String className) {
+        synchronized (LOCK) {
+            int classId;
+            if (releasedCount > 0) {
+                classId = releasedIds[--releasedCount];
+            } else {
+                if (classCount == classes.length) {
+                    classes = Arrays.copyOf(classes, classCount * 2);
+                }
+                classId = classCount++;
+            }
+            classes[classId] = new ClassProbes(className, null, new int[0], new boolean[0], 0);
+            return classId;
+        }
+    }
+
+    /**
+     * Gives back the id of a class that was not instrumented after all, for the next
+     * {@link #reserve}. Until then the id stays without probes, so it is not reported.
+     */
+    static void release(int classId) {
+        synchronized (LOCK) {
+            if (releasedCount == releasedIds.length) {
+                releasedIds = Arrays.copyOf(releasedIds, releasedCount * 2);
+            }
+            releasedIds[releasedCount++] = classId;
+        }
+    }
+
+    /**
+     * @param probeLines source line of each probe, by probe index
+     */
+    static void define(int classId, String sourceFile, int[] probeLines) {
+        synchronized (LOCK) {
+            ClassProbes reserved = classes[classId];
+            classes[classId] = new ClassProbes(reserved.className(), sourceFile, probeLines,
+                    new boolean[probeLines.length], 0);
+        }
+    }
+
+    static ClassProbes get(int classId) {
+        synchronized (LOCK) {
+            return classes[classId];
+        }
+    }
+
+    /**
+     * Records that class {@code classId} was re-emitted without {@code removedProbes} of its
+     * probes, all of which had fired.
+     */
+    static void probesRemoved(int classId, int removedProbes) {
+        synchronized (LOCK) {
+            ClassProbes current = classes[classId];
+            classes[classId] = new ClassProbes(current.className(), current.sourceFile(), current.probeLines(),
+                    current.probes(), removedProbes);
+        }
+    }
+
+    static List<ClassProbes> snapshot() {
+        synchronized (LOCK) {
+            return List.of(Arrays.copyOf(classes, classCount));
+        }
+    }
+
+    /**
+     * Writes line coverage as tab-separated values, one row per class in name order: class,
+     * source file, covered lines, total lines, then the covered and the missed lines as ranges
+     * such as {@code 3-5,9}. A class loaded by several class loaders is reported once, a line
+     * counting as covered if it was covered in any of them. Classes without line numbers are
+     * left out.
+     *
+     * @return covered and total lines over all reported classes
+     */
+    public static Totals dump(Path output) throws IOException {
+        Map<String, LineCoverage> byClass = new TreeMap<>();
+        for (ClassProbes probes : snapshot()) {
+            if (probes.probeLines().length == 0) {
+                continue;
+            }
+            LineCoverage lines = byClass.computeIfAbsent(probes.className(),
+                    name -> new LineCoverage(probes.sourceFile(), new BitSet(), new BitSet()));
+            for (int i = 0; i < probes.probeLines().length; i++) {
+                lines.all().set(probes.probeLines()[i]);
+                if (probes.probes()[i]) {
+                    lines.covered().set(probes.probeLines()[i]);
+                }
+            }
+        }
+
+        long covered = 0;
+        long total = 0;
+        try (Writer out = Files.newBufferedWriter(output)) {
+            out.write("class\tsource\tcovered\ttotal\tcoveredLines\tmissedLines\n");
+            for (Map.Entry<String, LineCoverage> entry : byClass.entrySet()) {
+                LineCoverage lines = entry.getValue();
+                BitSet missed = (BitSet) lines.all().clone();
+                missed.andNot(lines.covered());
+                covered += lines.covered().cardinality();
+                total += lines.all().cardinality();
+                out.write(entry.getKey() + '\t' + lines.sourceFile() + '\t' + lines.covered().cardinality() + '\t'
+                        + lines.all().cardinality() + '\t' + ranges(lines.covered()) + '\t' + ranges(missed) + '\n');
+            }
+        }
+        return new Totals(covered, total);
+    }
+
+    private static String ranges(BitSet lines) {
+        List<String> ranges = new ArrayList<>();
+        for (int from = lines.nextSetBit(0); from >= 0; ) {
+            int to = lines.nextClearBit(from) - 1;
+            ranges.add(from == to ? Integer.toString(from) : from + "-" + to);
+            from = lines.nextSetBit(to + 1);
+        }
+        return String.join(",", ranges);
+    }
+
+    public record Totals(long coveredLines, long totalLines) {
+    }
+
+    /**
+     * One transformation of a class: which source line each probe stands for, which have fired,
+     * and how many fired probes its current version no longer contains.
+     */
+    record ClassProbes(String className, String sourceFile, int[] probeLines, boolean[] probes, int removedProbes) {
+        int hits() {
+            int hits = 0;
+            for (boolean probe : probes) {
+                if (probe) {
+                    hits++;
+                }
+            }
+            return hits;
+        }
+    }
+
+    private record LineCoverage(String sourceFile, BitSet all, BitSet covered) {
+    }
+}
@@ -0,0 +1,383 @@
+package org.example.agent;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Inserts a line probe at every {@code LineNumberTable} entry of the accepted classes.
+ *
+ * <p>Each instrumented class gets a synthetic static final {@code boolean[]} field, set from
+ * {@link CoverageRuntime#probes(int)} at the very start of its static initializer, which is
+ * created if the class has none. A probe is {@code getstatic; push index; iconst_1; bastore}: it
+ * leaves the stack as it found it and uses no locals, so existing stack map frames stay valid and
+ * nothing has to be recomputed but the maximum stack size. A probe goes in after the frame of
+ * its line's first instruction, since ASM reports the line before the frame, or right after that
+ * instruction if it is a {@code NEW}, whose label frames use to name the object. Classes without
+ * line numbers, and classes that fail to transform, are loaded unchanged.
+ *
+ * <p>When an instrumented class is retransformed, the JVM hands over its original bytes again.
+ * They are instrumented the same way, with the same field, static initializer and probe indexes,
+ * which retransformation requires anyway, but probes that have already fired are left out. The
+ * static initializer does not run again, so the class keeps its array and the hits in it.
+ */
+public class CoverageTransformer implements ClassFileTransformer {
+    static final String PROBES_FIELD = "$lineProbes";
+    private static final String RUNTIME = Type.getInternalName(CoverageRuntime.class);
+
+    private final CoverageOptions options;
+    // class id by loader and internal name, to find the id again when a class is retransformed
+    private final Map<ClassLoader, Map<String, Integer>> classIds = new WeakHashMap<>();
+
+    public CoverageTransformer(CoverageOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public byte[] transform(
+            ClassLoader loader,
+            String className,
+            Class<?> classBeingRedefined,
+            ProtectionDomain protectionDomain,
+            byte[] classfileBuffer
+    ) {
+        if (loader == null || className == null || !options.accepts(className)) {
+            return null;
+        }
+        try {
+            if (classBeingRedefined != null) {
+                int classId = classId(loader, className);
+                return classId < 0 ? null : reinstrument(classId, classfileBuffer);
+            }
+            return seesRuntime(loader) ? instrument(loader, className, classfileBuffer) : null;
+        } catch (RuntimeException e) {
+            // a class that cannot be instrumented must still load
+            System.err.println("Coverage agent: leaving " + className + " uninstrumented: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * The id of {@code type} in {@link CoverageRuntime}, or -1 if it was not instrumented.
+     */
+    int classId(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        return loader == null ? -1 : classId(loader, type.getName().replace('.', '/'));
+    }
+
+    private int classId(ClassLoader loader, String className) {
+        synchronized (classIds) {
+            Map<String, Integer> ids = classIds.get(loader);
+            Integer classId = ids == null ? null : ids.get(className);
+            return classId == null ? -1 : classId;
+        }
+    }
+
+    /**
+     * The instrumented class, or {@code null} if it has no line numbers.
+     */
+    private byte[] instrument(ClassLoader loader, String className, byte[] classfileBuffer) {
+        int classId = CoverageRuntime.reserve(className);
+        byte[] instrumented = null;
+        try {
+            ProbeClassVisitor visitor = rewrite(classfileBuffer, classId, null);
+            if (visitor.probeCount == 0) {
+                return null;
+            }
+            // the class only counts as instrumented once its bytes exist; writing them can still fail
+            instrumented = visitor.writer.toByteArray();
+            CoverageRuntime.define(classId, visitor.sourceFile,
+                    Arrays.copyOf(visitor.probeLines, visitor.probeCount));
+        } finally {
+            if (instrumented == null) {
+                CoverageRuntime.release(classId);
+            }
+        }
+        synchronized (classIds) {
+            classIds.computeIfAbsent(loader, key -> new HashMap<>()).put(className, classId);
+        }
+        return instrumented;
+    }
+
+    /**
+     * The class instrumented again without the probes of class {@code classId} that have fired.
+     *
+     * @throws IllegalStateException if its line numbers are not those it was instrumented with
+     */
+    static byte[] reinstrument(int classId, byte[] classfileBuffer) {
+        CoverageRuntime.ClassProbes probes = CoverageRuntime.get(classId);
+        ProbeClassVisitor visitor = rewrite(classfileBuffer, classId, probes.probes());
+        int[] probeLines = Arrays.copyOf(visitor.probeLines, visitor.probeCount);
+        if (!Arrays.equals(probeLines, probes.probeLines())) {
+            throw new IllegalStateException("Line numbers differ from the instrumented version");
+        }
+        byte[] reinstrumented = visitor.writer.toByteArray();
+        CoverageRuntime.probesRemoved(classId, visitor.removedProbes);
+        return reinstrumented;
+    }
+
+    /**
+     * @param fired probes to leave out, by index, or {@code null} to insert all
+     */
+    private static ProbeClassVisitor rewrite(byte[] classfileBuffer, int classId, boolean[] fired) {
+        ClassReader reader = new ClassReader(classfileBuffer);
+        ProbeClassVisitor visitor = new ProbeClassVisitor(new ClassWriter(reader, ClassWriter.COMPUTE_MAXS),
+                classId, fired);
+        reader.accept(visitor, 0);
+        return visitor;
+    }
+
+    /**
+     * Whether instrumented classes of {@code loader} can link against {@link CoverageRuntime};
+     * loaders that do not delegate to the one that loaded the agent cannot.
+     */
+    private static boolean seesRuntime(ClassLoader loader) {
+        try {
+            return Class.forName(CoverageRuntime.class.getName(), false, loader) == CoverageRuntime.class;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static final class ProbeClassVisitor extends ClassVisitor {
+        private final ClassWriter writer;
+        private final int classId;
+        private final boolean[] fired;
+        private String owner;
+        private boolean isInterface;
+        private boolean hasStaticInitializer;
+        private String sourceFile;
+        private int[] probeLines = new int[64];
+        private int probeCount;
+        private int removedProbes;
+
+        ProbeClassVisitor(ClassWriter writer, int classId, boolean[] fired) {
+            super(Opcodes.ASM9, writer);
+            this.writer = writer;
+            this.classId = classId;
+            this.fired = fired;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                          String[] interfaces) {
+            owner = name;
+            isInterface = (access & Opcodes.ACC_INTERFACE) != 0;
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            sourceFile = source;
+            super.visitSource(source, debug);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            if (name.equals(PROBES_FIELD)) {
+                throw new IllegalStateException("Already instrumented");
+            }
+            return super.visitField(access, name, descriptor, signature, value);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                         String[] exceptions) {
+            MethodVisitor next = super.visitMethod(access, name, descriptor, signature, exceptions);
+            boolean staticInitializer = name.equals("<clinit>");
+            hasStaticInitializer |= staticInitializer;
+            return new ProbeMethodVisitor(next, staticInitializer);
+        }
+
+        @Override
+        public void visitEnd() {
+            // interface fields must be public; in classes nothing but the class itself sees it
+            int access = (isInterface ? Opcodes.ACC_PUBLIC : Opcodes.ACC_PRIVATE)
+                    | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC;
+            super.visitField(access, PROBES_FIELD, "[Z", null, null).visitEnd();
+            if (!hasStaticInitializer) {
+                MethodVisitor clinit = super.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+                clinit.visitCode();
+                initializeProbes(clinit);
+                clinit.visitInsn(Opcodes.RETURN);
+                clinit.visitMaxs(0, 0);
+                clinit.visitEnd();
+            }
+            super.visitEnd();
+        }
+
+        private void initializeProbes(MethodVisitor method) {
+            push(method, classId);
+            method.visitMethodInsn(Opcodes.INVOKESTATIC, RUNTIME, "probes", "(I)[Z", false);
+            method.visitFieldInsn(Opcodes.PUTSTATIC, owner, PROBES_FIELD, "[Z");
+        }
+
+        private static void push(MethodVisitor method, int value) {
+            if (value <= 5) {
+                method.visitInsn(Opcodes.ICONST_0 + value);
+            } else if (value <= Byte.MAX_VALUE) {
+                method.visitIntInsn(Opcodes.BIPUSH, value);
+            } else if (value <= Short.MAX_VALUE) {
+                method.visitIntInsn(Opcodes.SIPUSH, value);
+            } else {
+                method.visitLdcInsn(value);
+            }
+        }
+
+        private int newProbe(int line) {
+            if (probeCount == probeLines.length) {
+                probeLines = Arrays.copyOf(probeLines, probeCount * 2);
+            }
+            probeLines[probeCount] = line;
+            return probeCount++;
+        }
+
+        /**
+         * Remembers each line number and emits its probe just before the next instruction or
+         * label, after any frame ASM reports for the line's first instruction.
+         */
+        private final class ProbeMethodVisitor extends MethodVisitor {
+            private final boolean staticInitializer;
+            private int pendingLine = -1;
+
+            ProbeMethodVisitor(MethodVisitor next, boolean staticInitializer) {
+                super(Opcodes.ASM9, next);
+                this.staticInitializer = staticInitializer;
+            }
+
+            @Override
+            public void visitCode() {
+                super.visitCode();
+                if (staticInitializer) {
+                    initializeProbes(mv);
+                }
+            }
+
+            @Override
+            public void visitLineNumber(int line, Label start) {
+                super.visitLineNumber(line, start);
+                pendingLine = line;
+            }
+
+            private void probe() {
+                if (pendingLine < 0) {
+                    return;
+                }
+                int index = newProbe(pendingLine);
+                pendingLine = -1;
+                if (fired != null && index < fired.length && fired[index]) {
+                    removedProbes++;
+                    return;
+                }
+                mv.visitFieldInsn(Opcodes.GETSTATIC, owner, PROBES_FIELD, "[Z");
+                push(mv, index);
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.BASTORE);
+            }
+
+            @Override
+            public void visitLabel(Label label) {
+                probe();
+                super.visitLabel(label);
+            }
+
+            @Override
+            public void visitInsn(int opcode) {
+                probe();
+                super.visitInsn(opcode);
+            }
+
+            @Override
+            public void visitIntInsn(int opcode, int operand) {
+                probe();
+                super.visitIntInsn(opcode, operand);
+            }
+
+            @Override
+            public void visitVarInsn(int opcode, int varIndex) {
+                probe();
+                super.visitVarInsn(opcode, varIndex);
+            }
+
+            @Override
+            public void visitTypeInsn(int opcode, String type) {
+                if (opcode == Opcodes.NEW) {
+                    // frames refer to a NEW by its label, so nothing may be inserted in between
+                    super.visitTypeInsn(opcode, type);
+                    probe();
+                    return;
+                }
+                probe();
+                super.visitTypeInsn(opcode, type);
+            }
+
+            @Override
+            public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+                probe();
+                super.visitFieldInsn(opcode, owner, name, descriptor);
+            }
+
+            @Override
+            public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+                probe();
+                super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+            }
+
+            @Override
+            public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+                                               Object... bootstrapMethodArguments) {
+                probe();
+                super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+            }
+
+            @Override
+            public void visitJumpInsn(int opcode, Label label) {
+                probe();
+                super.visitJumpInsn(opcode, label);
+            }
+
+            @Override
+            public void visitLdcInsn(Object value) {
+                probe();
+                super.visitLdcInsn(value);
+            }
+
+            @Override
+            public void visitIincInsn(int varIndex, int increment) {
+                probe();
+                super.visitIincInsn(varIndex, increment);
+            }
+
+            @Override
+            public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+                probe();
+                super.visitTableSwitchInsn(min, max, dflt, labels);
+            }
+
+            @Override
+            public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+                probe();
+                super.visitLookupSwitchInsn(dflt, keys, labels);
+            }
+
+            @Override
+            public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+                probe();
+                super.visitMultiANewArrayInsn(descriptor, numDimensions);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.agent;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive mode: retransforms instrumented classes without the probes that have fired, so that
+ * code which has been covered runs without probes from then on.
+ *
+ * <p>Every retransformation costs the class its compiled code, so a class is only retransformed
+ * once its fired probes are worth it: when at least half of the probes it still contains have
+ * fired, which includes a class whose probes have all fired, or when some have and it got no new
+ * hits during the last interval. A class still warming up thus waits until its hits settle
+ * instead of being retransformed every interval, and the number of retransformations of a class
+ * stays logarithmic in its probe count between such pauses.
+ */
+final class ProbeRemover implements Runnable {
+    private final Instrumentation instrumentation;
+    private final CoverageTransformer transformer;
+    // hits of each class when last checked, by class id
+    private int[] lastHits = new int[0];
+    // classes that failed to retransform, which are not tried again
+    private final BitSet failed = new BitSet();
+
+    ProbeRemover(Instrumentation instrumentation, CoverageTransformer transformer) {
+        this.instrumentation = instrumentation;
+        this.transformer = transformer;
+    }
+
+    /**
+     * Starts checking every {@code interval} on a daemon thread.
+     */
+    void start(Duration interval) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "coverage-probe-remover");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void run() {
+        try {
+            removeFiredProbes();
+        } catch (RuntimeException e) {
+            // an exception would cancel the schedule, and coverage would still be recorded without it
+            System.err.println("Coverage agent: failed to remove probes: " + e);
+        }
+    }
+
+    void removeFiredProbes() {
+        BitSet due = due(CoverageRuntime.snapshot());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Class<?>> targets = new ArrayList<>();
+        for (Class<?> type : instrumentation.getAllLoadedClasses()) {
+            int classId = transformer.classId(type);
+            if (classId >= 0 && due.get(classId) && instrumentation.isModifiableClass(type)) {
+                targets.add(type);
+            }
+        }
+        try {
+            instrumentation.retransformClasses(targets.toArray(Class<?>[]::new));
+        } catch (UnmodifiableClassException | RuntimeException | LinkageError e) {
+            // the batch is all or nothing, so find the classes that spoilt it
+            for (Class<?> type : targets) {
+                retransform(type);
+            }
+        }
+    }
+
+    /**
+     * The ids of the classes worth retransforming now, given all classes by id; remembers their
+     * hits for the next check.
+     */
+    BitSet due(List<CoverageRuntime.ClassProbes> classes) {
+        if (lastHits.length < classes.size()) {
+            lastHits = Arrays.copyOf(lastHits, classes.size());
+        }
+        BitSet due = new BitSet();
+        for (int classId = 0; classId < classes.size(); classId++) {
+            CoverageRuntime.ClassProbes probes = classes.get(classId);
+            int hits = probes.hits();
+            int removable = hits - probes.removedProbes();
+            int remaining = probes.probes().length - probes.removedProbes();
+            boolean settled = hits == lastHits[classId];
+            lastHits[classId] = hits;
+            if (removable > 0 && !failed.get(classId) && (settled || 2 * removable >= remaining)) {
+                due.set(classId);
+            }
+        }
+        return due;
+    }
+
+    private void retransform(Class<?> type) {
+        try {
+            instrumentation.retransformClasses(type);
+        } catch (UnmodifiableClassException | RuntimeException | LinkageError e) {
+            failed.set(transformer.classId(type));
+            System.err.println("Coverage agent: keeping the probes of " + type.getName() + ": " + e);
+        }
+    }
+}
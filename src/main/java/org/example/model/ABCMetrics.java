@@ -19,10 +19,18 @@ public final class ABCMetrics {
         assignments++;
     }
 
+    public void incrementAssignments(int delta) {
+        assignments += delta;
+    }
+
     public void incrementBranches() {
         branches++;
     }
 
+    public void incrementBranches(int delta) {
+        branches += delta;
+    }
+
     public void incrementConditions() {
         conditions++;
     }
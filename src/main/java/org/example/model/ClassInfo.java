@@ -1,43 +1,139 @@
 package org.example.model;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
+import org.example.plugin.PluginAccumulators;
+import org.example.util.SymbolTable;
+
 public final class ClassInfo {
-    private final String name;
-    private final String superName;
-    private final List<String> interfaces;
-    private final Set<MethodInfo> methods;
+    private final SymbolTable symbols;
+    private final int nameId;
+    private final int superNameId;
+    private final int[] interfaceIds;
+    private final int[] methodIds;
+    private final List<MethodMetrics> methodMetrics;
     private final int fieldCount;
     private final ABCMetrics abcMetrics;
     private final boolean isInterface;
+    private final PluginAccumulators pluginAccumulators;
+    // Decoded on first use; racy but benign, as both are immutable
+    private List<String> interfaces;
+    private Set<MethodInfo> methods;
 
     private ClassInfo(Builder builder) {
-        this.name = Objects.requireNonNull(builder.name, "name cannot be null");
-        this.superName = builder.superName;
-        this.interfaces = List.copyOf(builder.interfaces);
-        this.methods = Set.copyOf(builder.methods);
+        this.symbols = builder.symbols;
+        this.nameId = builder.nameId;
+        if (nameId == SymbolTable.NO_ID) {
+            throw new NullPointerException("name cannot be null");
+        }
+        this.superNameId = builder.superNameId;
+        this.interfaceIds = Arrays.copyOf(builder.interfaceIds, builder.interfaceCount);
+        this.methodIds = distinct(builder.methodIds, builder.methodCount);
+        this.methodMetrics = List.copyOf(builder.methodMetrics);
         this.fieldCount = builder.fieldCount;
         this.abcMetrics = builder.abcMetrics;
         this.isInterface = builder.isInterface;
+        this.pluginAccumulators = builder.pluginAccumulators;
+    }
+
+    private ClassInfo(ClassInfo classInfo, List<MethodMetrics> methodMetrics) {
+        this.symbols = classInfo.symbols;
+        this.nameId = classInfo.nameId;
+        this.superNameId = classInfo.superNameId;
+        this.interfaceIds = classInfo.interfaceIds;
+        this.methodIds = classInfo.methodIds;
+        this.methodMetrics = methodMetrics;
+        this.fieldCount = classInfo.fieldCount;
+        this.abcMetrics = classInfo.abcMetrics;
+        this.isInterface = classInfo.isInterface;
+        this.pluginAccumulators = classInfo.pluginAccumulators;
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * @return the superclass id, or {@link SymbolTable#NO_ID} if there is none
+     */
+    public int getSuperNameId() {
+        return superNameId;
+    }
+
+    /**
+     * Interned ids of the directly implemented interfaces, in declaration order. Must not be
+     * modified.
+     */
+    public int[] getInterfaceIds() {
+        return interfaceIds;
+    }
+
+    /**
+     * Interned signature ids of all declared methods, without duplicates. Must not be modified.
+     */
+    public int[] getMethodIds() {
+        return methodIds;
+    }
+
+    /**
+     * ABC counts of the methods that have code, in declaration order.
+     */
+    public List<MethodMetrics> getMethodMetrics() {
+        return methodMetrics;
+    }
+
+    /**
+     * This class without its {@link #getMethodMetrics() method counts}, for keeping it after
+     * they have been recorded; everything else is shared.
+     */
+    public ClassInfo withoutMethodMetrics() {
+        return methodMetrics.isEmpty() ? this : new ClassInfo(this, List.of());
     }
 
     public String getName() {
-        return name;
+        return symbols.className(nameId);
     }
 
     public String getSuperName() {
-        return superName;
+        return symbols.className(superNameId);
     }
 
+    /**
+     * Names of the directly implemented interfaces, decoded from {@link #getInterfaceIds()} once.
+     */
     public List<String> getInterfaces() {
+        List<String> interfaces = this.interfaces;
+        if (interfaces == null) {
+            String[] names = new String[interfaceIds.length];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = symbols.className(interfaceIds[i]);
+            }
+            this.interfaces = interfaces = List.of(names);
+        }
         return interfaces;
     }
 
+    /**
+     * Signatures of all declared methods, decoded from {@link #getMethodIds()} once.
+     */
     public Set<MethodInfo> getMethods() {
+        Set<MethodInfo> methods = this.methods;
+        if (methods == null) {
+            MethodInfo[] signatures = new MethodInfo[methodIds.length];
+            for (int i = 0; i < signatures.length; i++) {
+                signatures[i] = symbols.signature(methodIds[i]);
+            }
+            // distinct ids intern distinct signatures
+            this.methods = methods = Set.of(signatures);
+        }
         return methods;
     }
 
@@ -53,41 +149,78 @@ public final class ClassInfo {
         return isInterface;
     }
 
+    /**
+     * What the metric plugins collected from this class, or {@code null} if it was parsed
+     * without plugins. Not kept by {@link org.example.service.ClassInfoCache}.
+     */
+    public PluginAccumulators getPluginAccumulators() {
+        return pluginAccumulators;
+    }
+
     @Override
     public String toString() {
         return String.format("ClassInfo{name='%s', super='%s', interfaces=%s, methods=%d, fields=%d}",
-                name, superName, interfaces, methods.size(), fieldCount);
+                getName(), getSuperName(), getInterfaces(), methodIds.length, fieldCount);
+    }
+
+    private static int[] distinct(int[] ids, int count) {
+        int[] sorted = Arrays.copyOf(ids, count);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique);
     }
 
+    /**
+     * A builder interning into a symbol table of its own, for classes that are not analyzed
+     * together with others.
+     */
     public static Builder builder() {
-        return new Builder();
+        return builder(new SymbolTable());
+    }
+
+    public static Builder builder(SymbolTable symbols) {
+        return new Builder(symbols);
     }
 
     public static final class Builder {
-        private String name;
-        private String superName;
-        private final List<String> interfaces = new ArrayList<>();
-        private final Set<MethodInfo> methods = new HashSet<>();
+        private final SymbolTable symbols;
+        private int nameId = SymbolTable.NO_ID;
+        private int superNameId = SymbolTable.NO_ID;
+        private int[] interfaceIds = new int[4];
+        private int interfaceCount = 0;
+        private int[] methodIds = new int[16];
+        private int methodCount = 0;
+        private final List<MethodMetrics> methodMetrics = new ArrayList<>();
         private int fieldCount = 0;
         private ABCMetrics abcMetrics = new ABCMetrics();
         private boolean isInterface = false;
+        private PluginAccumulators pluginAccumulators;
 
-        private Builder() {
+        private Builder(SymbolTable symbols) {
+            this.symbols = Objects.requireNonNull(symbols, "symbols cannot be null");
         }
 
         public Builder name(String name) {
-            this.name = name;
+            this.nameId = symbols.classId(name);
             return this;
         }
 
         public Builder superName(String superName) {
-            this.superName = superName;
+            this.superNameId = symbols.classId(superName);
             return this;
         }
 
         public Builder addInterface(String interfaceName) {
             if (interfaceName != null) {
-                this.interfaces.add(interfaceName);
+                if (interfaceCount == interfaceIds.length) {
+                    interfaceIds = Arrays.copyOf(interfaceIds, interfaceCount * 2);
+                }
+                interfaceIds[interfaceCount++] = symbols.classId(interfaceName);
             }
             return this;
         }
@@ -101,8 +234,24 @@ public final class ClassInfo {
             return this;
         }
 
+        public Builder addMethod(String name, String descriptor) {
+            if (methodCount == methodIds.length) {
+                methodIds = Arrays.copyOf(methodIds, methodCount * 2);
+            }
+            methodIds[methodCount++] = symbols.signatureId(name, descriptor);
+            return this;
+        }
+
         public Builder addMethod(MethodInfo method) {
-            this.methods.add(method);
+            return addMethod(method.name(), method.descriptor());
+        }
+
+        /**
+         * Records the ABC counts of a method that has code; the method itself is added with
+         * {@link #addMethod(String, String)}.
+         */
+        public Builder addMethodMetrics(String name, String descriptor, int assignments, int branches, int conditions) {
+            methodMetrics.add(new MethodMetrics(symbols.signatureId(name, descriptor), assignments, branches, conditions));
             return this;
         }
 
@@ -111,6 +260,11 @@ public final class ClassInfo {
             return this;
         }
 
+        public Builder fieldCount(int fieldCount) {
+            this.fieldCount = fieldCount;
+            return this;
+        }
+
         public Builder abcMetrics(ABCMetrics abcMetrics) {
             this.abcMetrics = abcMetrics;
             return this;
@@ -121,9 +275,13 @@ public final class ClassInfo {
             return this;
         }
 
+        public Builder pluginAccumulators(PluginAccumulators pluginAccumulators) {
+            this.pluginAccumulators = pluginAccumulators;
+            return this;
+        }
+
         public ClassInfo build() {
             return new ClassInfo(this);
         }
     }
 }
-
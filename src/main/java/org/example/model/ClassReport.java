@@ -0,0 +1,43 @@
+package org.example.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.model.JarAnalysisResult.ABCSummary;
+
+/**
+ * One line of the detailed report: the metrics of a single class or interface, down to the ABC
+ * counts of each of its methods. {@code superName} is omitted for types without a superclass.
+ */
+public record ClassReport(
+        String name,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String superName,
+        List<String> interfaces,
+        boolean isInterface,
+        int inheritanceDepth,
+        int overriddenMethods,
+        int fields,
+        ABCSummary abc,
+        List<MethodReport> methods
+) {
+    public record MethodReport(
+            String name,
+            String descriptor,
+            int assignments,
+            int branches,
+            int conditions,
+            double magnitude
+    ) {
+        public static MethodReport from(String name, String descriptor, ABCMetrics metrics) {
+            return new MethodReport(
+                    name,
+                    descriptor,
+                    metrics.getAssignments(),
+                    metrics.getBranches(),
+                    metrics.getConditions(),
+                    metrics.calculateMagnitude()
+            );
+        }
+    }
+}
@@ -1,14 +1,59 @@
 package org.example.model;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.util.LogHistogram;
+
+/**
+ * Summary of one jar. Sections for metrics that were not selected (see {@link Metric}) are
+ * {@code null} and left out of the JSON, as is {@link #plugins} when no metric plugins ran.
+ * Plugin sections are keyed by plugin name; {@link org.example.service.ReportReader} reads them
+ * back into the types their plugins declare.
+ */
 public record JarAnalysisResult(
         String jarFileName,
         int totalClasses,
         int totalInterfaces,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         InheritanceMetrics inheritance,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         ABCSummary abc,
-        double averageOverriddenMethods,
-        double averageFieldsPerClass
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Double averageOverriddenMethods,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Double averageFieldsPerClass,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Distributions distributions,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Hotspots hotspots,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Map<String, Object> plugins,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        CacheStatistics cache,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<JarAnalysisResult> nestedJars
 ) {
+    public JarAnalysisResult(
+            String jarFileName,
+            int totalClasses,
+            int totalInterfaces,
+            InheritanceMetrics inheritance,
+            ABCSummary abc,
+            double averageOverriddenMethods,
+            double averageFieldsPerClass
+    ) {
+        this(jarFileName, totalClasses, totalInterfaces, inheritance, abc,
+                averageOverriddenMethods, averageFieldsPerClass, null, null, null, null, null);
+    }
+
+    public JarAnalysisResult withCache(CacheStatistics cache) {
+        return new JarAnalysisResult(jarFileName, totalClasses, totalInterfaces, inheritance, abc,
+                averageOverriddenMethods, averageFieldsPerClass, distributions, hotspots, plugins, cache, nestedJars);
+    }
+
     public record InheritanceMetrics(
             int maxDepth,
             double averageDepth
@@ -30,5 +75,95 @@ public record JarAnalysisResult(
             );
         }
     }
-}
 
+    /**
+     * Spread of the per-method and per-class values behind the averages: ABC magnitude of every
+     * method with code, and inheritance depth, field count and overridden method count per type
+     * (overrides for classes only, as in {@link #averageOverriddenMethods}).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Distributions(
+            Distribution methodAbcMagnitude,
+            Distribution inheritanceDepth,
+            Distribution fieldsPerClass,
+            Distribution overriddenMethods
+    ) {
+    }
+
+    /**
+     * Percentiles from a {@link LogHistogram}, accurate to about 1.6%, and its non-empty
+     * power-of-two ranges: each bin counts the values above the previous bin's {@code upTo}.
+     */
+    public record Distribution(
+            long count,
+            double p50,
+            double p90,
+            double p99,
+            double max,
+            List<Bin> histogram
+    ) {
+        public static Distribution from(LogHistogram histogram) {
+            long[] ranges = histogram.powerOfTwoCounts();
+            List<Bin> bins = new ArrayList<>();
+            for (int k = 0; k < ranges.length; k++) {
+                if (ranges[k] != 0) {
+                    double upTo = k == 0 ? 0 : Math.scalb(1.0, k - 1);
+                    bins.add(new Bin(upTo, ranges[k]));
+                }
+            }
+            return new Distribution(
+                    histogram.getCount(),
+                    histogram.percentile(50),
+                    histogram.percentile(90),
+                    histogram.percentile(99),
+                    histogram.getMax(),
+                    List.copyOf(bins)
+            );
+        }
+
+        public record Bin(double upTo, long count) {
+        }
+    }
+
+    /**
+     * The most complex methods and the deepest and most overriding types, each list ordered from
+     * the worst down and ties broken by name. Method lists rank methods with code; the overriding
+     * list ranks classes only.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Hotspots(
+            List<MethodHotspot> methodsByAbcMagnitude,
+            List<MethodHotspot> methodsByBranches,
+            List<MethodHotspot> methodsByConditions,
+            List<ClassHotspot> deepestClasses,
+            List<ClassHotspot> mostOverridingClasses
+    ) {
+    }
+
+    public record MethodHotspot(
+            String className,
+            String method,
+            String descriptor,
+            int assignments,
+            int branches,
+            int conditions,
+            double magnitude
+    ) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ClassHotspot(
+            String className,
+            Integer inheritanceDepth,
+            Integer overriddenMethods
+    ) {
+    }
+
+    public record CacheStatistics(
+            long hits,
+            long misses,
+            double hitRate,
+            long parseTimeSavedMillis
+    ) {
+    }
+}
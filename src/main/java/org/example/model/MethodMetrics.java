@@ -0,0 +1,20 @@
+package org.example.model;
+
+/**
+ * ABC counts of one method with code, keyed by its {@link org.example.util.SymbolTable}
+ * signature id.
+ */
+public record MethodMetrics(
+        int signatureId,
+        int assignments,
+        int branches,
+        int conditions
+) {
+    public double magnitude() {
+        return Math.sqrt(
+                (double) assignments * assignments +
+                (double) branches * branches +
+                (double) conditions * conditions
+        );
+    }
+}
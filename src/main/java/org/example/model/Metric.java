@@ -0,0 +1,50 @@
+package org.example.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A metric family that can be switched on or off. What is selected decides how much of each
+ * class file has to be parsed; see {@link org.example.service.JarProcessor.ParseLevel}.
+ */
+public enum Metric {
+    /** Maximum and average inheritance depth; needs only the class header. */
+    INHERITANCE,
+    /** Overridden methods per class; needs method signatures. */
+    OVERRIDES,
+    /** Fields per class; needs field declarations. */
+    FIELDS,
+    /** Assignment, branch and condition counts; needs every method body. */
+    ABC;
+
+    private static final Set<Metric> ALL = Collections.unmodifiableSet(EnumSet.allOf(Metric.class));
+
+    public static Set<Metric> all() {
+        return ALL;
+    }
+
+    /**
+     * Parses a comma-separated, case-insensitive list such as {@code inheritance,fields}.
+     *
+     * @throws IllegalArgumentException for an unknown name or an empty list
+     */
+    public static Set<Metric> parse(String list) {
+        Set<Metric> metrics = EnumSet.noneOf(Metric.class);
+        for (String name : list.split(",")) {
+            if (!name.isBlank()) {
+                try {
+                    metrics.add(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown metric: " + name.trim() + ", expected one of "
+                            + EnumSet.allOf(Metric.class).toString().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        if (metrics.isEmpty()) {
+            throw new IllegalArgumentException("No metrics selected");
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.model;
+
+import java.util.Arrays;
+
+import org.example.util.SymbolTable;
+
+/**
+ * Hierarchy skeleton of one parsed type, keyed by {@link org.example.util.SymbolTable} ids.
+ * {@code superNameId} is {@link org.example.util.SymbolTable#NO_ID} for types without a superclass,
+ * and {@code methodIds} holds the signature ids of the type's methods, excluding constructors and
+ * static initializers. The arrays must not be modified.
+ */
+public record TypeNode(
+        int nameId,
+        int superNameId,
+        int[] interfaceIds,
+        boolean isInterface,
+        int[] methodIds
+) {
+    /**
+     * Skeleton of a parsed class; constructors and static initializers are left out.
+     */
+    public static TypeNode of(ClassInfo classInfo) {
+        SymbolTable symbols = classInfo.getSymbols();
+        int[] methodIds = classInfo.getMethodIds();
+        int[] ids = new int[methodIds.length];
+        int count = 0;
+        for (int id : methodIds) {
+            if (!symbols.isConstructorOrInitializer(id)) {
+                ids[count++] = id;
+            }
+        }
+        return new TypeNode(
+                classInfo.getNameId(),
+                classInfo.getSuperNameId(),
+                classInfo.getInterfaceIds(),
+                classInfo.isInterface(),
+                count == ids.length ? methodIds : Arrays.copyOf(ids, count)
+        );
+    }
+}
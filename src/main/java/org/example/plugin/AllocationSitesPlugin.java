@@ -0,0 +1,168 @@
+package org.example.plugin;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.example.service.JarProcessor.ParseLevel;
+import org.example.service.MetricsAccumulator;
+import org.example.util.TopK;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Allocation sites: {@code NEW} instructions for objects, {@code NEWARRAY}, {@code ANEWARRAY} and
+ * {@code MULTIANEWARRAY} for arrays, in total and for the {@value MetricsAccumulator#HOTSPOT_COUNT}
+ * classes with the most. Sites are counted in the bytecode, not executions.
+ */
+public class AllocationSitesPlugin implements MetricPlugin<AllocationSitesPlugin.Sites> {
+    private static final Comparator<ClassSites> ORDER = Comparator
+            .comparingLong(ClassSites::total)
+            // ties go to the alphabetically first class
+            .thenComparing(Comparator.comparing(ClassSites::className).reversed());
+
+    @Override
+    public String name() {
+        return "allocations";
+    }
+
+    @Override
+    public ParseLevel parseLevel() {
+        return ParseLevel.CODE;
+    }
+
+    @Override
+    public Sites newAccumulator() {
+        return new Sites();
+    }
+
+    @Override
+    public ClassVisitor classVisitor(Sites sites, ClassVisitor next) {
+        return new ClassVisitor(Opcodes.ASM9, next) {
+            private String className;
+            private int objects;
+            private int arrays;
+
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName,
+                              String[] interfaces) {
+                className = name;
+                super.visit(version, access, name, signature, superName, interfaces);
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                             String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9,
+                        super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                    @Override
+                    public void visitTypeInsn(int opcode, String type) {
+                        if (opcode == Opcodes.NEW) {
+                            objects++;
+                        } else if (opcode == Opcodes.ANEWARRAY) {
+                            arrays++;
+                        }
+                        super.visitTypeInsn(opcode, type);
+                    }
+
+                    @Override
+                    public void visitIntInsn(int opcode, int operand) {
+                        if (opcode == Opcodes.NEWARRAY) {
+                            arrays++;
+                        }
+                        super.visitIntInsn(opcode, operand);
+                    }
+
+                    @Override
+                    public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+                        arrays++;
+                        super.visitMultiANewArrayInsn(descriptor, numDimensions);
+                    }
+                };
+            }
+
+            @Override
+            public void visitEnd() {
+                sites.add(className, objects, arrays);
+                super.visitEnd();
+            }
+        };
+    }
+
+    @Override
+    public AllocationSites section(Sites sites) {
+        return new AllocationSites(sites.objects, sites.arrays, sites.classes());
+    }
+
+    @Override
+    public Class<AllocationSites> sectionType() {
+        return AllocationSites.class;
+    }
+
+    public static final class Sites implements MetricPlugin.Accumulator<Sites> {
+        private long objects;
+        private long arrays;
+        // a class's own accumulator only ever holds its own sites, so ranking waits for a second class
+        private ClassSites single;
+        private TopK<ClassSites> ranked;
+
+        void add(String className, int objects, int arrays) {
+            if (objects + arrays == 0) {
+                return;
+            }
+            this.objects += objects;
+            this.arrays += arrays;
+            offer(new ClassSites(className, objects, arrays));
+        }
+
+        @Override
+        public void merge(Sites other) {
+            objects += other.objects;
+            arrays += other.arrays;
+            if (other.single != null) {
+                offer(other.single);
+            }
+            if (other.ranked != null) {
+                ranked().merge(other.ranked);
+            }
+        }
+
+        private void offer(ClassSites sites) {
+            if (single == null && ranked == null) {
+                single = sites;
+            } else {
+                ranked().offer(sites);
+            }
+        }
+
+        private TopK<ClassSites> ranked() {
+            if (ranked == null) {
+                ranked = new TopK<>(MetricsAccumulator.HOTSPOT_COUNT, ORDER);
+                if (single != null) {
+                    ranked.offer(single);
+                    single = null;
+                }
+            }
+            return ranked;
+        }
+
+        private List<ClassSites> classes() {
+            if (ranked != null) {
+                return ranked.toList();
+            }
+            return single == null ? List.of() : List.of(single);
+        }
+    }
+
+    /**
+     * Allocation sites of the whole jar, and the classes with the most, most first.
+     */
+    public record AllocationSites(long objects, long arrays, List<ClassSites> classesBySites) {
+    }
+
+    public record ClassSites(String className, int objects, int arrays) {
+        public long total() {
+            return (long) objects + arrays;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.plugin;
+
+import org.example.service.JarProcessor.ParseLevel;
+import org.objectweb.asm.ClassVisitor;
+
+/**
+ * A metric computed in the same {@link org.objectweb.asm.ClassReader} pass as the built-in ones.
+ * Implementations are found with {@link java.util.ServiceLoader} (see
+ * {@link MetricPlugins#discover()}), so a plugin jar only needs a
+ * {@code META-INF/services/org.example.plugin.MetricPlugin} entry and a public no-argument
+ * constructor.
+ *
+ * <p>For every parsed class the processor creates an empty accumulator with
+ * {@link #newAccumulator()} and chains the visitor from {@link #classVisitor} behind
+ * {@link org.example.visitor.ClassInfoVisitor}: class events reach it after the built-in
+ * collector, and instructions after {@link org.example.visitor.ABCMetricsMethodVisitor}.
+ * Per-class accumulators are then merged in jar entry order, per worker and across workers, and
+ * {@link #section} turns the one left for the jar into the plugin's entry in
+ * {@link org.example.model.JarAnalysisResult#plugins()}.
+ *
+ * <p>One plugin instance serves all worker threads, so it must be stateless or thread-safe;
+ * accumulators are only ever used by one thread at a time.
+ *
+ * @param <A> the plugin's accumulator
+ */
+public interface MetricPlugin<A extends MetricPlugin.Accumulator<A>> {
+
+    /**
+     * Key of the plugin's section in the report and the name it is selected by; unique among
+     * the plugins of one run.
+     */
+    String name();
+
+    /**
+     * The cheapest level at which the plugin sees everything it needs. At
+     * {@link ParseLevel#HEADER} the visitor gets {@code visit} and {@code visitEnd} only, with a
+     * {@code null} signature; at {@link ParseLevel#MEMBERS} also fields and methods without
+     * code; at {@link ParseLevel#CODE} also every instruction. Debug information and stack map
+     * frames are always skipped. Classes are parsed at the highest level any selected metric or
+     * plugin asks for, so a visitor may see more than it declared.
+     */
+    ParseLevel parseLevel();
+
+    A newAccumulator();
+
+    /**
+     * The class- and method-level callbacks for one class, recording into {@code accumulator}.
+     * The visitor must pass every event on to {@code next}, which may be {@code null}, as ASM
+     * adapters do by calling {@code super}; method callbacks are the {@code MethodVisitor}
+     * returned from {@code visitMethod}, wrapping the one {@code super.visitMethod} returns.
+     */
+    ClassVisitor classVisitor(A accumulator, ClassVisitor next);
+
+    /**
+     * The report section for everything in {@code accumulator}, serialized with Jackson, e.g. a
+     * record.
+     */
+    Object section(A accumulator);
+
+    /**
+     * The type {@link #section} returns, which {@link org.example.service.ReportReader} reads the
+     * plugin's section back into.
+     */
+    Class<?> sectionType();
+
+    /**
+     * Mutable state of one plugin for one class, one worker or one jar.
+     */
+    interface Accumulator<A extends Accumulator<A>> {
+        /**
+         * Adds everything collected by {@code other}, which comes after this accumulator in jar
+         * entry order and is not used again.
+         */
+        void merge(A other);
+    }
+}
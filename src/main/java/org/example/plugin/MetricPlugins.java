@@ -0,0 +1,137 @@
+package org.example.plugin;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import org.example.service.JarProcessor.ParseLevel;
+
+/**
+ * An ordered, immutable set of {@link MetricPlugin}s run together in every class pass. Plugins
+ * see events, and their sections appear in the report, in this order.
+ */
+public final class MetricPlugins {
+    private static final MetricPlugins NONE = new MetricPlugins(List.of());
+
+    private final List<MetricPlugin<?>> plugins;
+    private final ParseLevel parseLevel;
+
+    private MetricPlugins(List<MetricPlugin<?>> plugins) {
+        this.plugins = plugins;
+        ParseLevel level = ParseLevel.HEADER;
+        for (MetricPlugin<?> plugin : plugins) {
+            if (!level.covers(plugin.parseLevel())) {
+                level = plugin.parseLevel();
+            }
+        }
+        this.parseLevel = level;
+    }
+
+    public static MetricPlugins none() {
+        return NONE;
+    }
+
+    /**
+     * @throws IllegalArgumentException if two plugins have the same name
+     */
+    public static MetricPlugins of(List<? extends MetricPlugin<?>> plugins) {
+        if (plugins.isEmpty()) {
+            return NONE;
+        }
+        Set<String> names = new HashSet<>();
+        for (MetricPlugin<?> plugin : plugins) {
+            String name = Objects.requireNonNull(plugin.name(), "plugin name cannot be null");
+            Objects.requireNonNull(plugin.parseLevel(), "parseLevel cannot be null");
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Duplicate metric plugin: " + name);
+            }
+        }
+        return new MetricPlugins(List.copyOf(plugins));
+    }
+
+    /**
+     * Every plugin registered with the context class loader, in {@link ServiceLoader} order.
+     */
+    public static MetricPlugins discover() {
+        return discover(Thread.currentThread().getContextClassLoader());
+    }
+
+    public static MetricPlugins discover(ClassLoader loader) {
+        List<MetricPlugin<?>> found = new ArrayList<>();
+        for (MetricPlugin<?> plugin : ServiceLoader.load(MetricPlugin.class, loader)) {
+            found.add(plugin);
+        }
+        return of(found);
+    }
+
+    /**
+     * The plugins named in a comma-separated, case-insensitive list such as
+     * {@code allocations,coupling}, in this set's order; {@code all} selects every plugin.
+     *
+     * @throws IllegalArgumentException for an unknown name or an empty list
+     */
+    public MetricPlugins select(String list) {
+        Set<String> requested = new HashSet<>();
+        for (String name : list.split(",")) {
+            if (!name.isBlank()) {
+                requested.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("No metric plugins selected");
+        }
+        if (requested.contains("all")) {
+            return this;
+        }
+        List<MetricPlugin<?>> selected = new ArrayList<>();
+        for (MetricPlugin<?> plugin : plugins) {
+            if (requested.remove(plugin.name().toLowerCase(Locale.ROOT))) {
+                selected.add(plugin);
+            }
+        }
+        if (!requested.isEmpty()) {
+            throw new IllegalArgumentException("Unknown metric plugin: " + String.join(", ", requested)
+                    + ", found " + names());
+        }
+        return of(selected);
+    }
+
+    public List<MetricPlugin<?>> plugins() {
+        return plugins;
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(plugins.size());
+        for (MetricPlugin<?> plugin : plugins) {
+            names.add(plugin.name());
+        }
+        return names;
+    }
+
+    public boolean isEmpty() {
+        return plugins.isEmpty();
+    }
+
+    /**
+     * The highest level any plugin needs; {@link ParseLevel#HEADER} without plugins.
+     */
+    public ParseLevel parseLevel() {
+        return parseLevel;
+    }
+
+    /**
+     * One empty accumulator per plugin.
+     */
+    public PluginAccumulators newAccumulators() {
+        return new PluginAccumulators(this);
+    }
+
+    @Override
+    public String toString() {
+        return names().toString();
+    }
+}
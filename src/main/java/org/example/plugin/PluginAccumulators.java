@@ -0,0 +1,91 @@
+package org.example.plugin;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassVisitor;
+
+/**
+ * One accumulator for each plugin of a {@link MetricPlugins} set, for a single class or
+ * aggregated over many. Not thread-safe.
+ */
+public final class PluginAccumulators {
+    private final MetricPlugins plugins;
+    private final MetricPlugin.Accumulator<?>[] accumulators;
+
+    PluginAccumulators(MetricPlugins plugins) {
+        this.plugins = plugins;
+        List<MetricPlugin<?>> list = plugins.plugins();
+        this.accumulators = new MetricPlugin.Accumulator<?>[list.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = list.get(i).newAccumulator();
+        }
+    }
+
+    public MetricPlugins getPlugins() {
+        return plugins;
+    }
+
+    /**
+     * The plugins' visitors chained in plugin order, each recording into its accumulator here
+     * and passing events on to the next; {@code null} without plugins.
+     */
+    public ClassVisitor classVisitor() {
+        List<MetricPlugin<?>> list = plugins.plugins();
+        ClassVisitor next = null;
+        for (int i = list.size() - 1; i >= 0; i--) {
+            next = classVisitor(list.get(i), accumulators[i], next);
+        }
+        return next;
+    }
+
+    /**
+     * Adds everything {@code other} collected for the same plugins; {@code other} comes after
+     * this in jar entry order and is not used again.
+     *
+     * @throws IllegalArgumentException if {@code other} belongs to a different plugin set
+     */
+    public void merge(PluginAccumulators other) {
+        if (other.plugins != plugins) {
+            throw new IllegalArgumentException("Cannot merge results of plugins " + other.plugins + " into " + plugins);
+        }
+        List<MetricPlugin<?>> list = plugins.plugins();
+        for (int i = 0; i < accumulators.length; i++) {
+            merge(list.get(i), accumulators[i], other.accumulators[i]);
+        }
+    }
+
+    /**
+     * Each plugin's report section keyed by plugin name, in plugin order.
+     */
+    public Map<String, Object> sections() {
+        List<MetricPlugin<?>> list = plugins.plugins();
+        Map<String, Object> sections = new LinkedHashMap<>();
+        for (int i = 0; i < accumulators.length; i++) {
+            sections.put(list.get(i).name(), section(list.get(i), accumulators[i]));
+        }
+        return Collections.unmodifiableMap(sections);
+    }
+
+    // each accumulator was created by the plugin at the same index, so the casts hold
+
+    @SuppressWarnings("unchecked")
+    private static <A extends MetricPlugin.Accumulator<A>> ClassVisitor classVisitor(
+            MetricPlugin<A> plugin, MetricPlugin.Accumulator<?> accumulator, ClassVisitor next) {
+        return plugin.classVisitor((A) accumulator, next);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A extends MetricPlugin.Accumulator<A>> void merge(
+            MetricPlugin<A> plugin, MetricPlugin.Accumulator<?> into, MetricPlugin.Accumulator<?> other) {
+        ((A) into).merge((A) other);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A extends MetricPlugin.Accumulator<A>> Object section(
+            MetricPlugin<A> plugin, MetricPlugin.Accumulator<?> accumulator) {
+        return plugin.section((A) accumulator);
+    }
+}
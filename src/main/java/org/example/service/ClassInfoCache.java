@@ -0,0 +1,358 @@
+package org.example.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.example.model.ABCMetrics;
+import org.example.model.ClassInfo;
+import org.example.model.JarAnalysisResult.CacheStatistics;
+import org.example.model.MethodInfo;
+import org.example.model.MethodMetrics;
+import org.example.util.SymbolTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of parsed class data, keyed by zip entry name, CRC-32 and uncompressed size.
+ *
+ * <p>An entry whose key is unchanged since a previous run is rebuilt from the cache without
+ * reading or parsing its bytes. The whole cache is loaded into memory on {@link #load} and written
+ * back on {@link #save}; when it holds more than {@code maxEntries} classes, the ones unused for the
+ * most runs are evicted first. A long-running process marks each run with {@link #nextRun}, which
+ * also applies the size cap; {@link #inMemory} caches are never written anywhere. {@link #statistics}
+ * cover the current run only.
+ *
+ * <p>Lookups and stores are thread-safe.
+ */
+public class ClassInfoCache {
+    private static final Logger log = LoggerFactory.getLogger(ClassInfoCache.class);
+    private static final int MAGIC = 0x4A414343;
+    private static final int FORMAT_VERSION = 4;
+
+    private final Path file;
+    private final int maxEntries;
+    private volatile long generation;
+    private final Map<Key, CachedClass> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedParseNanos = new LongAdder();
+
+    private ClassInfoCache(Path file, int maxEntries, long generation, Map<Key, CachedClass> entries) {
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.generation = generation;
+        this.entries = entries;
+    }
+
+    /**
+     * Loads the cache from {@code file}. A missing, unreadable or incompatible file yields an
+     * empty cache that will replace it on {@link #save}.
+     */
+    public static ClassInfoCache load(Path file, int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + maxEntries);
+        }
+        Map<Key, CachedClass> entries = new ConcurrentHashMap<>();
+        long generation = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                log.warn("Ignoring incompatible class cache: {}", file);
+            } else {
+                generation = in.readLong();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Key key = new Key(in.readUTF(), in.readLong(), in.readLong());
+                    entries.put(key, CachedClass.read(in));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            log.debug("No class cache at {}", file);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable class cache: {}", file, e);
+            entries.clear();
+            generation = 0;
+        }
+        return new ClassInfoCache(file, maxEntries, generation + 1, entries);
+    }
+
+    /**
+     * A cache that only lives as long as this process, e.g. for a daemon without a cache file.
+     */
+    public static ClassInfoCache inMemory(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + maxEntries);
+        }
+        return new ClassInfoCache(null, maxEntries, 1, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Starts a new run for LRU purposes and statistics, and evicts the least recently used entries
+     * beyond the size cap.
+     *
+     * @return the statistics of the run that ended
+     */
+    public synchronized CacheStatistics nextRun() {
+        if (entries.size() > maxEntries) {
+            List<Map.Entry<Key, CachedClass>> evicted = leastRecentlyUsedFirst();
+            evicted = evicted.subList(0, Math.max(0, evicted.size() - maxEntries));
+            for (Map.Entry<Key, CachedClass> entry : evicted) {
+                entries.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        generation++;
+        // lookups racing with the reset count towards either run, but are never lost
+        return statistics(hits.sumThenReset(), misses.sumThenReset(), savedParseNanos.sumThenReset());
+    }
+
+    /**
+     * Returns the cached class for an entry, or {@code null} if the entry is new or changed.
+     */
+    public ClassInfo lookup(String entryName, long crc, long size, SymbolTable symbols) {
+        CachedClass cached = entries.get(new Key(entryName, crc, size));
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        cached.lastUsed = generation;
+        hits.increment();
+        savedParseNanos.add(cached.parseNanos);
+        return cached.toClassInfo(symbols);
+    }
+
+    public void store(String entryName, long crc, long size, ClassInfo classInfo, long parseNanos) {
+        entries.put(new Key(entryName, crc, size), CachedClass.of(classInfo, parseNanos, generation));
+    }
+
+    /**
+     * Lookups since the current run started.
+     */
+    public CacheStatistics statistics() {
+        return statistics(hits.sum(), misses.sum(), savedParseNanos.sum());
+    }
+
+    private static CacheStatistics statistics(long hitCount, long missCount, long savedNanos) {
+        long lookups = hitCount + missCount;
+        return new CacheStatistics(
+                hitCount,
+                missCount,
+                lookups == 0 ? 0 : (double) hitCount / lookups,
+                savedNanos / 1_000_000
+        );
+    }
+
+    /**
+     * Evicts the least recently used entries beyond the size cap and writes the cache atomically.
+     */
+    public synchronized void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        List<Map.Entry<Key, CachedClass>> retained = leastRecentlyUsedFirst();
+        retained = retained.subList(Math.max(0, retained.size() - maxEntries), retained.size());
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(generation);
+            out.writeInt(retained.size());
+            for (Map.Entry<Key, CachedClass> entry : retained) {
+                Key key = entry.getKey();
+                out.writeUTF(key.entryName());
+                out.writeLong(key.crc());
+                out.writeLong(key.size());
+                entry.getValue().write(out);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Saved {} cached classes to {}", retained.size(), file);
+    }
+
+    private List<Map.Entry<Key, CachedClass>> leastRecentlyUsedFirst() {
+        List<Map.Entry<Key, CachedClass>> sorted = new ArrayList<>(entries.entrySet());
+        sorted.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        return sorted;
+    }
+
+    private record Key(String entryName, long crc, long size) {
+    }
+
+    private static final class CachedClass {
+        private final String name;
+        private final String superName;
+        private final String[] interfaces;
+        private final MethodInfo[] methods;
+        // per method with code: its index in methods, assignments, branches, conditions
+        private final int[] methodMetrics;
+        private final int fieldCount;
+        private final int assignments;
+        private final int branches;
+        private final int conditions;
+        private final boolean isInterface;
+        private final long parseNanos;
+        private volatile long lastUsed;
+
+        private CachedClass(
+                String name,
+                String superName,
+                String[] interfaces,
+                MethodInfo[] methods,
+                int[] methodMetrics,
+                int fieldCount,
+                int assignments,
+                int branches,
+                int conditions,
+                boolean isInterface,
+                long parseNanos,
+                long lastUsed
+        ) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.methods = methods;
+            this.methodMetrics = methodMetrics;
+            this.fieldCount = fieldCount;
+            this.assignments = assignments;
+            this.branches = branches;
+            this.conditions = conditions;
+            this.isInterface = isInterface;
+            this.parseNanos = parseNanos;
+            this.lastUsed = lastUsed;
+        }
+
+        private static CachedClass of(ClassInfo classInfo, long parseNanos, long generation) {
+            ABCMetrics abc = classInfo.getAbcMetrics();
+            int[] methodIds = classInfo.getMethodIds();
+            MethodInfo[] methods = new MethodInfo[methodIds.length];
+            for (int i = 0; i < methods.length; i++) {
+                methods[i] = classInfo.getSymbols().signature(methodIds[i]);
+            }
+            List<MethodMetrics> metrics = classInfo.getMethodMetrics();
+            int[] methodMetrics = new int[metrics.size() * 4];
+            for (int i = 0; i < metrics.size(); i++) {
+                MethodMetrics method = metrics.get(i);
+                // method ids are sorted, and every method with code is a declared one
+                int index = Arrays.binarySearch(methodIds, method.signatureId());
+                if (index < 0) {
+                    throw new IllegalArgumentException("Metrics of an undeclared method in " + classInfo.getName());
+                }
+                methodMetrics[i * 4] = index;
+                methodMetrics[i * 4 + 1] = method.assignments();
+                methodMetrics[i * 4 + 2] = method.branches();
+                methodMetrics[i * 4 + 3] = method.conditions();
+            }
+            return new CachedClass(
+                    classInfo.getName(),
+                    classInfo.getSuperName(),
+                    classInfo.getInterfaces().toArray(String[]::new),
+                    methods,
+                    methodMetrics,
+                    classInfo.getFieldCount(),
+                    abc.getAssignments(),
+                    abc.getBranches(),
+                    abc.getConditions(),
+                    classInfo.isInterface(),
+                    parseNanos,
+                    generation
+            );
+        }
+
+        private ClassInfo toClassInfo(SymbolTable symbols) {
+            ClassInfo.Builder builder = ClassInfo.builder(symbols)
+                    .name(name)
+                    .superName(superName)
+                    .addInterfaces(interfaces)
+                    .isInterface(isInterface)
+                    .fieldCount(fieldCount)
+                    .abcMetrics(new ABCMetrics(assignments, branches, conditions));
+            for (MethodInfo method : methods) {
+                builder.addMethod(method);
+            }
+            for (int i = 0; i < methodMetrics.length; i += 4) {
+                MethodInfo method = methods[methodMetrics[i]];
+                builder.addMethodMetrics(method.name(), method.descriptor(),
+                        methodMetrics[i + 1], methodMetrics[i + 2], methodMetrics[i + 3]);
+            }
+            return builder.build();
+        }
+
+        private static CachedClass read(DataInputStream in) throws IOException {
+            long lastUsed = in.readLong();
+            long parseNanos = in.readLong();
+            boolean isInterface = in.readBoolean();
+            String name = in.readUTF();
+            String superName = in.readBoolean() ? in.readUTF() : null;
+            String[] interfaces = new String[in.readInt()];
+            for (int i = 0; i < interfaces.length; i++) {
+                interfaces[i] = in.readUTF();
+            }
+            MethodInfo[] methods = new MethodInfo[in.readInt()];
+            for (int i = 0; i < methods.length; i++) {
+                methods[i] = new MethodInfo(in.readUTF(), in.readUTF());
+            }
+            int[] methodMetrics = new int[in.readInt() * 4];
+            for (int i = 0; i < methodMetrics.length; i += 4) {
+                methodMetrics[i] = in.readInt();
+                if (methodMetrics[i] < 0 || methodMetrics[i] >= methods.length) {
+                    throw new IOException("Method index out of range: " + methodMetrics[i]);
+                }
+                methodMetrics[i + 1] = in.readInt();
+                methodMetrics[i + 2] = in.readInt();
+                methodMetrics[i + 3] = in.readInt();
+            }
+            int fieldCount = in.readInt();
+            int assignments = in.readInt();
+            int branches = in.readInt();
+            int conditions = in.readInt();
+            return new CachedClass(name, superName, interfaces, methods, methodMetrics, fieldCount,
+                    assignments, branches, conditions, isInterface, parseNanos, lastUsed);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeLong(lastUsed);
+            out.writeLong(parseNanos);
+            out.writeBoolean(isInterface);
+            out.writeUTF(name);
+            out.writeBoolean(superName != null);
+            if (superName != null) {
+                out.writeUTF(superName);
+            }
+            out.writeInt(interfaces.length);
+            for (String iface : interfaces) {
+                out.writeUTF(iface);
+            }
+            out.writeInt(methods.length);
+            for (MethodInfo method : methods) {
+                out.writeUTF(method.name());
+                out.writeUTF(method.descriptor());
+            }
+            out.writeInt(methodMetrics.length / 4);
+            for (int value : methodMetrics) {
+                out.writeInt(value);
+            }
+            out.writeInt(fieldCount);
+            out.writeInt(assignments);
+            out.writeInt(branches);
+            out.writeInt(conditions);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package org.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.example.model.MethodInfo;
+import org.example.service.JarProcessor.ParseLevel;
+import org.example.util.ClassFileHeader;
+import org.example.util.MappedZipFile;
+import org.example.visitor.ClassHeaderVisitor;
+import org.objectweb.asm.ClassReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves types that are not part of the analyzed jar from a classpath of jars, directories and
+ * the running JDK's {@code jrt:/} image.
+ *
+ * <p>Nothing is parsed up front. A jar's central directory is indexed the first time a lookup
+ * reaches it, and a class is only read when it is actually asked for, and then only up to its
+ * member signatures ({@code SKIP_CODE}), or only its header with {@link ParseLevel#HEADER}. Results, including misses, are cached for the lifetime of
+ * the resolver. Elements are searched in classpath order, so the first definition wins.
+ *
+ * <p>Instances are thread-safe.
+ */
+public class ClasspathResolver implements Closeable {
+    public static final String JRT = "jrt:/";
+
+    private static final Logger log = LoggerFactory.getLogger(ClasspathResolver.class);
+    private static final int HEADER_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    private final List<Element> elements;
+    private final ParseLevel parseLevel;
+    private final Map<String, Optional<ClassHeader>> headers = new ConcurrentHashMap<>();
+    private final LongAdder parsedClasses = new LongAdder();
+
+    private ClasspathResolver(List<Element> elements, ParseLevel parseLevel) {
+        this.elements = elements;
+        this.parseLevel = parseLevel;
+    }
+
+    /**
+     * @param classpath jar files, class directories or {@link #JRT} for the running JDK
+     */
+    public static ClasspathResolver of(List<String> classpath) {
+        return of(classpath, ParseLevel.MEMBERS);
+    }
+
+    /**
+     * @param parseLevel {@link ParseLevel#HEADER} to read only the hierarchy, leaving
+     *                   {@link ClassHeader#methods()} empty, which is enough for depth but not for
+     *                   overrides; higher levels read method signatures
+     */
+    public static ClasspathResolver of(List<String> classpath, ParseLevel parseLevel) {
+        List<Element> elements = new ArrayList<>();
+        for (String entry : classpath) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            if (JRT.equals(entry) || "jrt".equals(entry)) {
+                elements.add(new JrtElement());
+                continue;
+            }
+            Path path = Path.of(entry);
+            if (Files.isDirectory(path)) {
+                elements.add(new DirectoryElement(path));
+            } else if (Files.isRegularFile(path)) {
+                elements.add(new JarElement(path));
+            } else {
+                log.warn("Ignoring missing classpath entry: {}", entry);
+            }
+        }
+        Objects.requireNonNull(parseLevel, "parseLevel cannot be null");
+        return new ClasspathResolver(elements, parseLevel == ParseLevel.HEADER ? ParseLevel.HEADER : ParseLevel.MEMBERS);
+    }
+
+    /**
+     * Splits a classpath string on the platform path separator. {@code jrt:/} is recognized
+     * despite containing {@code ':'}.
+     */
+    public static List<String> parse(String classpath) {
+        String marker = "\u0000jrt\u0000";
+        List<String> entries = new ArrayList<>();
+        for (String entry : classpath.replace(JRT, marker).split(java.io.File.pathSeparator)) {
+            entries.add(entry.replace(marker, JRT));
+        }
+        return entries;
+    }
+
+    /**
+     * Header of the class with the given internal name, or {@code null} if no classpath
+     * element defines it.
+     */
+    public ClassHeader find(String className) {
+        Optional<ClassHeader> cached = headers.get(className);
+        if (cached == null) {
+            cached = Optional.ofNullable(load(className));
+            Optional<ClassHeader> raced = headers.putIfAbsent(className, cached);
+            if (raced != null) {
+                cached = raced;
+            }
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * {@link ParseLevel#HEADER} or {@link ParseLevel#MEMBERS}.
+     */
+    public ParseLevel getParseLevel() {
+        return parseLevel;
+    }
+
+    /**
+     * Number of classpath classes that had to be read so far.
+     */
+    public long getParsedClassCount() {
+        return parsedClasses.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Element element : elements) {
+            element.close();
+        }
+    }
+
+    private ClassHeader load(String className) {
+        String entryName = className + ".class";
+        for (Element element : elements) {
+            try {
+                byte[] bytes = element.read(entryName);
+                if (bytes != null) {
+                    parsedClasses.increment();
+                    return parseLevel == ParseLevel.HEADER ? scanHeader(bytes) : parseHeader(bytes);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to read {} from {}", entryName, element, e);
+            }
+        }
+        return null;
+    }
+
+    private static ClassHeader parseHeader(byte[] bytes) {
+        ClassHeaderVisitor visitor = new ClassHeaderVisitor();
+        new ClassReader(bytes).accept(visitor, HEADER_OPTIONS);
+        return new ClassHeader(
+                visitor.getName(),
+                visitor.getSuperName(),
+                List.of(visitor.getInterfaces()),
+                visitor.isInterface(),
+                List.copyOf(visitor.getMethods())
+        );
+    }
+
+    private static ClassHeader scanHeader(byte[] bytes) {
+        ClassFileHeader header = ClassFileHeader.parse(bytes);
+        return new ClassHeader(
+                header.className(),
+                header.superName(),
+                List.of(header.interfaces()),
+                header.isInterface(),
+                List.of()
+        );
+    }
+
+    /**
+     * Hierarchy-relevant data of a classpath class.
+     */
+    public record ClassHeader(
+            String name,
+            String superName,
+            List<String> interfaces,
+            boolean isInterface,
+            List<MethodInfo> methods
+    ) {
+    }
+
+    private interface Element extends Closeable {
+        /**
+         * Bytes of the entry, or {@code null} if this element does not contain it.
+         */
+        byte[] read(String entryName) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    private static final class JarElement implements Element {
+        private final Path path;
+        private volatile MappedZipFile zipFile;
+        private volatile Map<String, MappedZipFile.Entry> index;
+
+        private JarElement(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public byte[] read(String entryName) throws IOException {
+            MappedZipFile.Entry entry = index().get(entryName);
+            if (entry == null) {
+                return null;
+            }
+            MappedZipFile.Bytes bytes = zipFile.read(entry);
+            byte[] copy = new byte[bytes.length()];
+            System.arraycopy(bytes.array(), bytes.offset(), copy, 0, bytes.length());
+            return copy;
+        }
+
+        private Map<String, MappedZipFile.Entry> index() throws IOException {
+            Map<String, MappedZipFile.Entry> result = index;
+            if (result == null) {
+                synchronized (this) {
+                    result = index;
+                    if (result == null) {
+                        MappedZipFile opened = MappedZipFile.open(path);
+                        result = new HashMap<>();
+                        for (MappedZipFile.Entry entry : opened.entries()) {
+                            if (!entry.isDirectory()) {
+                                result.putIfAbsent(entry.name(), entry);
+                            }
+                        }
+                        zipFile = opened;
+                        index = result;
+                        log.debug("Indexed {} entries of {}", result.size(), path);
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (zipFile != null) {
+                zipFile.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+    private record DirectoryElement(Path root) implements Element {
+        DirectoryElement {
+            root = root.toAbsolutePath().normalize();
+        }
+
+        @Override
+        public byte[] read(String entryName) throws IOException {
+            // Class names come from the analyzed input; "../" or absolute names must not leave the root
+            Path file = root.resolve(entryName).normalize();
+            if (!file.startsWith(root)) {
+                log.debug("Ignoring {} outside of classpath directory {}", entryName, root);
+                return null;
+            }
+            return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+        }
+
+        @Override
+        public String toString() {
+            return root.toString();
+        }
+    }
+
+    private static final class JrtElement implements Element {
+        private final FileSystem jrt = FileSystems.getFileSystem(URI.create(JRT));
+        private final Map<String, List<String>> modulesByPackage = new ConcurrentHashMap<>();
+
+        @Override
+        public byte[] read(String entryName) throws IOException {
+            int slash = entryName.lastIndexOf('/');
+            if (slash < 0) {
+                return null;
+            }
+            String packageName = entryName.substring(0, slash).replace('/', '.');
+            for (String module : modules(packageName)) {
+                Path file = jrt.getPath("/modules", module, entryName);
+                if (Files.isRegularFile(file)) {
+                    return Files.readAllBytes(file);
+                }
+            }
+            return null;
+        }
+
+        private List<String> modules(String packageName) {
+            return modulesByPackage.computeIfAbsent(packageName, name -> {
+                Path packageDir = jrt.getPath("/packages", name);
+                if (!Files.isDirectory(packageDir)) {
+                    return List.of();
+                }
+                List<String> modules = new ArrayList<>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(packageDir)) {
+                    for (Path module : stream) {
+                        modules.add(module.getFileName().toString());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return modules;
+            });
+        }
+
+        @Override
+        public String toString() {
+            return JRT;
+        }
+    }
+}
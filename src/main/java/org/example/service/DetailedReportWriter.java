@@ -0,0 +1,51 @@
+package org.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.model.ClassReport;
+
+/**
+ * Streams {@link ClassReport}s through a single {@link JsonGenerator}: as NDJSON, one class per
+ * line, or as a sequence of Smile root values (see {@link ReportFormat}). Records go straight
+ * into the generator's buffer and out to the stream as it fills, so memory use does not depend
+ * on how many classes are written.
+ *
+ * <p>Instances are not thread-safe. Closing the writer closes the underlying stream.
+ */
+public class DetailedReportWriter implements Closeable {
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private final boolean lines;
+    private long written;
+
+    DetailedReportWriter(ObjectWriter writer, OutputStream out, ReportFormat format) throws IOException {
+        this.writer = writer;
+        this.generator = writer.createGenerator(out);
+        this.lines = format == ReportFormat.JSON;
+        if (lines) {
+            // lines are separated explicitly, not by the generator's default root separator
+            this.generator.setRootValueSeparator(null);
+        }
+    }
+
+    public void write(ClassReport report) throws IOException {
+        writer.writeValue(generator, report);
+        if (lines) {
+            generator.writeRaw('\n');
+        }
+        written++;
+    }
+
+    public long getWrittenCount() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+import org.example.model.TypeNode;
+import org.example.util.SymbolTable;
+
+/**
+ * Memoized superclass-chain index over a set of types.
+ *
+ * <p>The inheritance depth of a type is {@code 1} for direct subclasses of {@code java/lang/Object}
+ * and one more for every superclass above it. A superclass that the resolver does not know counts
+ * once and ends the chain. Every known type's depth is computed exactly once, so indexing {@code n}
+ * types costs {@code O(n)} in total regardless of hierarchy depth.
+ *
+ * <p>Superclass cycles, which only occur in malformed or obfuscated input, are detected rather
+ * than followed: every member of a cycle gets the cycle length as its depth, and the cycle is
+ * recorded in {@link #getCycles()}.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public class HierarchyIndex {
+    private static final int ON_PATH = -1;
+
+    private final SymbolTable symbols;
+    private final IntFunction<TypeNode> resolver;
+    private final int objectId;
+    private final List<List<String>> cycles = new ArrayList<>();
+    private int[] depths = new int[0];
+    private int[] path = new int[16];
+
+    /**
+     * @param resolver returns the type registered under a class id, or {@code null} for types
+     *                 outside the analyzed input
+     */
+    public HierarchyIndex(SymbolTable symbols, IntFunction<TypeNode> resolver) {
+        this.symbols = Objects.requireNonNull(symbols, "symbols cannot be null");
+        this.resolver = Objects.requireNonNull(resolver, "resolver cannot be null");
+        this.objectId = symbols.classId("java/lang/Object");
+    }
+
+    /**
+     * Inheritance depth of {@code type}. The type does not have to be the one the resolver
+     * returns for its id, which matters for shadowed duplicate entries.
+     */
+    public int depth(TypeNode type) {
+        if (resolver.apply(type.nameId()) == type) {
+            return depth(type.nameId());
+        }
+        int superId = type.superNameId();
+        return superId == SymbolTable.NO_ID || superId == objectId ? 1 : 1 + depth(superId);
+    }
+
+    /**
+     * Inheritance depth of the type registered under a class id; {@code 1} for unknown types.
+     */
+    public int depth(int nameId) {
+        if (nameId < depths.length && depths[nameId] > 0) {
+            return depths[nameId];
+        }
+
+        // Walk up until a memoized, unknown or root type is reached, then assign depths top-down
+        int length = 0;
+        int current = nameId;
+        int base;
+        while (true) {
+            ensureCapacity(current);
+            int memoized = depths[current];
+            if (memoized > 0) {
+                base = memoized;
+                break;
+            }
+            if (memoized == ON_PATH) {
+                base = markCycle(length, current);
+                break;
+            }
+            TypeNode node = resolver.apply(current);
+            if (node == null) {
+                if (length == 0) {
+                    return 1;
+                }
+                base = 1;
+                break;
+            }
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = current;
+            depths[current] = ON_PATH;
+            int superId = node.superNameId();
+            if (superId == SymbolTable.NO_ID || superId == objectId) {
+                base = 0;
+                break;
+            }
+            current = superId;
+        }
+
+        int depth = base;
+        for (int i = length - 1; i >= 0; i--) {
+            int type = path[i];
+            if (depths[type] > 0) {
+                depth = depths[type];
+                continue;
+            }
+            depths[type] = ++depth;
+        }
+        return depths[nameId];
+    }
+
+    /**
+     * Superclass cycles found so far, each listed from the type where the walk entered it.
+     */
+    public List<List<String>> getCycles() {
+        return Collections.unmodifiableList(cycles);
+    }
+
+    private void ensureCapacity(int nameId) {
+        if (nameId >= depths.length) {
+            depths = Arrays.copyOf(depths, Math.max(nameId + 1, Math.max(16, depths.length * 2)));
+        }
+    }
+
+    private int markCycle(int length, int entry) {
+        int start = length - 1;
+        while (path[start] != entry) {
+            start--;
+        }
+        int size = length - start;
+        List<String> cycle = new ArrayList<>(size);
+        for (int i = start; i < length; i++) {
+            depths[path[i]] = size;
+            cycle.add(symbols.className(path[i]));
+        }
+        cycles.add(List.copyOf(cycle));
+        return size;
+    }
+}
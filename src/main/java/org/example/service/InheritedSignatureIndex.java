@@ -0,0 +1,262 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+import org.example.model.TypeNode;
+import org.example.util.PersistentIntSet;
+import org.example.util.SymbolTable;
+
+/**
+ * Memoized sets of method signature ids visible to a type through inheritance.
+ *
+ * <p>{@link #fromSuperClass} is everything a class inherits through a superclass: the superclass's
+ * own methods, its superclass chain and all of their superinterfaces. {@link #fromInterface} is an
+ * interface's own methods plus those of all its superinterfaces. Both are computed once per
+ * ancestor and shared by all descendants as {@link PersistentIntSet}s, so siblings with common
+ * ancestors no longer repeat the walk.
+ *
+ * <p>The walk is a post-order traversal over an explicit stack, so arbitrarily deep hierarchies do
+ * not grow the thread stack; the stack never holds a type twice per kind of lookup. Types on a
+ * cycle, which only occurs in malformed or obfuscated input, all see the same signatures: the union
+ * of the whole strongly connected component. Components are found Tarjan-style during the walk and
+ * memoized only once complete, so no member keeps the partial set it had when the walk first left
+ * it, and results do not depend on which type is looked up first. Interface cycles are recorded in
+ * {@link #getCycles()}; superclass cycles are left to {@link HierarchyIndex}.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public class InheritedSignatureIndex {
+    private static final int FINISHED = -1;
+
+    private final SymbolTable symbols;
+    private final IntFunction<TypeNode> resolver;
+    private final int objectId;
+    private final List<List<String>> cycles = new ArrayList<>();
+    private PersistentIntSet[] superClassSignatures = new PersistentIntSet[0];
+    private PersistentIntSet[] interfaceSignatures = new PersistentIntSet[0];
+    private final BitSet superClassesInProgress = new BitSet();
+    private final BitSet interfacesInProgress = new BitSet();
+    // Discovery order of the types in progress, and those finished but waiting for their component
+    private int[] superClassOrder = new int[0];
+    private int[] interfaceOrder = new int[0];
+    private int discovered;
+    private int[] pending = new int[16];
+    private int pendingCount;
+
+    // Explicit traversal stack, one frame per type being computed
+    private TypeNode[] frameTypes = new TypeNode[16];
+    private boolean[] frameSuperClass = new boolean[16];
+    private int[] frameSteps = new int[16];
+    private int[] frameLowLinks = new int[16];
+    private PersistentIntSet[] frameResults = new PersistentIntSet[16];
+    private int frames;
+
+    /**
+     * @param resolver returns the type registered under a class id, or {@code null} for types
+     *                 outside the analyzed input
+     */
+    public InheritedSignatureIndex(SymbolTable symbols, IntFunction<TypeNode> resolver) {
+        this.symbols = Objects.requireNonNull(symbols, "symbols cannot be null");
+        this.resolver = Objects.requireNonNull(resolver, "resolver cannot be null");
+        this.objectId = symbols.classId("java/lang/Object");
+    }
+
+    /**
+     * Signatures inherited by a class whose superclass has id {@code superClassId}.
+     */
+    public PersistentIntSet fromSuperClass(int superClassId) {
+        return compute(true, superClassId);
+    }
+
+    /**
+     * Signatures declared by the interface with id {@code interfaceId} and all of its
+     * superinterfaces.
+     */
+    public PersistentIntSet fromInterface(int interfaceId) {
+        return compute(false, interfaceId);
+    }
+
+    /**
+     * Interface cycles found so far, each listed from the interface where the walk entered it.
+     */
+    public List<List<String>> getCycles() {
+        return Collections.unmodifiableList(cycles);
+    }
+
+    private PersistentIntSet compute(boolean superClass, int id) {
+        PersistentIntSet known = lookupOrPush(superClass, id);
+        if (known != null) {
+            return known;
+        }
+
+        PersistentIntSet result = null;
+        while (frames > 0) {
+            int top = frames - 1;
+            if (result != null) {
+                // A dependency of the top frame has just been resolved
+                frameResults[top] = frameResults[top] == null ? result : frameResults[top].union(result);
+                result = null;
+            }
+            TypeNode type = frameTypes[top];
+            int step = frameSteps[top]++;
+            int dependency = dependency(frameSuperClass[top], type, step);
+            if (dependency != FINISHED) {
+                // Superclass frames depend on the superclass's own chain first, then on its interfaces
+                boolean dependsOnSuperClass = frameSuperClass[top] && step == 0;
+                result = lookupOrPush(dependsOnSuperClass, dependency);
+                continue;
+            }
+            result = pop();
+        }
+        return result;
+    }
+
+    /**
+     * Id of the next type the frame needs, or {@link #FINISHED} once all have been folded in.
+     */
+    private static int dependency(boolean superClass, TypeNode type, int step) {
+        if (superClass) {
+            return switch (step) {
+                case 0 -> type.superNameId();
+                case 1 -> type.nameId();
+                default -> FINISHED;
+            };
+        }
+        int[] interfaces = type.interfaceIds();
+        return step < interfaces.length ? interfaces[step] : FINISHED;
+    }
+
+    /**
+     * Returns the answer if it is already known, or pushes a frame computing it and returns
+     * {@code null}.
+     */
+    private PersistentIntSet lookupOrPush(boolean superClass, int id) {
+        if (id == SymbolTable.NO_ID || (superClass && id == objectId)) {
+            return PersistentIntSet.EMPTY;
+        }
+        PersistentIntSet[] memo = superClass
+                ? (superClassSignatures = ensureCapacity(superClassSignatures, id))
+                : (interfaceSignatures = ensureCapacity(interfaceSignatures, id));
+        if (memo[id] != null) {
+            return memo[id];
+        }
+        TypeNode type = resolver.apply(id);
+        if (type == null) {
+            return PersistentIntSet.EMPTY;
+        }
+        BitSet inProgress = superClass ? superClassesInProgress : interfacesInProgress;
+        if (inProgress.get(id)) {
+            // A cycle: the requesting frame is in the same component as the type, whose
+            // signatures reach the whole component once it is resolved
+            int order = superClass ? superClassOrder[id] : interfaceOrder[id];
+            frameLowLinks[frames - 1] = Math.min(frameLowLinks[frames - 1], order);
+            if (!superClass) {
+                recordCycle(id);
+            }
+            return PersistentIntSet.EMPTY;
+        }
+        inProgress.set(id);
+        int order = discovered++;
+        if (superClass) {
+            (superClassOrder = ensureCapacity(superClassOrder, id))[id] = order;
+        } else {
+            (interfaceOrder = ensureCapacity(interfaceOrder, id))[id] = order;
+        }
+        push(superClass, type, order);
+        return null;
+    }
+
+    private void push(boolean superClass, TypeNode type, int order) {
+        if (frames == frameTypes.length) {
+            int capacity = frames * 2;
+            frameTypes = Arrays.copyOf(frameTypes, capacity);
+            frameSuperClass = Arrays.copyOf(frameSuperClass, capacity);
+            frameSteps = Arrays.copyOf(frameSteps, capacity);
+            frameLowLinks = Arrays.copyOf(frameLowLinks, capacity);
+            frameResults = Arrays.copyOf(frameResults, capacity);
+        }
+        frameTypes[frames] = type;
+        frameSuperClass[frames] = superClass;
+        frameSteps[frames] = 0;
+        frameLowLinks[frames] = order;
+        frameResults[frames] = null;
+        frames++;
+    }
+
+    private PersistentIntSet pop() {
+        int top = --frames;
+        TypeNode type = frameTypes[top];
+        boolean superClass = frameSuperClass[top];
+        int lowLink = frameLowLinks[top];
+        PersistentIntSet result = frameResults[top] == null ? PersistentIntSet.EMPTY : frameResults[top];
+        if (!superClass) {
+            result = result.withAll(type.methodIds());
+        }
+        frameTypes[top] = null;
+        frameResults[top] = null;
+
+        int id = type.nameId();
+        if (lowLink < (superClass ? superClassOrder[id] : interfaceOrder[id])) {
+            // Part of a component rooted further down the stack, which the caller also belongs to:
+            // the result flows into the root, and the member is memoized along with it
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = id << 1 | (superClass ? 1 : 0);
+            frameLowLinks[top - 1] = Math.min(frameLowLinks[top - 1], lowLink);
+            return result;
+        }
+        finish(superClass, id, result);
+        while (pendingCount > 0) {
+            int member = pending[pendingCount - 1];
+            int memberId = member >>> 1;
+            boolean memberSuperClass = (member & 1) != 0;
+            if ((memberSuperClass ? superClassOrder[memberId] : interfaceOrder[memberId]) < lowLink) {
+                break;
+            }
+            pendingCount--;
+            finish(memberSuperClass, memberId, result);
+        }
+        return result;
+    }
+
+    private void finish(boolean superClass, int id, PersistentIntSet result) {
+        if (superClass) {
+            superClassesInProgress.clear(id);
+            superClassSignatures[id] = result;
+        } else {
+            interfacesInProgress.clear(id);
+            interfaceSignatures[id] = result;
+        }
+    }
+
+    private void recordCycle(int entryId) {
+        int start = frames - 1;
+        while (start >= 0 && (frameSuperClass[start] || frameTypes[start].nameId() != entryId)) {
+            start--;
+        }
+        if (start < 0) {
+            // Entered through a finished member of the component, whose cycle has been recorded
+            return;
+        }
+        List<String> cycle = new ArrayList<>(frames - start);
+        for (int i = start; i < frames; i++) {
+            cycle.add(symbols.className(frameTypes[i].nameId()));
+        }
+        cycles.add(List.copyOf(cycle));
+    }
+
+    private static PersistentIntSet[] ensureCapacity(PersistentIntSet[] sets, int id) {
+        return id < sets.length ? sets : Arrays.copyOf(sets, Math.max(id + 1, sets.length * 2));
+    }
+
+    private static int[] ensureCapacity(int[] orders, int id) {
+        return id < orders.length ? orders : Arrays.copyOf(orders, Math.max(id + 1, orders.length * 2));
+    }
+}
@@ -1,56 +1,653 @@
 package org.example.service;
 
 import org.example.model.ClassInfo;
+import org.example.model.ClassReport.MethodReport;
+import org.example.model.Metric;
+import org.example.plugin.MetricPlugins;
+import org.example.util.ClassFileHeader;
+import org.example.util.ClassFileScanner;
+import org.example.util.MappedZipFile;
+import org.example.util.SymbolTable;
 import org.example.visitor.ClassInfoVisitor;
+import org.example.visitor.ClassReportVisitor;
 import org.objectweb.asm.ClassReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 public class JarProcessor {
     private static final Logger log = LoggerFactory.getLogger(JarProcessor.class);
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+    private static final int MEMBER_PARSING_OPTIONS = ClassReader.SKIP_CODE | PARSING_OPTIONS;
+    private static final int DETAIL_CHUNK_SIZE = 1024;
+
+    /**
+     * How class bytes are read from the archive.
+     */
+    public enum Ingestion {
+        /** {@link JarFile} with one inflater stream per entry. */
+        JAR_FILE,
+        /** {@link MappedZipFile}: memory-mapped archive, per-thread inflate buffers. */
+        MAPPED
+    }
+
+    /**
+     * What turns class bytes into a {@link ClassInfo} at the {@link ParseLevel#MEMBERS} and
+     * {@link ParseLevel#CODE} levels. Both give the same result. Metric plugins are fed visitor
+     * events, so with plugins classes are always parsed with {@link #ASM}.
+     */
+    public enum Engine {
+        /** {@link ClassReader} driving {@link ClassInfoVisitor}. */
+        ASM,
+        /** {@link ClassFileScanner}: one linear pass over the bytes, no visitor events. */
+        SCANNER
+    }
+
+    /**
+     * How much of each class file is parsed, from cheapest to most expensive. Each level yields
+     * everything the previous one does.
+     */
+    public enum ParseLevel {
+        /**
+         * Name, superclass, interfaces and access flags, read by {@link ClassFileHeader} without
+         * looking at fields or methods.
+         */
+        HEADER,
+        /** Also field and method declarations, with {@link ClassReader#SKIP_CODE}. */
+        MEMBERS,
+        /** Also every method body, for the ABC counts. */
+        CODE;
+
+        /**
+         * The cheapest level that provides everything {@code metrics} need.
+         */
+        public static ParseLevel forMetrics(Set<Metric> metrics) {
+            if (metrics.contains(Metric.ABC)) {
+                return CODE;
+            }
+            if (metrics.contains(Metric.OVERRIDES) || metrics.contains(Metric.FIELDS)) {
+                return MEMBERS;
+            }
+            return HEADER;
+        }
+
+        public boolean covers(ParseLevel other) {
+            return compareTo(other) >= 0;
+        }
+    }
+
+    private final int parallelism;
+    private final Ingestion ingestion;
+    private final ClassInfoCache cache;
+    private final ParseLevel parseLevel;
+    private final Engine engine;
+    private final MetricPlugins plugins;
+
+    public JarProcessor() {
+        this(1);
+    }
+
+    /**
+     * @param parallelism number of worker threads used to read and parse class entries;
+     *                    {@code 1} keeps everything on the calling thread
+     */
+    public JarProcessor(int parallelism) {
+        this(parallelism, Ingestion.JAR_FILE);
+    }
+
+    public JarProcessor(int parallelism, Ingestion ingestion) {
+        this(parallelism, ingestion, null);
+    }
+
+    /**
+     * @param cache per-class cache consulted before parsing an entry, or {@code null} to always
+     *              parse; saving it is left to the caller
+     */
+    public JarProcessor(int parallelism, Ingestion ingestion, ClassInfoCache cache) {
+        this(parallelism, ingestion, cache, ParseLevel.CODE);
+    }
+
+    /**
+     * @param parseLevel how much of each class to parse; classes below {@link ParseLevel#CODE}
+     *                   have no ABC counts, and below {@link ParseLevel#MEMBERS} no fields or
+     *                   methods either. Cache hits may carry more than was asked for, and only
+     *                   fully parsed classes are stored.
+     */
+    public JarProcessor(int parallelism, Ingestion ingestion, ClassInfoCache cache, ParseLevel parseLevel) {
+        this(parallelism, ingestion, cache, parseLevel, Engine.ASM);
+    }
+
+    public JarProcessor(int parallelism, Ingestion ingestion, ClassInfoCache cache, ParseLevel parseLevel, Engine engine) {
+        this(parallelism, ingestion, cache, parseLevel, engine, MetricPlugins.none());
+    }
+
+    /**
+     * @param plugins metric plugins run in the same pass as the built-in visitors; their results
+     *                are attached to every parsed {@link ClassInfo}. The cache is not consulted
+     *                when there are any, since it does not keep plugin results.
+     * @throws IllegalArgumentException if {@code parseLevel} is too low for one of the plugins
+     */
+    public JarProcessor(
+            int parallelism,
+            Ingestion ingestion,
+            ClassInfoCache cache,
+            ParseLevel parseLevel,
+            Engine engine,
+            MetricPlugins plugins
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.ingestion = Objects.requireNonNull(ingestion, "ingestion cannot be null");
+        this.cache = cache;
+        this.parseLevel = Objects.requireNonNull(parseLevel, "parseLevel cannot be null");
+        this.engine = Objects.requireNonNull(engine, "engine cannot be null");
+        this.plugins = Objects.requireNonNull(plugins, "plugins cannot be null");
+        if (!parseLevel.covers(plugins.parseLevel())) {
+            throw new IllegalArgumentException("Parse level " + parseLevel + " is too low for plugins " + plugins
+                    + ", which need " + plugins.parseLevel());
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public Ingestion getIngestion() {
+        return ingestion;
+    }
+
+    public ClassInfoCache getCache() {
+        return cache;
+    }
+
+    public ParseLevel getParseLevel() {
+        return parseLevel;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public MetricPlugins getPlugins() {
+        return plugins;
+    }
 
     public List<ClassInfo> process(Path jarPath) throws IOException {
-        List<ClassInfo> classes = new ArrayList<>();
+        List<ClassInfo> classes = process(jarPath, new SymbolTable(), ArrayList::new, List::add, List::addAll);
+
+        log.info("Processed {} classes from {}", classes.size(), jarPath.getFileName());
+        return classes;
+    }
+
+    /**
+     * Streams every parsed class into a mutable container instead of collecting a list, with the
+     * same contract as {@link java.util.stream.Stream#collect(Supplier, BiConsumer, BiConsumer)}:
+     * each worker fills its own container and containers are combined in entry order. Names and
+     * signatures of all parsed classes are interned into {@code symbols}.
+     */
+    public <R> R process(
+            Path jarPath,
+            SymbolTable symbols,
+            Supplier<R> supplier,
+            BiConsumer<R, ? super ClassInfo> accumulator,
+            BiConsumer<R, R> combiner
+    ) throws IOException {
+        Collector<R> collector = new Collector<>(symbols, supplier, accumulator, combiner);
+        return switch (ingestion) {
+            case JAR_FILE -> processJarFile(jarPath, collector);
+            case MAPPED -> processMapped(jarPath, collector);
+        };
+    }
+
+    /**
+     * Processes a fat jar whose libraries are packed as nested jars, such as a Spring Boot
+     * {@code BOOT-INF/lib/*.jar} layout. Every {@code .jar} entry of the outer archive is read in
+     * place: STORED inner jars are used as views into the mapped outer file, DEFLATED ones are
+     * inflated into memory, and nothing is extracted to disk. Inner jars are processed
+     * concurrently and each gets its own container; the outer archive's own classes, including
+     * {@code BOOT-INF/classes}, go into {@link NestedArchives#outer()}.
+     *
+     * <p>The outer archive is always read through {@link MappedZipFile}, whatever the configured
+     * {@link Ingestion}. Jars nested inside inner jars are not descended into.
+     */
+    public <R> NestedArchives<R> processNested(
+            Path jarPath,
+            SymbolTable symbols,
+            Supplier<R> supplier,
+            BiConsumer<R, ? super ClassInfo> accumulator,
+            BiConsumer<R, R> combiner
+    ) throws IOException {
+        try (MappedZipFile outer = MappedZipFile.open(jarPath)) {
+            return processNested(outer, new Collector<>(symbols, supplier, accumulator, combiner));
+        }
+    }
+
+    /**
+     * Same as {@link #processNested(Path, SymbolTable, Supplier, BiConsumer, BiConsumer)} for an
+     * outer archive that is already in memory.
+     */
+    public <R> NestedArchives<R> processNested(
+            String archiveName,
+            ByteBuffer archive,
+            SymbolTable symbols,
+            Supplier<R> supplier,
+            BiConsumer<R, ? super ClassInfo> accumulator,
+            BiConsumer<R, R> combiner
+    ) throws IOException {
+        return processNested(MappedZipFile.of(archiveName, archive), new Collector<>(symbols, supplier, accumulator, combiner));
+    }
+
+    private <R> NestedArchives<R> processNested(MappedZipFile outer, Collector<R> collector) throws IOException {
+        List<MappedZipFile> archives = new ArrayList<>();
+        archives.add(outer);
+        for (MappedZipFile.Entry entry : outer.entries()) {
+            if (isNestedJar(entry)) {
+                MappedZipFile inner = openNested(outer, entry);
+                if (inner != null) {
+                    archives.add(inner);
+                }
+            }
+        }
+
+        List<R> results = parallelism == 1
+                ? collectArchives(archives, collector)
+                : runInPool(outer.getName(), () -> collectArchives(archives, collector));
 
+        Map<String, R> nested = new LinkedHashMap<>();
+        for (int i = 1; i < archives.size(); i++) {
+            nested.put(archives.get(i).getName(), results.get(i));
+        }
+        log.info("Processed {} nested jars from {}", nested.size(), outer.getName());
+        return new NestedArchives<>(results.get(0), Collections.unmodifiableMap(nested));
+    }
+
+    private <R> List<R> collectArchives(List<MappedZipFile> archives, Collector<R> collector) {
+        return (parallelism == 1 ? archives.stream() : archives.parallelStream())
+                .map(archive -> {
+                    List<MappedZipFile.Entry> classEntries = new ArrayList<>();
+                    for (MappedZipFile.Entry entry : archive.entries()) {
+                        if (isClassFile(entry)) {
+                            classEntries.add(entry);
+                        }
+                    }
+                    return collect(classEntries, entry -> processClassEntry(archive, entry, collector.symbols()), collector);
+                })
+                .toList();
+    }
+
+    private MappedZipFile openNested(MappedZipFile outer, MappedZipFile.Entry entry) {
+        try {
+            // read() reuses a thread-local buffer, so an inflated archive is inflated into its own array
+            ByteBuffer data = entry.method() == MappedZipFile.STORED
+                    ? outer.entryData(entry)
+                    : ByteBuffer.wrap(outer.readAllBytes(entry));
+            return MappedZipFile.of(entry.name(), data);
+        } catch (IOException e) {
+            log.error("Failed to open nested jar: {}", entry.name(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Same as {@link #process(Path, SymbolTable, Supplier, BiConsumer, BiConsumer)} for an archive
+     * that is already in memory, e.g. downloaded or produced by a build step. The buffer's
+     * position and limit delimit the archive; it is read in place regardless of {@link Ingestion}.
+     */
+    public <R> R process(
+            String archiveName,
+            ByteBuffer archive,
+            SymbolTable symbols,
+            Supplier<R> supplier,
+            BiConsumer<R, ? super ClassInfo> accumulator,
+            BiConsumer<R, R> combiner
+    ) throws IOException {
+        Collector<R> collector = new Collector<>(symbols, supplier, accumulator, combiner);
+        return processMapped(MappedZipFile.of(archiveName, archive), collector);
+    }
+
+    /**
+     * Parses every class again, this time keeping the ABC counts of each method, and hands them
+     * to {@code sink} one class at a time in jar entry order. Entries are parsed in chunks of
+     * {@value #DETAIL_CHUNK_SIZE}, in parallel when configured, so only one chunk is ever held in
+     * memory no matter how large the jar is. The cache is not consulted, and the
+     * {@link ParseLevel}, {@link Engine} and plugins are ignored: method bodies are always
+     * visited with ASM.
+     * With more than one worker, {@code sink} runs on a pool thread, but never
+     * concurrently.
+     */
+    public void processDetailed(
+            Path jarPath,
+            SymbolTable symbols,
+            BiConsumer<ClassInfo, List<MethodReport>> sink
+    ) throws IOException {
+        switch (ingestion) {
+            case JAR_FILE -> {
+                try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+                    List<JarEntry> classEntries = new ArrayList<>();
+                    Enumeration<JarEntry> entries = jarFile.entries();
+                    while (entries.hasMoreElements()) {
+                        JarEntry entry = entries.nextElement();
+                        if (isClassFile(entry)) {
+                            classEntries.add(entry);
+                        }
+                    }
+                    parseDetailed(jarPath.toString(), classEntries, entry -> parseDetailed(entry.getName(), symbols, () -> {
+                        try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                            byte[] bytes = inputStream.readAllBytes();
+                            return new MappedZipFile.Bytes(bytes, 0, bytes.length);
+                        }
+                    }), sink);
+                }
+            }
+            case MAPPED -> {
+                try (MappedZipFile zipFile = MappedZipFile.open(jarPath)) {
+                    processDetailed(zipFile, symbols, sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #processDetailed(Path, SymbolTable, BiConsumer)} for an archive that is
+     * already in memory.
+     */
+    public void processDetailed(
+            String archiveName,
+            ByteBuffer archive,
+            SymbolTable symbols,
+            BiConsumer<ClassInfo, List<MethodReport>> sink
+    ) throws IOException {
+        processDetailed(MappedZipFile.of(archiveName, archive), symbols, sink);
+    }
+
+    private void processDetailed(
+            MappedZipFile zipFile,
+            SymbolTable symbols,
+            BiConsumer<ClassInfo, List<MethodReport>> sink
+    ) throws IOException {
+        List<MappedZipFile.Entry> classEntries = new ArrayList<>();
+        for (MappedZipFile.Entry entry : zipFile.entries()) {
+            if (isClassFile(entry)) {
+                classEntries.add(entry);
+            }
+        }
+        parseDetailed(zipFile.getName(), classEntries, entry -> parseDetailed(entry.name(), symbols, () -> {
+            return zipFile.read(entry);
+        }), sink);
+    }
+
+    private <E> void parseDetailed(
+            String archiveName,
+            List<E> entries,
+            Function<E, ClassReportVisitor> parser,
+            BiConsumer<ClassInfo, List<MethodReport>> sink
+    ) throws IOException {
+        if (parallelism == 1) {
+            emitDetailed(entries, parser, sink);
+            return;
+        }
+        runInPool(archiveName, () -> {
+            emitDetailed(entries, parser, sink);
+            return null;
+        });
+    }
+
+    private <E> void emitDetailed(
+            List<E> entries,
+            Function<E, ClassReportVisitor> parser,
+            BiConsumer<ClassInfo, List<MethodReport>> sink
+    ) {
+        for (int from = 0; from < entries.size(); from += DETAIL_CHUNK_SIZE) {
+            List<E> chunk = entries.subList(from, Math.min(from + DETAIL_CHUNK_SIZE, entries.size()));
+            List<ClassReportVisitor> parsed = parallelism == 1
+                    ? chunk.stream().map(parser).toList()
+                    : chunk.parallelStream().map(parser).toList();
+            for (ClassReportVisitor visitor : parsed) {
+                if (visitor != null) {
+                    sink.accept(visitor.getClassInfo(), visitor.getMethodReports());
+                }
+            }
+        }
+    }
+
+    private ClassReportVisitor parseDetailed(String entryName, SymbolTable symbols, ClassBytesSource source) {
+        try {
+            MappedZipFile.Bytes bytes = source.open();
+            ClassReportVisitor visitor = new ClassReportVisitor(symbols);
+            new ClassReader(bytes.array(), bytes.offset(), bytes.length()).accept(visitor, PARSING_OPTIONS);
+            return visitor;
+        } catch (Exception e) {
+            log.error("Failed to process class: {}", entryName, e);
+            return null;
+        }
+    }
+
+    private <R> R processJarFile(Path jarPath, Collector<R> collector) throws IOException {
         try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+            List<JarEntry> classEntries = new ArrayList<>();
             Enumeration<JarEntry> entries = jarFile.entries();
             while (entries.hasMoreElements()) {
                 JarEntry entry = entries.nextElement();
                 if (isClassFile(entry)) {
-                    ClassInfo classInfo = processClassEntry(jarFile, entry);
-                    if (classInfo != null) {
-                        classes.add(classInfo);
-                    }
+                    classEntries.add(entry);
                 }
             }
+            return parseAll(jarPath.toString(), classEntries, entry -> processClassEntry(jarFile, entry, collector.symbols()), collector);
         }
+    }
 
-        log.info("Processed {} classes from {}", classes.size(), jarPath.getFileName());
-        return classes;
+    private <R> R processMapped(Path jarPath, Collector<R> collector) throws IOException {
+        try (MappedZipFile zipFile = MappedZipFile.open(jarPath)) {
+            return processMapped(zipFile, collector);
+        }
+    }
+
+    private <R> R processMapped(MappedZipFile zipFile, Collector<R> collector) throws IOException {
+        List<MappedZipFile.Entry> classEntries = new ArrayList<>();
+        for (MappedZipFile.Entry entry : zipFile.entries()) {
+            if (isClassFile(entry)) {
+                classEntries.add(entry);
+            }
+        }
+        return parseAll(zipFile.getName(), classEntries, entry -> processClassEntry(zipFile, entry, collector.symbols()), collector);
+    }
+
+    /**
+     * Parses entries on the calling thread or, with more than one worker, on a dedicated
+     * fork-join pool. The ordered stream combines partial results in jar entry order, so the
+     * outcome is identical in both cases.
+     */
+    private <E, R> R parseAll(
+            String archiveName,
+            List<E> entries,
+            Function<E, ClassInfo> parser,
+            Collector<R> collector
+    ) throws IOException {
+        if (parallelism == 1) {
+            return collect(entries, parser, collector);
+        }
+        return runInPool(archiveName, () -> collect(entries, parser, collector));
+    }
+
+    /**
+     * Parses entries sequentially or, when called from a worker of the processing pool, as an
+     * ordered parallel stream on that pool.
+     */
+    private <E, R> R collect(List<E> entries, Function<E, ClassInfo> parser, Collector<R> collector) {
+        if (parallelism == 1) {
+            R result = collector.supplier().get();
+            for (E entry : entries) {
+                ClassInfo classInfo = parser.apply(entry);
+                if (classInfo != null) {
+                    collector.accumulator().accept(result, classInfo);
+                }
+            }
+            return result;
+        }
+        return entries.parallelStream()
+                .map(parser)
+                .filter(Objects::nonNull)
+                .collect(collector.supplier(), collector.accumulator(), collector.combiner());
+    }
+
+    private <T> T runInPool(String archiveName, Callable<T> task) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism, Worker::new, null, false);
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing " + archiveName, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to process " + archiveName, e.getCause());
+        } finally {
+            pool.shutdown();
+        }
     }
 
     private boolean isClassFile(JarEntry entry) {
         return !entry.isDirectory() && entry.getName().endsWith(".class");
     }
 
-    private ClassInfo processClassEntry(JarFile jarFile, JarEntry entry) {
-        try (InputStream inputStream = jarFile.getInputStream(entry)) {
-            ClassReader classReader = new ClassReader(inputStream);
-            ClassInfoVisitor collector = new ClassInfoVisitor();
-            classReader.accept(collector, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
-            return collector.getClassInfo();
+    private boolean isClassFile(MappedZipFile.Entry entry) {
+        return !entry.isDirectory() && entry.name().endsWith(".class");
+    }
+
+    private boolean isNestedJar(MappedZipFile.Entry entry) {
+        return !entry.isDirectory() && entry.name().endsWith(".jar");
+    }
+
+    private ClassInfo processClassEntry(JarFile jarFile, JarEntry entry, SymbolTable symbols) {
+        try {
+            return parseCached(entry.getName(), entry.getCrc(), entry.getSize(), symbols, () -> {
+                try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                    byte[] bytes = inputStream.readAllBytes();
+                    return new MappedZipFile.Bytes(bytes, 0, bytes.length);
+                }
+            });
         } catch (Exception e) {
             log.error("Failed to process class: {}", entry.getName(), e);
             return null;
         }
     }
+
+    private ClassInfo processClassEntry(MappedZipFile zipFile, MappedZipFile.Entry entry, SymbolTable symbols) {
+        try {
+            return parseCached(entry.name(), entry.crc(), entry.size(), symbols, () -> zipFile.read(entry));
+        } catch (Exception e) {
+            log.error("Failed to process class: {}", entry.name(), e);
+            return null;
+        }
+    }
+
+    private ClassInfo parseCached(
+            String entryName,
+            long crc,
+            long size,
+            SymbolTable symbols,
+            ClassBytesSource source
+    ) throws IOException {
+        if (cache == null || crc < 0 || size < 0 || !plugins.isEmpty()) {
+            return parseClass(source.open(), symbols);
+        }
+
+        ClassInfo cached = cache.lookup(entryName, crc, size, symbols);
+        if (cached != null) {
+            return cached;
+        }
+        if (parseLevel != ParseLevel.CODE) {
+            // a partial parse would be served to later runs that need the whole class
+            return parseClass(source.open(), symbols);
+        }
+        long start = System.nanoTime();
+        ClassInfo parsed = parseClass(source.open(), symbols);
+        cache.store(entryName, crc, size, parsed, System.nanoTime() - start);
+        return parsed;
+    }
+
+    private ClassInfo parseClass(MappedZipFile.Bytes bytes, SymbolTable symbols) {
+        if (parseLevel == ParseLevel.HEADER) {
+            ClassFileHeader header = ClassFileHeader.parse(bytes.array(), bytes.offset(), bytes.length());
+            if (!plugins.isEmpty()) {
+                // header-level plugins get the class event and nothing else
+                ClassInfoVisitor collector = new ClassInfoVisitor(symbols, plugins.newAccumulators());
+                collector.visit(header.version(), header.access(), header.className(), null,
+                        header.superName(), header.interfaces());
+                collector.visitEnd();
+                return collector.getClassInfo();
+            }
+            return ClassInfo.builder(symbols)
+                    .name(header.className())
+                    .superName(header.superName())
+                    .addInterfaces(header.interfaces())
+                    .isInterface(header.isInterface())
+                    .build();
+        }
+        if (engine == Engine.SCANNER && plugins.isEmpty()) {
+            return ClassFileScanner.scan(bytes.array(), bytes.offset(), bytes.length(), symbols,
+                    parseLevel == ParseLevel.CODE);
+        }
+        ClassInfoVisitor collector = new ClassInfoVisitor(symbols, plugins.isEmpty() ? null : plugins.newAccumulators());
+        int options = parseLevel == ParseLevel.CODE ? PARSING_OPTIONS : MEMBER_PARSING_OPTIONS;
+        new ClassReader(bytes.array(), bytes.offset(), bytes.length()).accept(collector, options);
+        return collector.getClassInfo();
+    }
+
+    /**
+     * Per-archive results of {@link #processNested}: the outer jar's own classes and one container
+     * per nested jar, keyed by entry name in central directory order.
+     */
+    public record NestedArchives<R>(R outer, Map<String, R> nested) {
+    }
+
+    @FunctionalInterface
+    private interface ClassBytesSource {
+        MappedZipFile.Bytes open() throws IOException;
+    }
+
+    private record Collector<R>(
+            SymbolTable symbols,
+            Supplier<R> supplier,
+            BiConsumer<R, ? super ClassInfo> accumulator,
+            BiConsumer<R, R> combiner
+    ) {
+    }
+
+    /**
+     * Worker of a processing pool, which lives for one archive: it ends its inflater when the
+     * pool shuts down instead of leaving it to the garbage collector.
+     */
+    private static final class Worker extends ForkJoinWorkerThread {
+        Worker(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            MappedZipFile.releaseThreadResources();
+            super.onTermination(exception);
+        }
+    }
 }
@@ -0,0 +1,311 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import org.example.model.ABCMetrics;
+import org.example.model.ClassInfo;
+import org.example.model.MethodInfo;
+import org.example.model.MethodMetrics;
+import org.example.model.TypeNode;
+import org.example.plugin.MetricPlugins;
+import org.example.plugin.PluginAccumulators;
+import org.example.util.LogHistogram;
+import org.example.util.SymbolTable;
+import org.example.util.TopK;
+
+/**
+ * Running aggregate of parsed classes for {@link MetricsCalculator}.
+ *
+ * <p>Per-class totals (counts, fields, ABC), the fixed-size histograms of method ABC magnitudes
+ * and field counts, and the {@value #HOTSPOT_COUNT} most complex methods are folded in as
+ * classes arrive; per-method counts are not kept. For the depth and
+ * override metrics, which need the whole hierarchy, only a {@link TypeNode} skeleton is kept:
+ * super id, interface ids and the ids of inheritable method signatures. The full
+ * {@link ClassInfo} can be dropped as soon as it has been added. What metric plugins collected
+ * from each class is merged into one accumulator per plugin.
+ *
+ * <p>Accumulators are not thread-safe. Parallel workers each fill their own and combine them with
+ * {@link #merge} in encounter order; all of them must share one {@link SymbolTable}.
+ */
+public class MetricsAccumulator {
+    public static final int HOTSPOT_COUNT = 50;
+
+    private final SymbolTable symbols;
+    private final List<TypeNode> types = new ArrayList<>();
+    // built on the first lookup, so the partial accumulators of parallel workers never hold one
+    private TypeNode[] typesById;
+    private final ABCMetrics totalAbc = new ABCMetrics();
+    private final MethodStatistics methods;
+    private final LogHistogram fieldCounts = new LogHistogram(1);
+    private final PluginAccumulators plugins;
+    private int classCount;
+    private int interfaceCount;
+    private long totalFields;
+
+    public MetricsAccumulator(SymbolTable symbols) {
+        this(symbols, MetricPlugins.none());
+    }
+
+    /**
+     * @param plugins the plugins the added classes were parsed with
+     */
+    public MetricsAccumulator(SymbolTable symbols, MetricPlugins plugins) {
+        this.symbols = Objects.requireNonNull(symbols, "symbols cannot be null");
+        this.plugins = plugins.isEmpty() ? null : plugins.newAccumulators();
+        this.methods = new MethodStatistics(symbols);
+    }
+
+    public void add(ClassInfo classInfo) {
+        if (classInfo.getSymbols() != symbols) {
+            throw new IllegalArgumentException("Class " + classInfo.getName() + " uses a different symbol table");
+        }
+        if (classInfo.isInterface()) {
+            interfaceCount++;
+        } else {
+            classCount++;
+        }
+        totalFields += classInfo.getFieldCount();
+        totalAbc.add(classInfo.getAbcMetrics());
+        methods.add(classInfo);
+        fieldCounts.record(classInfo.getFieldCount());
+        if (classInfo.getPluginAccumulators() != null) {
+            requirePlugins(classInfo.getPluginAccumulators()).merge(classInfo.getPluginAccumulators());
+        }
+
+        types.add(TypeNode.of(classInfo));
+        typesById = null;
+    }
+
+    /**
+     * Appends everything accumulated by {@code other}, which must come after this accumulator in
+     * entry order. On duplicate class names the later entry wins, as in the sequential path.
+     */
+    public void merge(MetricsAccumulator other) {
+        if (other.symbols != symbols) {
+            throw new IllegalArgumentException("Cannot merge accumulators with different symbol tables");
+        }
+        classCount += other.classCount;
+        interfaceCount += other.interfaceCount;
+        totalFields += other.totalFields;
+        totalAbc.add(other.totalAbc);
+        methods.merge(other.methods);
+        fieldCounts.merge(other.fieldCounts);
+        if (other.plugins != null) {
+            requirePlugins(other.plugins).merge(other.plugins);
+        }
+        types.addAll(other.types);
+        typesById = null;
+    }
+
+    /**
+     * Adds the methods of classes that were added {@link ClassInfo#withoutMethodMetrics() without}
+     * their method counts.
+     */
+    public void merge(MethodStatistics methods) {
+        this.methods.merge(methods);
+    }
+
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * All added types in entry order, including shadowed duplicates.
+     */
+    public List<TypeNode> getTypes() {
+        return Collections.unmodifiableList(types);
+    }
+
+    /**
+     * The type registered under a class id, or {@code null} if it is not part of the input. Of
+     * duplicates, the last one added wins. The index is built on the first lookup after classes
+     * were added or merged, so it should be called on the final accumulator only.
+     */
+    public TypeNode getType(int nameId) {
+        TypeNode[] typesById = this.typesById;
+        if (typesById == null) {
+            this.typesById = typesById = indexTypes();
+        }
+        return nameId >= 0 && nameId < typesById.length ? typesById[nameId] : null;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public int getInterfaceCount() {
+        return interfaceCount;
+    }
+
+    public int getTypeCount() {
+        return types.size();
+    }
+
+    public long getTotalFields() {
+        return totalFields;
+    }
+
+    public ABCMetrics getTotalAbc() {
+        return totalAbc;
+    }
+
+    /**
+     * ABC magnitudes of all methods with code, to two decimals.
+     */
+    public LogHistogram getMethodAbcMagnitudes() {
+        return methods.getAbcMagnitudes();
+    }
+
+    /**
+     * Field count of every added type.
+     */
+    public LogHistogram getFieldCounts() {
+        return fieldCounts;
+    }
+
+    /**
+     * Methods with the highest ABC magnitude, highest first.
+     */
+    public List<RankedMethod> getMethodsByMagnitude() {
+        return methods.byMagnitude.toList();
+    }
+
+    public List<RankedMethod> getMethodsByBranches() {
+        return methods.byBranches.toList();
+    }
+
+    public List<RankedMethod> getMethodsByConditions() {
+        return methods.byConditions.toList();
+    }
+
+    /**
+     * Everything the plugins collected, or {@code null} if this accumulator was created without
+     * plugins.
+     */
+    public PluginAccumulators getPlugins() {
+        return plugins;
+    }
+
+    private PluginAccumulators requirePlugins(PluginAccumulators added) {
+        if (plugins == null) {
+            throw new IllegalArgumentException("Results of plugins " + added.getPlugins()
+                    + " added to an accumulator without plugins");
+        }
+        return plugins;
+    }
+
+    private TypeNode[] indexTypes() {
+        int maxId = -1;
+        for (TypeNode node : types) {
+            maxId = Math.max(maxId, node.nameId());
+        }
+        TypeNode[] index = new TypeNode[maxId + 1];
+        for (TypeNode node : types) {
+            // later duplicates overwrite earlier ones
+            index[node.nameId()] = node;
+        }
+        return index;
+    }
+
+    /**
+     * A method of the class with id {@code classId}, as kept for the hotspot lists.
+     */
+    public record RankedMethod(int classId, MethodMetrics metrics) {
+    }
+
+    /**
+     * The method-level part of an accumulator: the histogram of method ABC magnitudes and the
+     * hotspot lists. A class's method counts are folded in when the class is added and not kept,
+     * so a caller holding on to the classes themselves can keep them
+     * {@link ClassInfo#withoutMethodMetrics() without} theirs. Not thread-safe; workers each fill
+     * their own and {@link #merge} them.
+     */
+    public static final class MethodStatistics {
+        private final SymbolTable symbols;
+        private final LogHistogram abcMagnitudes = new LogHistogram(0.01);
+        private final TopK<RankedMethod> byMagnitude;
+        private final TopK<RankedMethod> byBranches;
+        private final TopK<RankedMethod> byConditions;
+
+        public MethodStatistics(SymbolTable symbols) {
+            this.symbols = Objects.requireNonNull(symbols, "symbols cannot be null");
+            // ties go to the alphabetically first method, whatever order the ids were interned in
+            Comparator<RankedMethod> byName = ((Comparator<RankedMethod>) this::compareNames).reversed();
+            this.byMagnitude = new TopK<>(HOTSPOT_COUNT,
+                    Comparator.comparingDouble((RankedMethod method) -> method.metrics().magnitude()).thenComparing(byName));
+            this.byBranches = new TopK<>(HOTSPOT_COUNT,
+                    Comparator.comparingInt((RankedMethod method) -> method.metrics().branches()).thenComparing(byName));
+            this.byConditions = new TopK<>(HOTSPOT_COUNT,
+                    Comparator.comparingInt((RankedMethod method) -> method.metrics().conditions()).thenComparing(byName));
+        }
+
+        public void add(ClassInfo classInfo) {
+            if (classInfo.getSymbols() != symbols) {
+                throw new IllegalArgumentException("Class " + classInfo.getName() + " uses a different symbol table");
+            }
+            for (MethodMetrics metrics : classInfo.getMethodMetrics()) {
+                abcMagnitudes.record(metrics.magnitude());
+                RankedMethod method = new RankedMethod(classInfo.getNameId(), metrics);
+                byMagnitude.offer(method);
+                byBranches.offer(method);
+                byConditions.offer(method);
+            }
+        }
+
+        public void merge(MethodStatistics other) {
+            if (other.symbols != symbols) {
+                throw new IllegalArgumentException("Cannot merge method statistics with different symbol tables");
+            }
+            abcMagnitudes.merge(other.abcMagnitudes);
+            byMagnitude.merge(other.byMagnitude);
+            byBranches.merge(other.byBranches);
+            byConditions.merge(other.byConditions);
+        }
+
+        public LogHistogram getAbcMagnitudes() {
+            return abcMagnitudes;
+        }
+
+        /**
+         * Orders methods by class name, then by {@code name + descriptor}, without building strings.
+         */
+        private int compareNames(RankedMethod a, RankedMethod b) {
+            if (a.classId() != b.classId()) {
+                // distinct ids are distinct names
+                return symbols.className(a.classId()).compareTo(symbols.className(b.classId()));
+            }
+            int signatureA = a.metrics().signatureId();
+            int signatureB = b.metrics().signatureId();
+            if (signatureA == signatureB) {
+                return 0;
+            }
+            return compareSignatures(symbols.signature(signatureA), symbols.signature(signatureB));
+        }
+    }
+
+    /**
+     * Compares signatures as their {@link MethodInfo#toString()} would compare. Comparing names
+     * first would not do: {@code "a$b"} sorts before {@code "a("}, but after {@code "a"}.
+     */
+    private static int compareSignatures(MethodInfo a, MethodInfo b) {
+        int lengthA = a.name().length() + a.descriptor().length();
+        int lengthB = b.name().length() + b.descriptor().length();
+        for (int i = 0, common = Math.min(lengthA, lengthB); i < common; i++) {
+            char charA = charAt(a, i);
+            char charB = charAt(b, i);
+            if (charA != charB) {
+                return charA - charB;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    private static char charAt(MethodInfo signature, int index) {
+        String name = signature.name();
+        return index < name.length() ? name.charAt(index) : signature.descriptor().charAt(index - name.length());
+    }
+}
@@ -1,175 +1,417 @@
 package org.example.service;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.IntFunction;
 
-import org.example.model.ABCMetrics;
 import org.example.model.ClassInfo;
 import org.example.model.JarAnalysisResult;
 import org.example.model.JarAnalysisResult.ABCSummary;
+import org.example.model.JarAnalysisResult.ClassHotspot;
+import org.example.model.JarAnalysisResult.Distribution;
+import org.example.model.JarAnalysisResult.Distributions;
+import org.example.model.JarAnalysisResult.Hotspots;
 import org.example.model.JarAnalysisResult.InheritanceMetrics;
+import org.example.model.JarAnalysisResult.MethodHotspot;
 import org.example.model.MethodInfo;
+import org.example.model.MethodMetrics;
+import org.example.model.Metric;
+import org.example.model.TypeNode;
+import org.example.plugin.MetricPlugins;
+import org.example.service.MetricsAccumulator.MethodStatistics;
+import org.example.service.MetricsAccumulator.RankedMethod;
+import org.example.util.LogHistogram;
+import org.example.util.PersistentIntSet;
+import org.example.util.SymbolTable;
+import org.example.util.TopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class MetricsCalculator {
-    private static final String JAVA_LANG_OBJECT = "java/lang/Object";
-    private static final Set<MethodInfo> OBJECT_METHODS = Set.of(
-            new MethodInfo("equals", "(Ljava/lang/Object;)Z"),
-            new MethodInfo("hashCode", "()I"),
-            new MethodInfo("toString", "()Ljava/lang/String;"),
-            new MethodInfo("clone", "()Ljava/lang/Object;"),
-            new MethodInfo("finalize", "()V")
+    private static final Logger log = LoggerFactory.getLogger(MetricsCalculator.class);
+    private static final List<String[]> OBJECT_METHODS = List.of(
+            new String[]{"equals", "(Ljava/lang/Object;)Z"},
+            new String[]{"hashCode", "()I"},
+            new String[]{"toString", "()Ljava/lang/String;"},
+            new String[]{"clone", "()Ljava/lang/Object;"},
+            new String[]{"finalize", "()V"}
     );
 
-    public JarAnalysisResult calculate(String jarFileName, List<ClassInfo> classes) {
-        Map<String, ClassInfo> classMap = classes.stream()
-                .collect(Collectors.toMap(
-                        ClassInfo::getName,
-                        Function.identity(),
-                        (ex, re) -> re
-                ));
+    private final ClasspathResolver classpath;
+    private final Set<Metric> metrics;
+    private final MetricPlugins plugins;
 
-        int interfaceCount = 0;
-        int classCount = 0;
-        for (ClassInfo ci : classes) {
-            if (ci.isInterface()) {
-                interfaceCount++;
-            } else {
-                classCount++;
-            }
+    public MetricsCalculator() {
+        this(null);
+    }
+
+    /**
+     * @param classpath resolves supertypes that are not part of the analyzed jar, so that depth and
+     *                  overrides account for library and JDK ancestors; {@code null} treats them
+     *                  as unknown
+     */
+    public MetricsCalculator(ClasspathResolver classpath) {
+        this(classpath, Metric.all());
+    }
+
+    /**
+     * @param metrics the metrics to compute; the others are left {@code null} in the result and
+     *                their inputs need not have been parsed
+     * @throws IllegalArgumentException if overrides are selected but {@code classpath} reads only
+     *                                  class headers
+     */
+    public MetricsCalculator(ClasspathResolver classpath, Set<Metric> metrics) {
+        this(classpath, metrics, MetricPlugins.none());
+    }
+
+    /**
+     * @param plugins the plugins classes given as a list were parsed with; accumulators bring
+     *                their own
+     */
+    public MetricsCalculator(ClasspathResolver classpath, Set<Metric> metrics, MetricPlugins plugins) {
+        this.classpath = classpath;
+        this.plugins = Objects.requireNonNull(plugins, "plugins cannot be null");
+        if (classpath != null && metrics.contains(Metric.OVERRIDES)
+                && !classpath.getParseLevel().covers(JarProcessor.ParseLevel.MEMBERS)) {
+            throw new IllegalArgumentException("Overrides need a classpath that reads method signatures");
         }
+        this.metrics = metrics.isEmpty() ? EnumSet.noneOf(Metric.class) : EnumSet.copyOf(metrics);
+    }
+
+    public Set<Metric> getMetrics() {
+        return Collections.unmodifiableSet(metrics);
+    }
 
-        int maxDepth = 0;
-        int totalDepth = 0;
+    /**
+     * Computes the result for parsed classes, all of which must have been interned into
+     * {@code symbols}.
+     */
+    public JarAnalysisResult calculate(String jarFileName, SymbolTable symbols, List<ClassInfo> classes) {
+        return calculate(jarFileName, symbols, classes, null);
+    }
+
+    /**
+     * Same as {@link #calculate(String, SymbolTable, List)} for classes whose method counts were
+     * recorded into {@code methods} while parsing and then dropped; {@code methods} may be
+     * {@code null}.
+     */
+    public JarAnalysisResult calculate(
+            String jarFileName,
+            SymbolTable symbols,
+            List<ClassInfo> classes,
+            MethodStatistics methods
+    ) {
+        MetricsAccumulator accumulator = new MetricsAccumulator(symbols, plugins);
         for (ClassInfo ci : classes) {
-            int depth = calculateInheritanceDepth(ci, classMap);
-            totalDepth += depth;
-            if (depth > maxDepth) {
-                maxDepth = depth;
-            }
+            accumulator.add(ci);
+        }
+        if (methods != null) {
+            accumulator.merge(methods);
         }
-        double avgDepth = classes.isEmpty() ? 0 : (double) totalDepth / classes.size();
+        return calculate(jarFileName, accumulator);
+    }
 
-        ABCMetrics totalAbc = new ABCMetrics();
-        for (ClassInfo ci : classes) {
-            totalAbc.add(ci.getAbcMetrics());
+    /**
+     * Computes the result from an accumulator filled during parsing, e.g. by
+     * {@link JarProcessor#process(java.nio.file.Path, SymbolTable, java.util.function.Supplier,
+     * java.util.function.BiConsumer, java.util.function.BiConsumer)}.
+     */
+    public JarAnalysisResult calculate(String jarFileName, MetricsAccumulator accumulator) {
+        return calculate(jarFileName, accumulator, null);
+    }
+
+    /**
+     * Computes the result for the types of {@code accumulator} only, resolving supertypes it does
+     * not contain from {@code context} first, e.g. the whole fat jar around one nested jar. Both
+     * must share a symbol table; {@code context} may be {@code null}.
+     */
+    public JarAnalysisResult calculate(String jarFileName, MetricsAccumulator accumulator, MetricsAccumulator context) {
+        return calculate(jarFileName, accumulator, context, null);
+    }
+
+    /**
+     * Same as {@link #calculate(String, MetricsAccumulator, MetricsAccumulator)}, with the results
+     * of the jars nested in this one; {@code nestedJars} may be {@code null}.
+     */
+    public JarAnalysisResult calculate(
+            String jarFileName,
+            MetricsAccumulator accumulator,
+            MetricsAccumulator context,
+            List<JarAnalysisResult> nestedJars
+    ) {
+        List<TypeNode> types = accumulator.getTypes();
+        SymbolTable symbols = accumulator.getSymbols();
+        TypeMetrics typeMetrics = typeMetrics(accumulator, context);
+
+        InheritanceMetrics inheritance = null;
+        Distribution depthDistribution = null;
+        List<ClassHotspot> deepestClasses = null;
+        if (metrics.contains(Metric.INHERITANCE)) {
+            int maxDepth = 0;
+            long totalDepth = 0;
+            LogHistogram depths = new LogHistogram(1);
+            TopK<RankedType> deepest = new TopK<>(MetricsAccumulator.HOTSPOT_COUNT, rankedTypeOrder(symbols));
+            for (TypeNode type : types) {
+                int depth = typeMetrics.depth(type);
+                depths.record(depth);
+                deepest.offer(new RankedType(type, depth));
+                totalDepth += depth;
+                if (depth > maxDepth) {
+                    maxDepth = depth;
+                }
+            }
+            double avgDepth = types.isEmpty() ? 0 : (double) totalDepth / types.size();
+            for (List<String> cycle : typeMetrics.hierarchy.getCycles()) {
+                log.warn("Superclass cycle in {}: {}", jarFileName, String.join(" -> ", cycle));
+            }
+            inheritance = new InheritanceMetrics(maxDepth, avgDepth);
+            depthDistribution = Distribution.from(depths);
+            deepestClasses = classHotspots(symbols, typeMetrics, deepest);
         }
 
-        int totalOverridden = 0;
-        int classesWithMethods = 0;
-        for (ClassInfo ci : classes) {
-            if (!ci.isInterface()) {
-                totalOverridden += countOverriddenMethods(ci, classMap);
-                classesWithMethods++;
+        Double avgOverridden = null;
+        Distribution overrideDistribution = null;
+        List<ClassHotspot> mostOverridingClasses = null;
+        if (metrics.contains(Metric.OVERRIDES)) {
+            long totalOverridden = 0;
+            int classesWithMethods = 0;
+            LogHistogram overrides = new LogHistogram(1);
+            TopK<RankedType> mostOverriding = new TopK<>(MetricsAccumulator.HOTSPOT_COUNT, rankedTypeOrder(symbols));
+            for (TypeNode type : types) {
+                if (!type.isInterface()) {
+                    int overridden = typeMetrics.overriddenMethods(type);
+                    overrides.record(overridden);
+                    mostOverriding.offer(new RankedType(type, overridden));
+                    totalOverridden += overridden;
+                    classesWithMethods++;
+                }
+            }
+            avgOverridden = classesWithMethods == 0 ? 0 : (double) totalOverridden / classesWithMethods;
+            for (List<String> cycle : typeMetrics.inherited.getCycles()) {
+                log.warn("Interface cycle in {}: {}", jarFileName, String.join(" -> ", cycle));
             }
+            overrideDistribution = Distribution.from(overrides);
+            mostOverridingClasses = classHotspots(symbols, typeMetrics, mostOverriding);
         }
-        double avgOverridden = classesWithMethods == 0 ? 0 : (double) totalOverridden / classesWithMethods;
 
-        int totalFields = 0;
-        for (ClassInfo ci : classes) {
-            totalFields += ci.getFieldCount();
+        Double avgFields = null;
+        Distribution fieldDistribution = null;
+        if (metrics.contains(Metric.FIELDS)) {
+            avgFields = types.isEmpty() ? 0 : (double) accumulator.getTotalFields() / types.size();
+            fieldDistribution = Distribution.from(accumulator.getFieldCounts());
         }
-        double avgFields = classes.isEmpty() ? 0 : (double) totalFields / classes.size();
 
+        boolean abc = metrics.contains(Metric.ABC);
         return new JarAnalysisResult(
                 jarFileName,
-                classCount,
-                interfaceCount,
-                new InheritanceMetrics(maxDepth, avgDepth),
-                ABCSummary.from(totalAbc),
+                accumulator.getClassCount(),
+                accumulator.getInterfaceCount(),
+                inheritance,
+                abc ? ABCSummary.from(accumulator.getTotalAbc()) : null,
                 avgOverridden,
-                avgFields
+                avgFields,
+                new Distributions(
+                        abc ? Distribution.from(accumulator.getMethodAbcMagnitudes()) : null,
+                        depthDistribution,
+                        fieldDistribution,
+                        overrideDistribution
+                ),
+                new Hotspots(
+                        abc ? methodHotspots(symbols, accumulator.getMethodsByMagnitude()) : null,
+                        abc ? methodHotspots(symbols, accumulator.getMethodsByBranches()) : null,
+                        abc ? methodHotspots(symbols, accumulator.getMethodsByConditions()) : null,
+                        deepestClasses,
+                        mostOverridingClasses
+                ),
+                accumulator.getPlugins() != null ? accumulator.getPlugins().sections() : null,
+                null,
+                nestedJars
         );
     }
 
-    private int calculateInheritanceDepth(ClassInfo classInfo, Map<String, ClassInfo> classMap) {
-        int depth = 1;
-        String current = classInfo.getSuperName();
-
-        while (current != null && !JAVA_LANG_OBJECT.equals(current)) {
-            depth++;
-            ClassInfo superClass = classMap.get(current);
-            current = (superClass != null) ? superClass.getSuperName() : null;
+    private static List<MethodHotspot> methodHotspots(SymbolTable symbols, List<RankedMethod> ranked) {
+        List<MethodHotspot> hotspots = new ArrayList<>(ranked.size());
+        for (RankedMethod method : ranked) {
+            MethodMetrics metrics = method.metrics();
+            MethodInfo signature = symbols.signature(metrics.signatureId());
+            hotspots.add(new MethodHotspot(
+                    symbols.className(method.classId()),
+                    signature.name(),
+                    signature.descriptor(),
+                    metrics.assignments(),
+                    metrics.branches(),
+                    metrics.conditions(),
+                    metrics.magnitude()
+            ));
         }
-
-        return depth;
+        return hotspots;
     }
 
-    private int countOverriddenMethods(ClassInfo classInfo, Map<String, ClassInfo> classMap) {
-        Set<MethodInfo> parentMethods = new HashSet<>(OBJECT_METHODS);
+    private List<ClassHotspot> classHotspots(SymbolTable symbols, TypeMetrics typeMetrics, TopK<RankedType> ranked) {
+        List<ClassHotspot> hotspots = new ArrayList<>();
+        for (RankedType ranking : ranked.toList()) {
+            TypeNode type = ranking.type();
+            hotspots.add(new ClassHotspot(
+                    symbols.className(type.nameId()),
+                    metrics.contains(Metric.INHERITANCE) ? typeMetrics.depth(type) : null,
+                    metrics.contains(Metric.OVERRIDES) ? typeMetrics.overriddenMethods(type) : null
+            ));
+        }
+        return hotspots;
+    }
 
-        collectMethodsFromSuperClass(classInfo.getSuperName(), classMap, parentMethods);
+    private static Comparator<RankedType> rankedTypeOrder(SymbolTable symbols) {
+        // ties go to the alphabetically first name
+        return Comparator.comparingInt(RankedType::value)
+                .thenComparing(Comparator.comparing((RankedType ranked) -> symbols.className(ranked.type().nameId())).reversed());
+    }
 
-        for (String iface : classInfo.getInterfaces()) {
-            collectMethodsFromInterface(iface, classMap, parentMethods);
-        }
+    private record RankedType(TypeNode type, int value) {
+    }
 
-        int count = 0;
-        for (MethodInfo method : classInfo.getMethods()) {
-            if (method.isConstructor() || method.isStaticInitializer()) {
-                continue;
-            }
-            if (parentMethods.contains(method)) {
-                count++;
+    /**
+     * Per-type depth and override counts over the types of {@code accumulator}, resolving
+     * supertypes the same way as {@link #calculate(String, MetricsAccumulator, MetricsAccumulator)}.
+     * {@code context} may be {@code null}.
+     */
+    public TypeMetrics typeMetrics(MetricsAccumulator accumulator, MetricsAccumulator context) {
+        IntFunction<TypeNode> resolver = accumulator::getType;
+        if (context != null) {
+            if (context.getSymbols() != accumulator.getSymbols()) {
+                throw new IllegalArgumentException("Context uses a different symbol table");
             }
+            IntFunction<TypeNode> local = resolver;
+            resolver = id -> {
+                TypeNode type = local.apply(id);
+                return type != null ? type : context.getType(id);
+            };
         }
-
-        return count;
+        if (classpath != null) {
+            resolver = new ClasspathTypes(resolver, accumulator.getSymbols(), classpath);
+        }
+        return new TypeMetrics(accumulator.getSymbols(), resolver);
     }
 
-    private void collectMethodsFromSuperClass(
-            String superClassName,
-            Map<String, ClassInfo> classMap,
-            Set<MethodInfo> result
-    ) {
-        if (superClassName == null || JAVA_LANG_OBJECT.equals(superClassName)) {
-            return;
+    /**
+     * Memoized hierarchy metrics of single types; see {@link #typeMetrics}. Not thread-safe.
+     */
+    public static final class TypeMetrics {
+        private final HierarchyIndex hierarchy;
+        private final InheritedSignatureIndex inherited;
+        private final PersistentIntSet objectMethods;
+
+        private TypeMetrics(SymbolTable symbols, IntFunction<TypeNode> resolver) {
+            this.hierarchy = new HierarchyIndex(symbols, resolver);
+            this.inherited = new InheritedSignatureIndex(symbols, resolver);
+            this.objectMethods = objectMethodIds(symbols);
         }
 
-        ClassInfo superClass = classMap.get(superClassName);
-        if (superClass == null) {
-            return;
+        public int depth(TypeNode type) {
+            return hierarchy.depth(type);
         }
 
-        for (MethodInfo method : superClass.getMethods()) {
-            if (!method.isConstructor() && !method.isStaticInitializer()) {
-                result.add(method);
+        /**
+         * Number of the type's methods that override or implement an inherited one, counting
+         * the {@code java/lang/Object} methods for all types.
+         */
+        public int overriddenMethods(TypeNode type) {
+            PersistentIntSet fromSuperClass = inherited.fromSuperClass(type.superNameId());
+            int[] interfaces = type.interfaceIds();
+            PersistentIntSet[] fromInterfaces = new PersistentIntSet[interfaces.length];
+            for (int i = 0; i < fromInterfaces.length; i++) {
+                fromInterfaces[i] = inherited.fromInterface(interfaces[i]);
             }
+
+            int count = 0;
+            for (int methodId : type.methodIds()) {
+                if (objectMethods.contains(methodId)
+                        || fromSuperClass.contains(methodId)
+                        || containsAny(fromInterfaces, methodId)) {
+                    count++;
+                }
+            }
+
+            return count;
         }
 
-        collectMethodsFromSuperClass(superClass.getSuperName(), classMap, result);
+        private static PersistentIntSet objectMethodIds(SymbolTable symbols) {
+            PersistentIntSet ids = PersistentIntSet.EMPTY;
+            for (String[] method : OBJECT_METHODS) {
+                ids = ids.with(symbols.signatureId(method[0], method[1]));
+            }
+            return ids;
+        }
 
-        for (String iface : superClass.getInterfaces()) {
-            collectMethodsFromInterface(iface, classMap, result);
+        private static boolean containsAny(PersistentIntSet[] sets, int value) {
+            for (PersistentIntSet set : sets) {
+                if (set.contains(value)) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
-    private void collectMethodsFromInterface(
-            String interfaceName,
-            Map<String, ClassInfo> classMap,
-            Set<MethodInfo> result
-    ) {
-        if (interfaceName == null) {
-            return;
-        }
+    /**
+     * Resolves ids to the analyzed types first and falls back to the classpath, converting
+     * classpath headers into {@link TypeNode}s over the analyzed symbol table on first use.
+     */
+    private static final class ClasspathTypes implements IntFunction<TypeNode> {
+        private static final TypeNode MISSING = new TypeNode(SymbolTable.NO_ID, SymbolTable.NO_ID, new int[0], false, new int[0]);
 
-        ClassInfo iface = classMap.get(interfaceName);
-        if (iface == null) {
-            return;
+        private final IntFunction<TypeNode> analyzed;
+        private final SymbolTable symbols;
+        private final ClasspathResolver classpath;
+        private TypeNode[] resolved = new TypeNode[0];
+
+        private ClasspathTypes(IntFunction<TypeNode> analyzed, SymbolTable symbols, ClasspathResolver classpath) {
+            this.analyzed = analyzed;
+            this.symbols = symbols;
+            this.classpath = classpath;
         }
 
-        for (MethodInfo method : iface.getMethods()) {
-            if (!method.isStaticInitializer()) {
-                result.add(method);
+        @Override
+        public TypeNode apply(int nameId) {
+            TypeNode type = analyzed.apply(nameId);
+            if (type != null || nameId < 0) {
+                return type;
+            }
+            if (nameId >= resolved.length) {
+                resolved = Arrays.copyOf(resolved, Math.max(nameId + 1, resolved.length * 2));
+            }
+            if (resolved[nameId] == null) {
+                ClasspathResolver.ClassHeader header = classpath.find(symbols.className(nameId));
+                resolved[nameId] = header == null ? MISSING : toTypeNode(nameId, header);
             }
+            return resolved[nameId] == MISSING ? null : resolved[nameId];
         }
 
-        for (String parentInterface : iface.getInterfaces()) {
-            collectMethodsFromInterface(parentInterface, classMap, result);
+        private TypeNode toTypeNode(int nameId, ClasspathResolver.ClassHeader header) {
+            int[] interfaceIds = new int[header.interfaces().size()];
+            for (int i = 0; i < interfaceIds.length; i++) {
+                interfaceIds[i] = symbols.classId(header.interfaces().get(i));
+            }
+            int[] methodIds = new int[header.methods().size()];
+            int count = 0;
+            for (MethodInfo method : header.methods()) {
+                int id = symbols.signatureId(method.name(), method.descriptor());
+                if (!symbols.isConstructorOrInitializer(id)) {
+                    methodIds[count++] = id;
+                }
+            }
+            return new TypeNode(
+                    nameId,
+                    symbols.classId(header.superName()),
+                    interfaceIds,
+                    header.isInterface(),
+                    Arrays.stream(methodIds, 0, count).sorted().distinct().toArray()
+            );
         }
     }
 }
-
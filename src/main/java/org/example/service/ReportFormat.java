@@ -0,0 +1,39 @@
+package org.example.service;
+
+import java.nio.file.Path;
+
+/**
+ * Encodings of the summary report ({@link org.example.model.JarAnalysisResult}) and of the
+ * detailed per-class report ({@link org.example.model.ClassReport}).
+ *
+ * <p>Both formats carry the same data model: {@link #SMILE} is Jackson's binary encoding of
+ * exactly the JSON that {@link #JSON} produces, with the same field names, nesting and types, so
+ * the record definitions are the schema and any Smile-aware JSON tool can read it. Its layout:
+ * <ul>
+ *     <li>Every document starts with the 4-byte Smile header: {@code :)\n} and a version and
+ *     flags byte.</li>
+ *     <li>Summary report: a single root object.</li>
+ *     <li>Detailed report: a sequence of root objects, one per class, in jar entry order, where
+ *     the JSON format has one line per class.</li>
+ *     <li>Field names and short string values (class names, descriptors) are back-referenced
+ *     once seen, so the repeated keys and {@code java/lang/Object}-like values of per-class
+ *     records cost one or two bytes each.</li>
+ * </ul>
+ * Either format can additionally be gzip-compressed; {@link ReportReader} detects all of this
+ * from the content.
+ */
+public enum ReportFormat {
+    JSON,
+    SMILE;
+
+    /**
+     * {@link #SMILE} for {@code .smile} and {@code .smile.gz} files, {@link #JSON} otherwise.
+     */
+    public static ReportFormat forPath(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - ".gz".length());
+        }
+        return name.endsWith(".smile") ? SMILE : JSON;
+    }
+}
@@ -1,23 +1,43 @@
 package org.example.service;
 
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.example.model.JarAnalysisResult;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class ReportGenerator {
     private static final String SEPARATOR = "═".repeat(60);
     private static final String THIN_SEPARATOR = "─".repeat(60);
+    private static final int CONSOLE_HOTSPOTS = 10;
 
     private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+    private final ObjectWriter detailWriter;
+    private final ObjectWriter smileWriter;
+    private final ObjectWriter smileDetailWriter;
 
     public ReportGenerator() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.detailWriter = lineWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        this.smileWriter = new SmileMapper(smileFactory).writer();
+        this.smileDetailWriter = smileWriter.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     public void printToConsole(JarAnalysisResult result) {
@@ -36,35 +56,205 @@ public class ReportGenerator {
         out.printf("  Total interfaces: %d%n", result.totalInterfaces());
         out.println();
 
-        out.println(THIN_SEPARATOR);
-        out.println("  INHERITANCE METRICS");
-        out.println(THIN_SEPARATOR);
-        out.printf("  Maximum inheritance depth: %d%n", result.inheritance().maxDepth());
-        out.printf("  Average inheritance depth: %.2f%n", result.inheritance().averageDepth());
-        out.println();
+        if (result.inheritance() != null) {
+            out.println(THIN_SEPARATOR);
+            out.println("  INHERITANCE METRICS");
+            out.println(THIN_SEPARATOR);
+            out.printf("  Maximum inheritance depth: %d%n", result.inheritance().maxDepth());
+            out.printf("  Average inheritance depth: %.2f%n", result.inheritance().averageDepth());
+            out.println();
+        }
 
-        out.println(THIN_SEPARATOR);
-        out.println("  ABC METRICS");
-        out.println(THIN_SEPARATOR);
-        out.printf("  Assignments (A): %d%n", result.abc().totalAssignments());
-        out.printf("  Branches (B): %d%n", result.abc().totalBranches());
-        out.printf("  Conditions/Calls (C): %d%n", result.abc().totalConditions());
-        out.printf("  ABC Magnitude: %.2f%n", result.abc().magnitude());
-        out.println();
+        if (result.abc() != null) {
+            out.println(THIN_SEPARATOR);
+            out.println("  ABC METRICS");
+            out.println(THIN_SEPARATOR);
+            out.printf("  Assignments (A): %d%n", result.abc().totalAssignments());
+            out.printf("  Branches (B): %d%n", result.abc().totalBranches());
+            out.printf("  Conditions/Calls (C): %d%n", result.abc().totalConditions());
+            out.printf("  ABC Magnitude: %.2f%n", result.abc().magnitude());
+            out.println();
+        }
 
-        out.println(THIN_SEPARATOR);
-        out.println("  CLASS STRUCTURE METRICS");
-        out.println(THIN_SEPARATOR);
-        out.printf("  Average overridden methods per class: %.2f%n", result.averageOverriddenMethods());
-        out.printf("  Average fields per class: %.2f%n", result.averageFieldsPerClass());
-        out.println();
+        if (result.averageOverriddenMethods() != null || result.averageFieldsPerClass() != null) {
+            out.println(THIN_SEPARATOR);
+            out.println("  CLASS STRUCTURE METRICS");
+            out.println(THIN_SEPARATOR);
+            if (result.averageOverriddenMethods() != null) {
+                out.printf("  Average overridden methods per class: %.2f%n", result.averageOverriddenMethods());
+            }
+            if (result.averageFieldsPerClass() != null) {
+                out.printf("  Average fields per class: %.2f%n", result.averageFieldsPerClass());
+            }
+            out.println();
+        }
+
+        if (result.distributions() != null) {
+            JarAnalysisResult.Distributions distributions = result.distributions();
+            out.println(THIN_SEPARATOR);
+            out.println("  DISTRIBUTIONS");
+            out.println(THIN_SEPARATOR);
+            out.printf("  %-22s %8s %8s %8s %10s%n", "", "p50", "p90", "p99", "max");
+            printDistribution(out, "Method ABC magnitude", distributions.methodAbcMagnitude());
+            printDistribution(out, "Inheritance depth", distributions.inheritanceDepth());
+            printDistribution(out, "Fields per class", distributions.fieldsPerClass());
+            printDistribution(out, "Overridden methods", distributions.overriddenMethods());
+            out.println();
+        }
+
+        if (result.hotspots() != null) {
+            JarAnalysisResult.Hotspots hotspots = result.hotspots();
+            out.println(THIN_SEPARATOR);
+            out.printf("  HOTSPOTS (top %d; the JSON report lists up to %d)%n",
+                    CONSOLE_HOTSPOTS, MetricsAccumulator.HOTSPOT_COUNT);
+            out.println(THIN_SEPARATOR);
+            printMethodHotspots(out, "Methods by ABC magnitude", hotspots.methodsByAbcMagnitude());
+            printMethodHotspots(out, "Methods by branches", hotspots.methodsByBranches());
+            printMethodHotspots(out, "Methods by conditions", hotspots.methodsByConditions());
+            printClassHotspots(out, "Deepest classes", hotspots.deepestClasses());
+            printClassHotspots(out, "Most overriding classes", hotspots.mostOverridingClasses());
+            out.println();
+        }
+
+        if (result.plugins() != null) {
+            out.println(THIN_SEPARATOR);
+            out.println("  METRIC PLUGINS");
+            out.println(THIN_SEPARATOR);
+            result.plugins().forEach((name, section) -> out.printf("  %s: %s%n", name, section));
+            out.println();
+        }
+
+        if (result.cache() != null) {
+            out.println(THIN_SEPARATOR);
+            out.println("  CLASS CACHE");
+            out.println(THIN_SEPARATOR);
+            out.printf("  Hits: %d%n", result.cache().hits());
+            out.printf("  Misses: %d%n", result.cache().misses());
+            out.printf("  Hit rate: %.2f%%%n", result.cache().hitRate() * 100);
+            out.printf("  Parse time saved: %d ms%n", result.cache().parseTimeSavedMillis());
+            out.println();
+        }
+
+        if (result.nestedJars() != null) {
+            out.println(THIN_SEPARATOR);
+            out.printf("  NESTED JARS (%d)%n", result.nestedJars().size());
+            out.println(THIN_SEPARATOR);
+            for (JarAnalysisResult nested : result.nestedJars()) {
+                out.printf("  %s%n", nested.jarFileName());
+                StringBuilder line = new StringBuilder(String.format("    classes: %d, interfaces: %d",
+                        nested.totalClasses(), nested.totalInterfaces()));
+                if (nested.inheritance() != null) {
+                    line.append(String.format(", max depth: %d", nested.inheritance().maxDepth()));
+                }
+                if (nested.abc() != null) {
+                    line.append(String.format(", ABC magnitude: %.2f", nested.abc().magnitude()));
+                }
+                if (nested.averageOverriddenMethods() != null) {
+                    line.append(String.format(", avg overridden: %.2f", nested.averageOverriddenMethods()));
+                }
+                out.println(line);
+            }
+            out.println();
+        }
 
         out.println(SEPARATOR);
     }
 
+    private void printDistribution(PrintStream out, String label, JarAnalysisResult.Distribution distribution) {
+        if (distribution == null) {
+            return;
+        }
+        out.printf("  %-22s %8.2f %8.2f %8.2f %10.2f%n",
+                label, distribution.p50(), distribution.p90(), distribution.p99(), distribution.max());
+    }
+
+    private void printMethodHotspots(PrintStream out, String label, List<JarAnalysisResult.MethodHotspot> hotspots) {
+        if (hotspots == null) {
+            return;
+        }
+        out.printf("  %s:%n", label);
+        for (JarAnalysisResult.MethodHotspot method : hotspots.subList(0, Math.min(CONSOLE_HOTSPOTS, hotspots.size()))) {
+            out.printf("    %10.2f  A=%d B=%d C=%d  %s.%s%s%n", method.magnitude(),
+                    method.assignments(), method.branches(), method.conditions(),
+                    method.className(), method.method(), method.descriptor());
+        }
+    }
+
+    private void printClassHotspots(PrintStream out, String label, List<JarAnalysisResult.ClassHotspot> hotspots) {
+        if (hotspots == null) {
+            return;
+        }
+        out.printf("  %s:%n", label);
+        for (JarAnalysisResult.ClassHotspot type : hotspots.subList(0, Math.min(CONSOLE_HOTSPOTS, hotspots.size()))) {
+            StringBuilder line = new StringBuilder("   ");
+            if (type.inheritanceDepth() != null) {
+                line.append(String.format(" depth %3d ", type.inheritanceDepth()));
+            }
+            if (type.overriddenMethods() != null) {
+                line.append(String.format(" overridden %4d ", type.overriddenMethods()));
+            }
+            out.printf("%s %s%n", line, type.className());
+        }
+    }
+
     public void writeToJson(JarAnalysisResult result, Path outputPath) throws IOException {
         String json = objectMapper.writeValueAsString(result);
         Files.writeString(outputPath, json);
     }
-}
 
+    /**
+     * Writes the result in the {@link ReportFormat} matching the file name: Smile for
+     * {@code .smile}, pretty-printed JSON otherwise.
+     */
+    public void writeReport(JarAnalysisResult result, Path outputPath) throws IOException {
+        if (ReportFormat.forPath(outputPath) == ReportFormat.JSON) {
+            writeToJson(result, outputPath);
+            return;
+        }
+        try (OutputStream out = Files.newOutputStream(outputPath)) {
+            smileWriter.writeValue(out, result);
+        }
+    }
+
+    /**
+     * Serializes a result as a single line of JSON, without the trailing newline, for NDJSON
+     * output. The line starts with {@code jarPath}, the path the jar was given as, since
+     * {@link JarAnalysisResult#jarFileName()} alone does not tell jars of the same name apart.
+     * Safe to call from several threads.
+     */
+    public String toJsonLine(String jarPath, JarAnalysisResult result) throws IOException {
+        return lineWriter.writeValueAsString(new JsonLine(jarPath, result));
+    }
+
+    private record JsonLine(String jarPath, @JsonUnwrapped JarAnalysisResult result) {
+    }
+
+    /**
+     * Opens a detailed per-class report at {@code outputPath} in the {@link ReportFormat} matching
+     * the file name, gzip-compressed when it ends with {@code .gz}.
+     */
+    public DetailedReportWriter openDetailedReport(Path outputPath) throws IOException {
+        OutputStream out = Files.newOutputStream(outputPath);
+        try {
+            if (outputPath.getFileName().toString().endsWith(".gz")) {
+                out = new GZIPOutputStream(out, 1 << 16);
+            }
+            return openDetailedReport(out, ReportFormat.forPath(outputPath));
+        } catch (IOException | RuntimeException e) {
+            try {
+                out.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a detailed per-class report on {@code out}, which is closed with the writer.
+     */
+    public DetailedReportWriter openDetailedReport(OutputStream out, ReportFormat format) throws IOException {
+        ObjectWriter writer = format == ReportFormat.SMILE ? smileDetailWriter : detailWriter;
+        return new DetailedReportWriter(writer, out, format);
+    }
+}
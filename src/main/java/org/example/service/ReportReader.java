@@ -0,0 +1,174 @@
+package org.example.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.example.model.ClassReport;
+import org.example.model.JarAnalysisResult;
+import org.example.plugin.MetricPlugin;
+import org.example.plugin.MetricPlugins;
+
+/**
+ * Loads reports written by {@link ReportGenerator} back into {@link JarAnalysisResult} and
+ * {@link ClassReport} records, e.g. to compare two builds with {@code equals}.
+ *
+ * <p>The {@link ReportFormat} and gzip compression are detected from the content, not the file
+ * name. Unknown fields are ignored, so reports from newer versions still load. Plugin sections
+ * are read back into the {@link MetricPlugin#sectionType()} of the plugin with their name, so a
+ * reloaded result equals the one written; sections of plugins the reader does not know stay
+ * plain maps and lists. Instances are immutable and thread-safe.
+ */
+public class ReportReader {
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectReader jsonReader;
+    private final ObjectReader smileReader;
+    private final MetricPlugins plugins;
+
+    /**
+     * A reader that knows the plugins found by {@link MetricPlugins#discover()}.
+     */
+    public ReportReader() {
+        this(MetricPlugins.discover());
+    }
+
+    public ReportReader(MetricPlugins plugins) {
+        this.jsonMapper = new ObjectMapper();
+        this.jsonReader = reader(jsonMapper);
+        this.smileReader = reader(new SmileMapper());
+        this.plugins = plugins;
+    }
+
+    public JarAnalysisResult readResult(Path reportPath) throws IOException {
+        try (InputStream in = Files.newInputStream(reportPath)) {
+            return readResult(in);
+        }
+    }
+
+    /**
+     * Reads a summary report from {@code in}, which is closed afterwards.
+     */
+    public JarAnalysisResult readResult(InputStream in) throws IOException {
+        InputStream decoded = decode(in);
+        return typed(readerFor(decoded).forType(JarAnalysisResult.class).readValue(decoded));
+    }
+
+    /**
+     * Streams the classes of a detailed report in file order, decoding them one at a time. The
+     * stream must be closed, which closes the file.
+     */
+    public Stream<ClassReport> readDetails(Path detailsPath) throws IOException {
+        InputStream in = Files.newInputStream(detailsPath);
+        try {
+            return readDetails(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Streams the classes of a detailed report; closing the returned stream closes {@code in}.
+     */
+    public Stream<ClassReport> readDetails(InputStream in) throws IOException {
+        InputStream decoded = decode(in);
+        MappingIterator<ClassReport> records = readerFor(decoded).forType(ClassReport.class).readValues(decoded);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        records.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * {@code result} with the sections of known plugins converted from maps to their types, in
+     * nested jars too.
+     */
+    private JarAnalysisResult typed(JarAnalysisResult result) {
+        if (result.plugins() == null && result.nestedJars() == null) {
+            return result;
+        }
+        Map<String, Object> sections = null;
+        if (result.plugins() != null) {
+            sections = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> section : result.plugins().entrySet()) {
+                sections.put(section.getKey(), typed(section.getKey(), section.getValue()));
+            }
+        }
+        List<JarAnalysisResult> nestedJars = null;
+        if (result.nestedJars() != null) {
+            nestedJars = new ArrayList<>(result.nestedJars().size());
+            for (JarAnalysisResult nested : result.nestedJars()) {
+                nestedJars.add(typed(nested));
+            }
+        }
+        return new JarAnalysisResult(result.jarFileName(), result.totalClasses(), result.totalInterfaces(),
+                result.inheritance(), result.abc(), result.averageOverriddenMethods(), result.averageFieldsPerClass(),
+                result.distributions(), result.hotspots(), sections, result.cache(), nestedJars);
+    }
+
+    private Object typed(String pluginName, Object section) {
+        for (MetricPlugin<?> plugin : plugins.plugins()) {
+            if (plugin.name().equals(pluginName)) {
+                return jsonMapper.convertValue(section, plugin.sectionType());
+            }
+        }
+        return section;
+    }
+
+    private ObjectReader readerFor(InputStream in) throws IOException {
+        return startsWith(in, SMILE_HEADER) ? smileReader : jsonReader;
+    }
+
+    /**
+     * Buffers the stream, unwrapping gzip if present, so that the format can be peeked at.
+     */
+    private static InputStream decode(InputStream in) throws IOException {
+        InputStream buffered = new BufferedInputStream(in, 1 << 16);
+        buffered.mark(2);
+        int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+        return magic == GZIP_MAGIC ? new BufferedInputStream(new GZIPInputStream(buffered, 1 << 16), 1 << 16) : buffered;
+    }
+
+    private static boolean startsWith(InputStream in, byte[] prefix) throws IOException {
+        in.mark(prefix.length);
+        try {
+            for (byte b : prefix) {
+                if (in.read() != b) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static ObjectReader reader(ObjectMapper mapper) {
+        return mapper.reader().without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+}
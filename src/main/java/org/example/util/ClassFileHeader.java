@@ -0,0 +1,259 @@
+package org.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The part of a class file that places it in the type hierarchy: access flags, this class, the
+ * superclass and the direct interfaces, read straight from the bytes.
+ *
+ * <p>{@link #parse} walks the constant pool once to record where each entry starts and then reads
+ * the fixed header fields that follow it. Nothing else is decoded: names are only turned into
+ * strings when asked for, each call decoding afresh, and fields, methods and attributes are never
+ * looked at. This is the same information {@code ClassReader.getClassName()}, {@code
+ * getSuperName()}, {@code getInterfaces()} and {@code getAccess()} return, without ASM's
+ * per-entry bookkeeping or a visitor.
+ *
+ * <p>The class file version is not checked, so newer class files are read as long as their
+ * constant pool only uses known tags.
+ */
+public final class ClassFileHeader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int[] entries;
+    private final int header;
+    private final int end;
+
+    private ClassFileHeader(byte[] bytes, int offset, int[] entries, int header, int end) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.entries = entries;
+        this.header = header;
+        this.end = end;
+    }
+
+    public static ClassFileHeader parse(byte[] bytes) {
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the header of the class file in {@code bytes[offset, offset + length)}. The array is
+     * kept, not copied, and must not change while the header is in use.
+     *
+     * @throws IllegalArgumentException if the bytes are not a class file, are truncated or use an
+     *                                  unknown constant pool tag
+     */
+    public static ClassFileHeader parse(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        int end = offset + length;
+        if (length < 10 || readInt(bytes, offset) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+
+        int count = readUnsignedShort(bytes, offset + 8);
+        int[] entries = new int[count];
+        int position = offset + 10;
+        for (int i = 1; i < count; i++) {
+            // every entry is at least a tag and a u2
+            if (position + 3 > end) {
+                throw truncated();
+            }
+            entries[i] = position;
+            int tag = bytes[position];
+            switch (tag) {
+                case UTF8 -> position += 3 + readUnsignedShort(bytes, position + 1);
+                case CLASS, STRING, METHOD_TYPE, MODULE, PACKAGE -> position += 3;
+                case METHOD_HANDLE -> position += 4;
+                case INTEGER, FLOAT, FIELD_REF, METHOD_REF, INTERFACE_METHOD_REF, NAME_AND_TYPE, DYNAMIC, INVOKE_DYNAMIC ->
+                        position += 5;
+                case LONG, DOUBLE -> {
+                    // eight-byte constants take up two entries
+                    position += 9;
+                    i++;
+                }
+                default -> throw new IllegalArgumentException("Unknown constant pool tag " + tag + " in entry " + i);
+            }
+        }
+
+        // access_flags, this_class, super_class, interfaces_count, interfaces[]
+        if (position + 8 > end || position + 8 + 2 * readUnsignedShort(bytes, position + 6) > end) {
+            throw truncated();
+        }
+        return new ClassFileHeader(bytes, offset, entries, position, end);
+    }
+
+    /**
+     * Minor version in the upper and major version in the lower 16 bits, as
+     * {@code ClassVisitor.visit} receives it.
+     */
+    public int version() {
+        return (readUnsignedShort(bytes, offset + 4) << 16) | readUnsignedShort(bytes, offset + 6);
+    }
+
+    public int access() {
+        return readUnsignedShort(bytes, header);
+    }
+
+    public boolean isInterface() {
+        return (access() & ACC_INTERFACE) != 0;
+    }
+
+    /**
+     * Internal name of this class, e.g. {@code java/lang/String}.
+     */
+    public String className() {
+        return classAt(readUnsignedShort(bytes, header + 2));
+    }
+
+    /**
+     * Internal name of the superclass, or {@code null} for {@code java/lang/Object} and
+     * {@code module-info}.
+     */
+    public String superName() {
+        int index = readUnsignedShort(bytes, header + 4);
+        return index == 0 ? null : classAt(index);
+    }
+
+    public int interfaceCount() {
+        return readUnsignedShort(bytes, header + 6);
+    }
+
+    public String interfaceName(int i) {
+        Objects.checkIndex(i, interfaceCount());
+        return classAt(readUnsignedShort(bytes, header + 8 + 2 * i));
+    }
+
+    /**
+     * Internal names of the direct interfaces in declaration order; empty, never {@code null}.
+     */
+    public String[] interfaces() {
+        String[] interfaces = new String[interfaceCount()];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = interfaceName(i);
+        }
+        return interfaces;
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Offset just past the class file.
+     */
+    int end() {
+        return end;
+    }
+
+    /**
+     * Offset of {@code fields_count}, right after the interfaces.
+     */
+    int membersOffset() {
+        return header + 8 + 2 * interfaceCount();
+    }
+
+    /**
+     * Whether constant pool entry {@code index} is the UTF8 constant {@code ascii}, compared
+     * without decoding it.
+     */
+    boolean isUtf8(int index, String ascii) {
+        int position = entry(index, UTF8);
+        if (readUnsignedShort(bytes, position + 1) != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (bytes[position + 3 + i] != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String classAt(int index) {
+        return utf8At(readUnsignedShort(bytes, entry(index, CLASS) + 1));
+    }
+
+    String utf8At(int index) {
+        int position = entry(index, UTF8);
+        int length = readUnsignedShort(bytes, position + 1);
+        int start = position + 3;
+        for (int i = start; i < start + length; i++) {
+            if (bytes[i] < 0) {
+                return decodeModifiedUtf8(start, length);
+            }
+        }
+        // ASCII, which is nearly every class name: a latin-1 string needs no decoding
+        return new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private String decodeModifiedUtf8(int start, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int i = start;
+        int end = start + length;
+        while (i < end) {
+            int b = bytes[i++];
+            if ((b & 0x80) == 0) {
+                chars[count++] = (char) (b & 0x7F);
+            } else if ((b & 0xE0) == 0xC0) {
+                if (i + 1 > end) {
+                    throw malformedUtf8();
+                }
+                chars[count++] = (char) (((b & 0x1F) << 6) + (bytes[i++] & 0x3F));
+            } else {
+                if (i + 2 > end) {
+                    throw malformedUtf8();
+                }
+                chars[count++] = (char) (((b & 0xF) << 12) + ((bytes[i++] & 0x3F) << 6) + (bytes[i++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private int entry(int index, int expectedTag) {
+        if (index <= 0 || index >= entries.length || entries[index] == 0 || bytes[entries[index]] != expectedTag) {
+            throw new IllegalArgumentException("Constant pool entry " + index + " is not of tag " + expectedTag);
+        }
+        return entries[index];
+    }
+
+    static IllegalArgumentException truncated() {
+        return new IllegalArgumentException("Truncated class file");
+    }
+
+    private static IllegalArgumentException malformedUtf8() {
+        return new IllegalArgumentException("Constant pool string ends inside a multi-byte character");
+    }
+
+    static int readUnsignedShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24)
+                | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.util;
+
+import static org.example.util.ClassFileHeader.readInt;
+import static org.example.util.ClassFileHeader.readUnsignedShort;
+import static org.example.util.ClassFileHeader.truncated;
+
+import org.example.model.ABCMetrics;
+import org.example.model.ClassInfo;
+
+/**
+ * Builds a {@link ClassInfo} straight from class bytes, without ASM: the header comes from
+ * {@link ClassFileHeader}, fields are counted, and the {@code Code} attribute of each method is
+ * scanned linearly with an opcode length table instead of being decoded into visitor events.
+ *
+ * <p>The result is the same as {@link org.example.visitor.ClassInfoVisitor} with
+ * {@code SKIP_DEBUG | SKIP_FRAMES}, counting the same instructions as
+ * {@link org.example.visitor.ABCMetricsMethodVisitor}: stores and {@code IINC} (also after
+ * {@code WIDE}) as assignments; invokes, {@code INVOKEDYNAMIC} and {@code NEW} as branches;
+ * conditional jumps and every non-default switch arm as conditions. Nothing is allocated per
+ * instruction.
+ */
+public final class ClassFileScanner {
+    private static final int ASSIGNMENT = 1;
+    private static final int BRANCH = 2;
+    private static final int CONDITION = 4;
+
+    private static final int IINC = 132;
+    private static final int TABLESWITCH = 170;
+    private static final int LOOKUPSWITCH = 171;
+    private static final int WIDE = 196;
+
+    /** Instruction length by opcode; 0 for variable-length and undefined opcodes. */
+    private static final byte[] LENGTHS = new byte[256];
+    /** ABC category bits by opcode. */
+    private static final byte[] KINDS = new byte[256];
+
+    static {
+        lengths(1, 0, 15);      // nop, aconst_null, iconst_*, lconst_*, fconst_*, dconst_*
+        lengths(2, 16, 16);     // bipush
+        lengths(3, 17, 17);     // sipush
+        lengths(2, 18, 18);     // ldc
+        lengths(3, 19, 20);     // ldc_w, ldc2_w
+        lengths(2, 21, 25);     // iload .. aload
+        lengths(1, 26, 53);     // iload_0 .. aload_3, iaload .. saload
+        lengths(2, 54, 58);     // istore .. astore
+        lengths(1, 59, 131);    // istore_0 .. astore_3, array stores, stack, arithmetic
+        lengths(3, IINC, IINC);
+        lengths(1, 133, 152);   // conversions, lcmp .. dcmpg
+        lengths(3, 153, 168);   // if*, goto, jsr
+        lengths(2, 169, 169);   // ret
+        lengths(1, 172, 177);   // *return
+        lengths(3, 178, 184);   // field access, invokevirtual .. invokestatic
+        lengths(5, 185, 186);   // invokeinterface, invokedynamic
+        lengths(3, 187, 187);   // new
+        lengths(2, 188, 188);   // newarray
+        lengths(3, 189, 189);   // anewarray
+        lengths(1, 190, 191);   // arraylength, athrow
+        lengths(3, 192, 193);   // checkcast, instanceof
+        lengths(1, 194, 195);   // monitorenter, monitorexit
+        lengths(4, 197, 197);   // multianewarray
+        lengths(3, 198, 199);   // ifnull, ifnonnull
+        lengths(5, 200, 201);   // goto_w, jsr_w
+
+        kinds(ASSIGNMENT, 54, 78);   // istore .. astore, istore_0 .. astore_3
+        kinds(ASSIGNMENT, IINC, IINC);
+        kinds(BRANCH, 182, 187);     // invokevirtual .. invokedynamic, new
+        kinds(CONDITION, 153, 166);  // ifeq .. if_acmpne
+        kinds(CONDITION, 198, 199);  // ifnull, ifnonnull
+    }
+
+    private ClassFileScanner() {
+    }
+
+    public static ClassInfo scan(byte[] bytes, SymbolTable symbols) {
+        return scan(bytes, 0, bytes.length, symbols, true);
+    }
+
+    /**
+     * Reads the class file in {@code bytes[offset, offset + length)}.
+     *
+     * @param code whether to scan method bodies; without, the result has no ABC counts, as with
+     *             {@code SKIP_CODE}
+     * @throws IllegalArgumentException if the bytes are not a well-formed class file
+     */
+    public static ClassInfo scan(byte[] bytes, int offset, int length, SymbolTable symbols, boolean code) {
+        ClassFileHeader header = ClassFileHeader.parse(bytes, offset, length);
+        int end = header.end();
+        ClassInfo.Builder builder = ClassInfo.builder(symbols)
+                .name(header.className())
+                .superName(header.superName())
+                .addInterfaces(header.interfaces())
+                .isInterface(header.isInterface());
+
+        int position = header.membersOffset();
+        int fieldCount = readCount(bytes, position, end);
+        position += 2;
+        for (int i = 0; i < fieldCount; i++) {
+            position = skipAttributes(bytes, position + 6, end);
+        }
+        builder.fieldCount(fieldCount);
+
+        ABCMetrics total = new ABCMetrics();
+        int methodCount = readCount(bytes, position, end);
+        position += 2;
+        for (int i = 0; i < methodCount; i++) {
+            if (position + 8 > end) {
+                throw truncated();
+            }
+            String name = header.utf8At(readUnsignedShort(bytes, position + 2));
+            String descriptor = header.utf8At(readUnsignedShort(bytes, position + 4));
+            builder.addMethod(name, descriptor);
+            int attributeCount = readUnsignedShort(bytes, position + 6);
+            position += 8;
+            for (int a = 0; a < attributeCount; a++) {
+                int attributeEnd = attributeEnd(bytes, position, end);
+                if (code && header.isUtf8(readUnsignedShort(bytes, position), "Code")) {
+                    // max_stack, max_locals, code_length, code
+                    int codeStart = position + 14;
+                    int codeEnd = codeStart + readInt(bytes, position + 10);
+                    if (codeStart > attributeEnd || codeEnd > attributeEnd || codeEnd < codeStart) {
+                        throw truncated();
+                    }
+                    ABCMetrics method = new ABCMetrics();
+                    count(bytes, codeStart, codeEnd, method);
+                    total.add(method);
+                    builder.addMethodMetrics(name, descriptor,
+                            method.getAssignments(), method.getBranches(), method.getConditions());
+                }
+                position = attributeEnd;
+            }
+        }
+        return builder.abcMetrics(total).build();
+    }
+
+    /**
+     * Adds the ABC counts of the bytecode in {@code code[start, end)}, one method's {@code code}
+     * array, to {@code metrics}.
+     *
+     * @throws IllegalArgumentException on an undefined opcode or an instruction that runs past
+     *                                  {@code end}
+     */
+    public static void count(byte[] code, int start, int end, ABCMetrics metrics) {
+        int assignments = 0;
+        int branches = 0;
+        int conditions = 0;
+        int pc = start;
+        while (pc < end) {
+            int opcode = code[pc] & 0xFF;
+            int length = LENGTHS[opcode];
+            if (length != 0) {
+                int kind = KINDS[opcode];
+                assignments += kind & ASSIGNMENT;
+                branches += (kind & BRANCH) >> 1;
+                conditions += (kind & CONDITION) >> 2;
+                pc += length;
+                continue;
+            }
+            switch (opcode) {
+                case TABLESWITCH -> {
+                    // padding aligns the operands to a multiple of four from the start of the code
+                    int operands = pc + 4 - ((pc - start) & 3);
+                    checkOperands(operands, 12, end);
+                    long arms = (long) readInt(code, operands + 8) - readInt(code, operands + 4) + 1;
+                    pc = next(operands + 12, arms, 4, end);
+                    conditions += (int) arms;
+                }
+                case LOOKUPSWITCH -> {
+                    int operands = pc + 4 - ((pc - start) & 3);
+                    checkOperands(operands, 8, end);
+                    int pairs = readInt(code, operands + 4);
+                    pc = next(operands + 8, pairs, 8, end);
+                    conditions += pairs;
+                }
+                case WIDE -> {
+                    checkOperands(pc, 2, end);
+                    int modified = code[pc + 1] & 0xFF;
+                    if (modified == IINC) {
+                        assignments++;
+                        pc += 6;
+                    } else {
+                        assignments += KINDS[modified] & ASSIGNMENT;
+                        pc += 4;
+                    }
+                }
+                default -> throw new IllegalArgumentException("Undefined opcode " + opcode + " at " + (pc - start));
+            }
+        }
+        if (pc != end) {
+            throw new IllegalArgumentException("Instruction runs past the end of the code");
+        }
+        metrics.incrementAssignments(assignments);
+        metrics.incrementBranches(branches);
+        metrics.incrementConditions(conditions);
+    }
+
+    private static int skipAttributes(byte[] bytes, int position, int end) {
+        int count = readCount(bytes, position, end);
+        position += 2;
+        for (int i = 0; i < count; i++) {
+            position = attributeEnd(bytes, position, end);
+        }
+        return position;
+    }
+
+    private static int attributeEnd(byte[] bytes, int position, int end) {
+        if (position + 6 > end) {
+            throw truncated();
+        }
+        long attributeEnd = position + 6 + (readInt(bytes, position + 2) & 0xFFFFFFFFL);
+        if (attributeEnd > end) {
+            throw truncated();
+        }
+        return (int) attributeEnd;
+    }
+
+    private static int readCount(byte[] bytes, int position, int end) {
+        if (position + 2 > end) {
+            throw truncated();
+        }
+        return readUnsignedShort(bytes, position);
+    }
+
+    /**
+     * Position after {@code count} jump table entries of {@code size} bytes each.
+     */
+    private static int next(int table, long count, int size, int end) {
+        long next = table + count * size;
+        if (count < 0 || next > end) {
+            throw new IllegalArgumentException("Instruction runs past the end of the code");
+        }
+        return (int) next;
+    }
+
+    private static void checkOperands(int position, int length, int end) {
+        if (position + length > end) {
+            throw new IllegalArgumentException("Instruction runs past the end of the code");
+        }
+    }
+
+    private static void lengths(int length, int from, int to) {
+        for (int opcode = from; opcode <= to; opcode++) {
+            LENGTHS[opcode] = (byte) length;
+        }
+    }
+
+    private static void kinds(int kind, int from, int to) {
+        for (int opcode = from; opcode <= to; opcode++) {
+            KINDS[opcode] |= (byte) kind;
+        }
+    }
+}
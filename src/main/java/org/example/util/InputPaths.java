@@ -0,0 +1,103 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Expands batch inputs into a list of files.
+ *
+ * <p>Each input is either a path, a glob such as {@code libs/**}{@code /*.jar}, or {@code @file}
+ * naming a file with one input per line (blank lines and lines starting with {@code #} are
+ * skipped). Globs are matched against the files below their longest wildcard-free directory, so
+ * they work without shell expansion and are not limited by the command line length. As in most
+ * shells, a leading {@code **}{@code /} also matches no directory at all, so the example above
+ * includes {@code libs/a.jar}; subdirectories are only searched when the glob contains
+ * {@code **} or a {@code /} after its first wildcard. Duplicates are dropped, the first occurrence
+ * keeps its place.
+ */
+public final class InputPaths {
+    private InputPaths() {
+    }
+
+    public static List<Path> expand(List<String> inputs) throws IOException {
+        Set<Path> paths = new LinkedHashSet<>();
+        for (String input : inputs) {
+            expand(input, paths);
+        }
+        return new ArrayList<>(paths);
+    }
+
+    private static void expand(String input, Set<Path> paths) throws IOException {
+        if (input.startsWith("@")) {
+            for (String line : Files.readAllLines(Path.of(input.substring(1)))) {
+                String trimmed = line.strip();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    expand(trimmed, paths);
+                }
+            }
+        } else if (isGlob(input)) {
+            expandGlob(input, paths);
+        } else {
+            paths.add(Path.of(input));
+        }
+    }
+
+    private static void expandGlob(String pattern, Set<Path> paths) throws IOException {
+        String normalized = pattern.replace('\\', '/');
+        int slash = normalized.lastIndexOf('/', firstWildcard(normalized));
+        Path base = slash < 0 ? Path.of("") : Path.of(slash == 0 ? "/" : normalized.substring(0, slash));
+        Path walkRoot = slash < 0 ? Path.of(".") : base;
+        String glob = normalized.substring(slash + 1);
+        List<PathMatcher> matchers = new ArrayList<>();
+        matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        for (String rest = glob; rest.startsWith("**/"); ) {
+            rest = rest.substring(3);
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + rest));
+        }
+        int maxDepth = glob.contains("**") || glob.contains("/") ? Integer.MAX_VALUE : 1;
+        if (!Files.isDirectory(walkRoot)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(walkRoot, maxDepth)) {
+            files.filter(Files::isRegularFile)
+                    .map(walkRoot::relativize)
+                    .filter(relative -> matchesAny(matchers, relative))
+                    .sorted()
+                    .forEach(relative -> paths.add(base.resolve(relative)));
+        }
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isGlob(String input) {
+        return firstWildcard(input) < input.length();
+    }
+
+    private static int firstWildcard(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            switch (input.charAt(i)) {
+                case '*', '?', '[', '{' -> {
+                    return i;
+                }
+                default -> {
+                }
+            }
+        }
+        return input.length();
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory histogram of non-negative values, in the style of HdrHistogram.
+ *
+ * <p>Values are recorded in units of {@code resolution}. Up to 128 units every value gets its
+ * own bucket; above that, each power of two is split into 64 equal buckets, so a reported
+ * percentile is within 1/64 (about 1.6%) of the true value. The bucket array only grows up to
+ * the largest value seen and never beyond 2304 counters (18 KB), whatever the number of values;
+ * values of 2<sup>41</sup> units and more share the last bucket, whose percentiles report the
+ * maximum. Histograms merge exactly, so parallel workers can each fill their own.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public final class LogHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * HALF;
+
+    private final double resolution;
+    private final double unitsPerValue;
+    private long[] counts = new long[0];
+    private long count;
+    private double max;
+
+    /**
+     * @param resolution smallest distinguishable difference between values, e.g. {@code 1} for
+     *                   counts or {@code 0.01} for values reported with two decimals
+     */
+    public LogHistogram(double resolution) {
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        this.resolution = resolution;
+        this.unitsPerValue = 1 / resolution;
+    }
+
+    public void record(double value) {
+        if (!(value >= 0)) {
+            throw new IllegalArgumentException("Value must be non-negative: " + value);
+        }
+        int index = index(Math.round(value * unitsPerValue));
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.min(BUCKETS, Math.max(index + 1, counts.length * 2)));
+        }
+        counts[index]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds all values recorded by {@code other}, which must use the same resolution.
+     */
+    public void merge(LogHistogram other) {
+        if (other.resolution != resolution) {
+            throw new IllegalArgumentException("Cannot merge histograms with resolutions " + resolution + " and " + other.resolution);
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Smallest bucket bound that at least {@code percentile} percent of the values do not exceed,
+     * capped at the maximum; {@code 0} when empty.
+     */
+    public double percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? max : Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Counts per power-of-two range of values: {@code result[0]} counts zeros, {@code result[1]}
+     * values above {@code 0} and up to {@code 1}, and {@code result[k]} for {@code k > 1} those
+     * above 2<sup>k-2</sup> and up to 2<sup>k-1</sup>. Trailing empty ranges are left out.
+     */
+    public long[] powerOfTwoCounts() {
+        long[] ranges = new long[66];
+        int used = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                int range = powerOfTwoRange(highestValue(i));
+                ranges[range] += counts[i];
+                used = Math.max(used, range + 1);
+            }
+        }
+        return Arrays.copyOf(ranges, used);
+    }
+
+    private double highestValue(int index) {
+        // dividing keeps e.g. 201 units at 0.01 exactly 2.01
+        return highestUnits(index) / unitsPerValue;
+    }
+
+    private static int powerOfTwoRange(double value) {
+        if (value <= 0) {
+            return 0;
+        }
+        if (value <= 1) {
+            return 1;
+        }
+        int exponent = Math.getExponent(value);
+        return (value == Math.scalb(1.0, exponent) ? exponent : exponent + 1) + 1;
+    }
+
+    static int index(long units) {
+        if (units < SUB_BUCKETS) {
+            return (int) units;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(units);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS + 1;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * HALF + (int) ((units >>> shift) - HALF);
+    }
+
+    static long highestUnits(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int offset = index - SUB_BUCKETS;
+        int shift = offset / HALF + 1;
+        long subBucket = HALF + offset % HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,402 @@
+package org.example.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Minimal read-only zip reader over a memory-mapped archive.
+ *
+ * <p>The central directory is parsed directly from the mapping, so no {@code JarFile},
+ * {@code InflaterInputStream} or per-entry streams are involved. Entry data is exposed as
+ * {@link Bytes} views: STORED entries of heap-backed archives are returned in place, everything
+ * else is copied or inflated into a buffer owned by the calling thread and reused for the next
+ * read on that thread; entries too large for that buffer to keep get one of their own, as do those
+ * read with {@link #readAllBytes}. A thread's inflater is ended by {@link #releaseThreadResources()}, or
+ * once the thread is gone and its buffers are garbage collected.
+ *
+ * <p>Malformed or truncated archives fail with an {@link IOException}, never with an index out
+ * of bounds.
+ */
+public final class MappedZipFile implements Closeable {
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_END_SIZE = 56;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final long UINT32_MAX = 0xFFFFFFFFL;
+
+    private static final ThreadLocal<ReadContext> READ_CONTEXT = new ThreadLocal<>();
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final String name;
+    private final FileChannel channel;
+    private final ByteBuffer archive;
+    private final List<Entry> entries;
+
+    private MappedZipFile(String name, FileChannel channel, ByteBuffer archive) throws IOException {
+        this.name = name;
+        this.channel = channel;
+        this.archive = archive.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.entries = Collections.unmodifiableList(readCentralDirectory());
+    }
+
+    public static MappedZipFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archive larger than 2 GB cannot be mapped: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new MappedZipFile(path.toString(), channel, mapped);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads an archive that is already in memory. The buffer's position and limit delimit the
+     * archive; the buffer itself must not be modified while this instance is in use.
+     */
+    public static MappedZipFile of(String name, ByteBuffer archive) throws IOException {
+        return new MappedZipFile(name, null, archive);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Entries in central directory order.
+     */
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Returns the uncompressed content of an entry. The returned view may point into a
+     * thread-local buffer and is only valid until the next {@code read} on the same thread.
+     */
+    public Bytes read(Entry entry) throws IOException {
+        ByteBuffer data = entryData(entry);
+        int size = toIntSize(entry, entry.size());
+        if (entry.method() == STORED && data.hasArray() && !entry.encrypted()) {
+            if (data.remaining() != size) {
+                throw new IOException("Corrupt STORED entry size: " + entry.name());
+            }
+            return new Bytes(data.array(), data.arrayOffset() + data.position(), size);
+        }
+        ReadContext context = readContext();
+        byte[] buffer = context.buffer(size);
+        readInto(entry, data, buffer, size, context.inflater);
+        return new Bytes(buffer, 0, size);
+    }
+
+    /**
+     * Returns the uncompressed content of an entry in an array of its own, for content that
+     * outlives the next {@link #read}, e.g. a nested archive.
+     */
+    public byte[] readAllBytes(Entry entry) throws IOException {
+        ByteBuffer data = entryData(entry);
+        byte[] content = new byte[toIntSize(entry, entry.size())];
+        readInto(entry, data, content, content.length, readContext().inflater);
+        return content;
+    }
+
+    private static void readInto(Entry entry, ByteBuffer data, byte[] target, int size, Inflater inflater)
+            throws IOException {
+        if (entry.encrypted()) {
+            throw new IOException("Encrypted entries are not supported: " + entry.name());
+        }
+
+        if (entry.method() == STORED) {
+            if (data.remaining() != size) {
+                throw new IOException("Corrupt STORED entry size: " + entry.name());
+            }
+            data.get(target, 0, size);
+            return;
+        }
+
+        if (entry.method() == DEFLATED) {
+            inflater.reset();
+            inflater.setInput(data);
+            try {
+                int length = 0;
+                while (length < size && !inflater.finished()) {
+                    int n = inflater.inflate(target, length, size - length);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Truncated DEFLATED entry: " + entry.name());
+                    }
+                    length += n;
+                }
+                if (length != size) {
+                    throw new IOException("Corrupt DEFLATED entry size: " + entry.name());
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Invalid DEFLATED data in entry: " + entry.name(), e);
+            }
+            return;
+        }
+
+        throw new IOException("Unsupported compression method " + entry.method() + " for entry: " + entry.name());
+    }
+
+    /**
+     * Raw (possibly compressed) data of an entry as a view into the archive.
+     */
+    public ByteBuffer entryData(Entry entry) throws IOException {
+        int headerOffset = toIntOffset(entry.localHeaderOffset());
+        if (headerOffset + LOCAL_HEADER_SIZE > archive.limit()
+                || archive.getInt(headerOffset) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid local header for entry: " + entry.name());
+        }
+        int nameLength = Short.toUnsignedInt(archive.getShort(headerOffset + 26));
+        int extraLength = Short.toUnsignedInt(archive.getShort(headerOffset + 28));
+        int dataOffset = headerOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+        int compressedSize = toIntSize(entry, entry.compressedSize());
+        if ((long) dataOffset + compressedSize > archive.limit()) {
+            throw new IOException("Entry data exceeds archive bounds: " + entry.name());
+        }
+        return archive.slice(dataOffset, compressedSize);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Ends the calling thread's inflater and drops its buffer. Threads that read archives should
+     * call this before they terminate, as the processor's pool workers do; a later read on the
+     * same thread starts afresh.
+     */
+    public static void releaseThreadResources() {
+        ReadContext context = READ_CONTEXT.get();
+        if (context != null) {
+            READ_CONTEXT.remove();
+            context.release();
+        }
+    }
+
+    private static ReadContext readContext() {
+        ReadContext context = READ_CONTEXT.get();
+        if (context == null) {
+            context = new ReadContext();
+            READ_CONTEXT.set(context);
+        }
+        return context;
+    }
+
+    private List<Entry> readCentralDirectory() throws IOException {
+        int end = findEndOfCentralDirectory();
+
+        long entryCount = Short.toUnsignedInt(archive.getShort(end + 10));
+        long directorySize = Integer.toUnsignedLong(archive.getInt(end + 12));
+        long directoryOffset = Integer.toUnsignedLong(archive.getInt(end + 16));
+        long recordPosition = end;
+
+        int locator = end - ZIP64_LOCATOR_SIZE;
+        if (locator >= 0 && archive.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+            int zip64End = findZip64End(locator);
+            entryCount = archive.getLong(zip64End + 32);
+            directorySize = archive.getLong(zip64End + 40);
+            directoryOffset = archive.getLong(zip64End + 48);
+            recordPosition = zip64End;
+        }
+        if (entryCount < 0 || directorySize < 0 || directoryOffset < 0) {
+            throw new IOException("Invalid end of central directory in " + name);
+        }
+
+        // Archives with a prepended launcher script store offsets relative to the zip start
+        long base = recordPosition - directorySize - directoryOffset;
+        if (base < 0) {
+            throw new IOException("Invalid central directory location in " + name);
+        }
+
+        List<Entry> result = new ArrayList<>((int) Math.min(entryCount, 1 << 16));
+        int position = toIntOffset(base + directoryOffset);
+        for (long i = 0; i < entryCount; i++) {
+            if (position + CENTRAL_HEADER_SIZE > archive.limit()
+                    || archive.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Invalid central directory header in " + name);
+            }
+            int flags = Short.toUnsignedInt(archive.getShort(position + 8));
+            int method = Short.toUnsignedInt(archive.getShort(position + 10));
+            long crc = Integer.toUnsignedLong(archive.getInt(position + 16));
+            long compressedSize = Integer.toUnsignedLong(archive.getInt(position + 20));
+            long size = Integer.toUnsignedLong(archive.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(archive.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(archive.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(archive.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(archive.getInt(position + 42));
+
+            int namePosition = position + CENTRAL_HEADER_SIZE;
+            if ((long) namePosition + nameLength + extraLength + commentLength > archive.limit()) {
+                throw new IOException("Central directory header exceeds archive bounds in " + name);
+            }
+            byte[] nameBytes = new byte[nameLength];
+            archive.get(namePosition, nameBytes);
+            String entryName = new String(nameBytes, StandardCharsets.UTF_8);
+
+            if (size == UINT32_MAX || compressedSize == UINT32_MAX || localHeaderOffset == UINT32_MAX) {
+                int extra = namePosition + nameLength;
+                int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    int id = Short.toUnsignedInt(archive.getShort(extra));
+                    int length = Short.toUnsignedInt(archive.getShort(extra + 2));
+                    int dataEnd = extra + 4 + length;
+                    if (dataEnd > extraEnd) {
+                        throw new IOException("Extra field exceeds its header in entry " + entryName + " of " + name);
+                    }
+                    if (id == ZIP64_EXTRA_ID) {
+                        int field = extra + 4;
+                        if (size == UINT32_MAX) {
+                            size = zip64Value(field, dataEnd, entryName);
+                            field += 8;
+                        }
+                        if (compressedSize == UINT32_MAX) {
+                            compressedSize = zip64Value(field, dataEnd, entryName);
+                            field += 8;
+                        }
+                        if (localHeaderOffset == UINT32_MAX) {
+                            localHeaderOffset = zip64Value(field, dataEnd, entryName);
+                        }
+                        break;
+                    }
+                    extra = dataEnd;
+                }
+            }
+
+            boolean encrypted = (flags & 1) != 0;
+            result.add(new Entry(entryName, method, crc, compressedSize, size, base + localHeaderOffset, encrypted));
+            position = namePosition + nameLength + extraLength + commentLength;
+        }
+        return result;
+    }
+
+    /**
+     * The ZIP64 end of central directory record for the locator at {@code locator}. The locator
+     * holds the record's offset from the start of the zip, which is not the start of the file
+     * when a launcher script or the like was prepended, so the record is looked for right before
+     * the locator first, where it is unless it carries extensible data, and only then at the
+     * offset stated.
+     */
+    private int findZip64End(int locator) throws IOException {
+        int adjacent = locator - ZIP64_END_SIZE;
+        if (adjacent >= 0 && archive.getInt(adjacent) == ZIP64_END_SIGNATURE
+                && archive.getLong(adjacent + 4) == ZIP64_END_SIZE - 12) {
+            return adjacent;
+        }
+        long stated = archive.getLong(locator + 8);
+        if (stated >= 0 && stated <= adjacent && archive.getInt((int) stated) == ZIP64_END_SIGNATURE) {
+            return (int) stated;
+        }
+        throw new IOException("Invalid ZIP64 end of central directory in " + name);
+    }
+
+    private long zip64Value(int field, int fieldEnd, String entryName) throws IOException {
+        long value = field + 8 <= fieldEnd ? archive.getLong(field) : -1;
+        if (value < 0) {
+            throw new IOException("Truncated or invalid ZIP64 extra field in entry " + entryName + " of " + name);
+        }
+        return value;
+    }
+
+    private int findEndOfCentralDirectory() throws IOException {
+        int limit = archive.limit();
+        int lowest = Math.max(0, limit - END_SIZE - MAX_COMMENT_LENGTH);
+        for (int position = limit - END_SIZE; position >= lowest; position--) {
+            if (archive.getInt(position) == END_SIGNATURE
+                    && position + END_SIZE + Short.toUnsignedInt(archive.getShort(position + 20)) == limit) {
+                return position;
+            }
+        }
+        throw new IOException("Not a zip archive (end of central directory not found): " + name);
+    }
+
+    private int toIntOffset(long offset) throws IOException {
+        if (offset < 0 || offset >= archive.limit()) {
+            throw new IOException("Offset " + offset + " is outside of archive " + name);
+        }
+        return (int) offset;
+    }
+
+    private static int toIntSize(Entry entry, long size) throws IOException {
+        if (size < 0 || size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Entry too large: " + entry.name());
+        }
+        return (int) size;
+    }
+
+    public record Entry(
+            String name,
+            int method,
+            long crc,
+            long compressedSize,
+            long size,
+            long localHeaderOffset,
+            boolean encrypted
+    ) {
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * A {@code [offset, offset + length)} window into a byte array, ready for
+     * {@code new ClassReader(array, offset, length)}.
+     */
+    public record Bytes(byte[] array, int offset, int length) {
+    }
+
+    private static final class ReadContext {
+        // larger entries are rare, and a buffer grown for one would stay with the thread for good
+        private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+        private final Inflater inflater = new Inflater(true);
+        // ends the inflater when the context is released, or collected with its thread
+        private final Cleaner.Cleanable cleanable = CLEANER.register(this, inflater::end);
+        private byte[] buffer = new byte[64 * 1024];
+
+        private void release() {
+            cleanable.clean();
+        }
+
+        private byte[] buffer(int size) {
+            if (size > MAX_RETAINED_BUFFER) {
+                return new byte[size];
+            }
+            if (buffer.length < size) {
+                buffer = new byte[Math.min(MAX_RETAINED_BUFFER, Math.max(size, buffer.length * 2))];
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package org.example.util;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of non-negative {@code int}s with structural sharing.
+ *
+ * <p>Values are stored in a 32-way bitmapped trie keyed directly by their bits, which suits dense
+ * ids such as {@link SymbolTable} signature ids. {@link #with} copies only the path to the changed
+ * leaf, and {@link #union} reuses every subtree the two sets already share by reference, so sets
+ * derived from a common ancestor stay cheap to build and to keep.
+ */
+public final class PersistentIntSet {
+    public static final PersistentIntSet EMPTY = new PersistentIntSet(Node.EMPTY_LEAF, 0);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int MAX_SHIFT = 30;
+
+    private final Node root;
+    private final int shift;
+
+    private PersistentIntSet(Node root, int shift) {
+        this.root = root;
+        this.shift = shift;
+    }
+
+    public static PersistentIntSet of(int... values) {
+        return EMPTY.withAll(values);
+    }
+
+    public int size() {
+        return root.size;
+    }
+
+    public boolean isEmpty() {
+        return root.size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0 || !fits(value, shift)) {
+            return false;
+        }
+        Node node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            int bit = 1 << ((value >>> s) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return false;
+            }
+            node = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+        }
+        return (node.bitmap & (1 << (value & MASK))) != 0;
+    }
+
+    public PersistentIntSet with(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+        PersistentIntSet grown = this;
+        while (!fits(value, grown.shift)) {
+            grown = grown.grow();
+        }
+        Node newRoot = insert(grown.root, grown.shift, value);
+        return newRoot == grown.root ? grown : new PersistentIntSet(newRoot, grown.shift);
+    }
+
+    public PersistentIntSet withAll(int[] values) {
+        PersistentIntSet result = this;
+        for (int value : values) {
+            result = result.with(value);
+        }
+        return result;
+    }
+
+    /**
+     * Union of both sets. Returns {@code this} or {@code other} itself when one contains the other
+     * and shares its structure.
+     */
+    public PersistentIntSet union(PersistentIntSet other) {
+        if (other.isEmpty() || other == this) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        PersistentIntSet left = this;
+        PersistentIntSet right = other;
+        while (left.shift < right.shift) {
+            left = left.grow();
+        }
+        while (right.shift < left.shift) {
+            right = right.grow();
+        }
+        Node merged = merge(left.root, right.root, left.shift);
+        if (merged == left.root) {
+            return left;
+        }
+        if (merged == right.root) {
+            return right;
+        }
+        return new PersistentIntSet(merged, left.shift);
+    }
+
+    public void forEach(IntConsumer action) {
+        forEach(root, shift, 0, action);
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int[] index = {0};
+        forEach(value -> result[index[0]++] = value);
+        return result;
+    }
+
+    private PersistentIntSet grow() {
+        if (root.size == 0) {
+            return new PersistentIntSet(emptyNode(shift + BITS), shift + BITS);
+        }
+        return new PersistentIntSet(new Node(1, new Node[]{root}, root.size), shift + BITS);
+    }
+
+    private static boolean fits(int value, int shift) {
+        return shift + BITS > MAX_SHIFT || (value >>> (shift + BITS)) == 0;
+    }
+
+    private static Node insert(Node node, int shift, int value) {
+        if (shift == 0) {
+            int bit = 1 << (value & MASK);
+            return (node.bitmap & bit) != 0 ? node : new Node(node.bitmap | bit, null, node.size + 1);
+        }
+        int bit = 1 << ((value >>> shift) & MASK);
+        int position = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) != 0) {
+            Node child = node.children[position];
+            Node newChild = insert(child, shift - BITS, value);
+            if (newChild == child) {
+                return node;
+            }
+            Node[] children = node.children.clone();
+            children[position] = newChild;
+            return new Node(node.bitmap, children, node.size + 1);
+        }
+        Node newChild = insert(emptyNode(shift - BITS), shift - BITS, value);
+        Node[] children = new Node[node.children == null ? 1 : node.children.length + 1];
+        if (node.children != null) {
+            System.arraycopy(node.children, 0, children, 0, position);
+            System.arraycopy(node.children, position, children, position + 1, node.children.length - position);
+        }
+        children[position] = newChild;
+        return new Node(node.bitmap | bit, children, node.size + 1);
+    }
+
+    private static Node emptyNode(int shift) {
+        return shift == 0 ? Node.EMPTY_LEAF : Node.EMPTY_BRANCH;
+    }
+
+    private static Node merge(Node left, Node right, int shift) {
+        if (left == right || right.size == 0) {
+            return left;
+        }
+        if (left.size == 0) {
+            return right;
+        }
+        int bitmap = left.bitmap | right.bitmap;
+        if (shift == 0) {
+            if (bitmap == left.bitmap) {
+                return left;
+            }
+            return bitmap == right.bitmap ? right : new Node(bitmap, null, Integer.bitCount(bitmap));
+        }
+
+        Node[] children = new Node[Integer.bitCount(bitmap)];
+        boolean sameAsLeft = bitmap == left.bitmap;
+        boolean sameAsRight = bitmap == right.bitmap;
+        int size = 0;
+        int leftPosition = 0;
+        int rightPosition = 0;
+        for (int i = 0, remaining = bitmap; remaining != 0; i++, remaining &= remaining - 1) {
+            int bit = Integer.lowestOneBit(remaining);
+            Node leftChild = (left.bitmap & bit) != 0 ? left.children[leftPosition++] : null;
+            Node rightChild = (right.bitmap & bit) != 0 ? right.children[rightPosition++] : null;
+            Node child;
+            if (leftChild == null) {
+                child = rightChild;
+            } else if (rightChild == null) {
+                child = leftChild;
+            } else {
+                child = merge(leftChild, rightChild, shift - BITS);
+            }
+            sameAsLeft &= child == leftChild;
+            sameAsRight &= child == rightChild;
+            children[i] = child;
+            size += child.size;
+        }
+        if (sameAsLeft) {
+            return left;
+        }
+        return sameAsRight ? right : new Node(bitmap, children, size);
+    }
+
+    private static void forEach(Node node, int shift, int prefix, IntConsumer action) {
+        if (shift == 0) {
+            for (int remaining = node.bitmap; remaining != 0; remaining &= remaining - 1) {
+                action.accept(prefix | Integer.numberOfTrailingZeros(remaining));
+            }
+            return;
+        }
+        int position = 0;
+        for (int remaining = node.bitmap; remaining != 0; remaining &= remaining - 1) {
+            int index = Integer.numberOfTrailingZeros(remaining);
+            forEach(node.children[position++], shift - BITS, prefix | (index << shift), action);
+        }
+    }
+
+    private static final class Node {
+        private static final Node EMPTY_LEAF = new Node(0, null, 0);
+        private static final Node EMPTY_BRANCH = new Node(0, new Node[0], 0);
+
+        private final int bitmap;
+        private final Node[] children;
+        private final int size;
+
+        private Node(int bitmap, Node[] children, int size) {
+            this.bitmap = bitmap;
+            this.children = children;
+            this.size = size;
+        }
+    }
+}
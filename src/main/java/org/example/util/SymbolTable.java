@@ -0,0 +1,99 @@
+package org.example.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.example.model.MethodInfo;
+
+/**
+ * Thread-safe interning of class names and method signatures ({@code name + descriptor}) to
+ * dense {@code int} ids, starting at {@code 0} for each kind. Ids are only meaningful within one
+ * table; they depend on interning order and are therefore not stable across runs.
+ *
+ * <p>Lookups of already known symbols are lock-free; only the first occurrence of a symbol takes
+ * the table lock to assign its id.
+ */
+public final class SymbolTable {
+    public static final int NO_ID = -1;
+
+    private final ConcurrentHashMap<String, Integer> classIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MethodInfo, Integer> signatureIds = new ConcurrentHashMap<>();
+
+    private volatile String[] classNames = new String[1024];
+    private volatile MethodInfo[] signatures = new MethodInfo[1024];
+    private int classCount;
+    private int signatureCount;
+
+    /**
+     * Id of an internal class name, or {@link #NO_ID} for {@code null}.
+     */
+    public int classId(String name) {
+        if (name == null) {
+            return NO_ID;
+        }
+        Integer id = classIds.get(name);
+        return id != null ? id : internClass(name);
+    }
+
+    public int signatureId(String name, String descriptor) {
+        Integer id = signatureIds.get(new MethodInfo(name, descriptor));
+        return id != null ? id : internSignature(name, descriptor);
+    }
+
+    /**
+     * The class name for an id, or {@code null} for {@link #NO_ID}.
+     */
+    public String className(int id) {
+        return id == NO_ID ? null : classNames[id];
+    }
+
+    public MethodInfo signature(int id) {
+        return signatures[id];
+    }
+
+    public boolean isConstructorOrInitializer(int signatureId) {
+        MethodInfo method = signatures[signatureId];
+        return method.isConstructor() || method.isStaticInitializer();
+    }
+
+    public synchronized int classCount() {
+        return classCount;
+    }
+
+    public synchronized int signatureCount() {
+        return signatureCount;
+    }
+
+    private synchronized int internClass(String name) {
+        Integer existing = classIds.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int id = classCount++;
+        String[] names = classNames;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = name;
+        classNames = names;
+        classIds.put(name, id);
+        return id;
+    }
+
+    private synchronized int internSignature(String name, String descriptor) {
+        MethodInfo key = new MethodInfo(name, descriptor);
+        Integer existing = signatureIds.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int id = signatureCount++;
+        MethodInfo[] methods = signatures;
+        if (id == methods.length) {
+            methods = Arrays.copyOf(methods, methods.length * 2);
+        }
+        methods[id] = key;
+        signatures = methods;
+        signatureIds.put(key, id);
+        return id;
+    }
+}
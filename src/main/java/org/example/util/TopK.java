@@ -0,0 +1,53 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The {@code k} greatest values offered so far, kept in a bounded min-heap: offering costs
+ * {@code O(log k)} and memory never exceeds {@code k} values. Instances filled by parallel
+ * workers combine with {@link #merge}; as long as {@code order} is total, the result does not
+ * depend on how values were split between them.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public final class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    public TopK(int k, Comparator<? super T> order) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(k + 1, order);
+    }
+
+    public void offer(T value) {
+        if (heap.size() < k) {
+            heap.add(value);
+        } else if (order.compare(value, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(value);
+        }
+    }
+
+    public void merge(TopK<T> other) {
+        for (T value : other.heap) {
+            offer(value);
+        }
+    }
+
+    /**
+     * The retained values, greatest first.
+     */
+    public List<T> toList() {
+        List<T> values = new ArrayList<>(heap);
+        values.sort(order.reversed());
+        return values;
+    }
+}
@@ -10,7 +10,14 @@ public class ABCMetricsMethodVisitor extends MethodVisitor {
     private final ABCMetrics metrics;
 
     public ABCMetricsMethodVisitor(ABCMetrics metrics) {
-        super(Opcodes.ASM9);
+        this(metrics, null);
+    }
+
+    /**
+     * @param methodVisitor visitor every event is passed on to after counting, or {@code null}
+     */
+    public ABCMetricsMethodVisitor(ABCMetrics metrics, MethodVisitor methodVisitor) {
+        super(Opcodes.ASM9, methodVisitor);
         this.metrics = metrics;
     }
 
@@ -0,0 +1,74 @@
+package org.example.visitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.model.MethodInfo;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Collects the hierarchy-relevant part of a class: name, superclass, interfaces and method
+ * signatures. Meant to be run with {@code ClassReader.SKIP_CODE}, since it never looks at
+ * method bodies.
+ */
+public class ClassHeaderVisitor extends ClassVisitor {
+    private String name;
+    private String superName;
+    private String[] interfaces;
+    private boolean isInterface;
+    private final List<MethodInfo> methods = new ArrayList<>();
+
+    public ClassHeaderVisitor() {
+        super(Opcodes.ASM9);
+    }
+
+    @Override
+    public void visit(
+            int version,
+            int access,
+            String name,
+            String signature,
+            String superName,
+            String[] interfaces
+    ) {
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces == null ? new String[0] : interfaces;
+        this.isInterface = (access & Opcodes.ACC_INTERFACE) != 0;
+        super.visit(version, access, name, signature, superName, interfaces);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+            int access,
+            String name,
+            String descriptor,
+            String signature,
+            String[] exceptions
+    ) {
+        methods.add(new MethodInfo(name, descriptor));
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public String[] getInterfaces() {
+        return interfaces;
+    }
+
+    public boolean isInterface() {
+        return isInterface;
+    }
+
+    public List<MethodInfo> getMethods() {
+        return methods;
+    }
+}
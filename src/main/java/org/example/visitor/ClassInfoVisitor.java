@@ -3,7 +3,8 @@ package org.example.visitor;
 import org.example.model.ABCMetrics;
 import org.example.model.ClassInfo;
 import org.example.model.ClassInfo.Builder;
-import org.example.model.MethodInfo;
+import org.example.plugin.PluginAccumulators;
+import org.example.util.SymbolTable;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.MethodVisitor;
@@ -13,9 +14,27 @@ public class ClassInfoVisitor extends ClassVisitor {
     private final Builder builder;
     private final ABCMetrics abcMetrics;
 
+    /**
+     * Interns into a symbol table of its own, see {@link ClassInfo#builder()}.
+     */
     public ClassInfoVisitor() {
-        super(Opcodes.ASM9);
-        this.builder = ClassInfo.builder();
+        this(new SymbolTable());
+    }
+
+    public ClassInfoVisitor(SymbolTable symbols) {
+        this(symbols, null);
+    }
+
+    /**
+     * Also passes every event on to the plugins' visitors, after collecting from it, so that
+     * plugins share this visitor's single pass over the class.
+     *
+     * @param plugins accumulators for this class, attached to the resulting {@link ClassInfo}, or
+     *                {@code null} without plugins
+     */
+    public ClassInfoVisitor(SymbolTable symbols, PluginAccumulators plugins) {
+        super(Opcodes.ASM9, plugins == null ? null : plugins.classVisitor());
+        this.builder = ClassInfo.builder(symbols).pluginAccumulators(plugins);
         this.abcMetrics = new ABCMetrics();
     }
 
@@ -56,21 +75,39 @@ public class ClassInfoVisitor extends ClassVisitor {
             String signature,
             String[] exceptions
     ) {
-        MethodInfo methodInfo = new MethodInfo(name, descriptor);
-        builder.addMethod(methodInfo);
+        builder.addMethod(name, descriptor);
 
         ABCMetrics methodMetrics = new ABCMetrics();
-        
-        return new ABCMetricsMethodVisitor(methodMetrics) {
+        MethodVisitor next = super.visitMethod(access, name, descriptor, signature, exceptions);
+
+        return new ABCMetricsMethodVisitor(methodMetrics, next) {
+            private boolean hasCode;
+
+            @Override
+            public void visitCode() {
+                hasCode = true;
+                super.visitCode();
+            }
 
             @Override
             public void visitEnd() {
                 abcMetrics.add(methodMetrics);
+                if (hasCode) {
+                    builder.addMethodMetrics(name, descriptor, methodMetrics.getAssignments(),
+                            methodMetrics.getBranches(), methodMetrics.getConditions());
+                }
+                methodVisited(name, descriptor, methodMetrics);
                 super.visitEnd();
             }
         };
     }
 
+    /**
+     * Called once the body of a method has been visited, with its own ABC counts.
+     */
+    protected void methodVisited(String name, String descriptor, ABCMetrics metrics) {
+    }
+
     @Override
     public void visitEnd() {
         builder.abcMetrics(abcMetrics);
@@ -0,0 +1,28 @@
+package org.example.visitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.model.ABCMetrics;
+import org.example.model.ClassReport.MethodReport;
+import org.example.util.SymbolTable;
+
+/**
+ * {@link ClassInfoVisitor} that also keeps the ABC counts of every method, in declaration order.
+ */
+public class ClassReportVisitor extends ClassInfoVisitor {
+    private final List<MethodReport> methods = new ArrayList<>();
+
+    public ClassReportVisitor(SymbolTable symbols) {
+        super(symbols);
+    }
+
+    @Override
+    protected void methodVisited(String name, String descriptor, ABCMetrics metrics) {
+        methods.add(MethodReport.from(name, descriptor, metrics));
+    }
+
+    public List<MethodReport> getMethodReports() {
+        return List.copyOf(methods);
+    }
+}
@@ -0,0 +1,161 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.net.UnixDomainSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.ClassInfo;
+import org.example.service.JarProcessor;
+import org.example.util.SymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AnalyzerDaemonTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void analyzesTheRequestedJar() throws IOException, InterruptedException {
+        try (AnalyzerDaemon daemon = new AnalyzerDaemon(JarAnalyzer.builder().build(), 1, 0)) {
+            int port = daemon.startHttp(0);
+
+            HttpResponse<String> response = get(port, "/analyze?jar=" + encode(sampleJar().toString()));
+
+            assertEquals(200, response.statusCode());
+            JsonNode body = objectMapper.readTree(response.body());
+            assertEquals(sampleJar().toString(), body.get("jarPath").asText());
+            assertEquals("sample.jar", body.get("jarFileName").asText());
+        }
+    }
+
+    @Test
+    void rejectsMalformedRequests() throws IOException, InterruptedException {
+        try (AnalyzerDaemon daemon = new AnalyzerDaemon(JarAnalyzer.builder().build(), 1, 0)) {
+            int port = daemon.startHttp(0);
+
+            HttpResponse<String> noJar = client.send(HttpRequest.newBuilder(uri(port, "/analyze"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{}")).build(), HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> missingJar = get(port, "/analyze?jar=" + encode(dir.resolve("missing.jar").toString()));
+
+            assertEquals(400, noJar.statusCode());
+            assertEquals(400, missingJar.statusCode());
+            assertEquals("Input file does not exist: " + dir.resolve("missing.jar"),
+                    objectMapper.readTree(missingJar.body()).get("error").asText());
+        }
+    }
+
+    @Test
+    void rejectsRequestsBeyondTheAdmissionLimits() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        JarProcessor blocking = new JarProcessor() {
+            @Override
+            public <R> R process(Path jarPath, SymbolTable symbols, Supplier<R> supplier,
+                                 BiConsumer<R, ? super ClassInfo> accumulator, BiConsumer<R, R> combiner)
+                    throws IOException {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return super.process(jarPath, symbols, supplier, accumulator, combiner);
+            }
+        };
+        try (AnalyzerDaemon daemon = new AnalyzerDaemon(JarAnalyzer.builder().build(blocking), 1, 0)) {
+            int port = daemon.startHttp(0);
+            String path = "/analyze?jar=" + encode(sampleJar().toString());
+            CompletableFuture<HttpResponse<String>> first = client.sendAsync(
+                    HttpRequest.newBuilder(uri(port, path)).build(), HttpResponse.BodyHandlers.ofString());
+            started.await();
+
+            HttpResponse<String> second = get(port, path);
+            release.countDown();
+
+            assertEquals(503, second.statusCode());
+            assertEquals("1", second.headers().firstValue("Retry-After").orElse(null));
+            assertEquals(200, first.get().statusCode());
+        }
+    }
+
+    @Test
+    void unixSocketReplacesAStaleSocket() throws IOException {
+        Path socket = dir.resolve("daemon.sock");
+        try (ServerSocketChannel stale = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            stale.bind(UnixDomainSocketAddress.of(socket));
+        }
+
+        try (AnalyzerDaemon daemon = new AnalyzerDaemon(JarAnalyzer.builder().build(), 1, 0)) {
+            daemon.startUnixSocket(socket);
+
+            try (SocketChannel connection = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+                 Writer out = Channels.newWriter(connection, StandardCharsets.UTF_8);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection),
+                         StandardCharsets.UTF_8))) {
+                out.write(objectMapper.createObjectNode().put("jar", sampleJar().toString()) + "\n");
+                out.flush();
+
+                assertEquals(sampleJar().toString(), objectMapper.readTree(in.readLine()).get("jarPath").asText());
+            }
+        }
+    }
+
+    @Test
+    void unixSocketRefusesToReplaceARegularFile() throws IOException {
+        Path file = dir.resolve("daemon.sock");
+        Files.writeString(file, "keep me");
+
+        try (AnalyzerDaemon daemon = new AnalyzerDaemon(JarAnalyzer.builder().build(), 1, 0)) {
+            assertThrows(FileAlreadyExistsException.class, () -> daemon.startUnixSocket(file));
+        }
+        assertEquals("keep me", Files.readString(file));
+    }
+
+    private HttpResponse<String> get(int port, String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(port, path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(int port, String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Path sampleJar() {
+        try {
+            return Path.of(AnalyzerDaemonTest.class.getResource("/sample.jar").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
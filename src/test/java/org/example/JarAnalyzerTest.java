@@ -0,0 +1,112 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.JarAnalysisResult;
+import org.example.service.JarProcessor.Engine;
+import org.example.service.JarProcessor.Ingestion;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JarAnalyzerTest {
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(ints = {ZipEntry.STORED, ZipEntry.DEFLATED})
+    void nestedJarsAreAnalyzedLikeStandaloneOnes(int method) throws IOException {
+        Path sample = sampleJar();
+        byte[] inner = Files.readAllBytes(sample);
+        Path fatJar = dir.resolve("fat.jar");
+        try (OutputStream out = Files.newOutputStream(fatJar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            ZipEntry entry = new ZipEntry("BOOT-INF/lib/sample.jar");
+            if (method == ZipEntry.STORED) {
+                CRC32 crc = new CRC32();
+                crc.update(inner);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(inner.length);
+                entry.setCrc(crc.getValue());
+            }
+            zip.putNextEntry(entry);
+            zip.write(inner);
+        }
+        JarAnalyzer analyzer = JarAnalyzer.builder().build();
+
+        JarAnalysisResult standalone = analyzer.analyze(sample);
+        JarAnalysisResult fat = analyzer.withNestedJars(true).analyze(fatJar);
+
+        assertEquals(1, fat.nestedJars().size());
+        JarAnalysisResult nested = fat.nestedJars().get(0);
+        assertEquals("BOOT-INF/lib/sample.jar", nested.jarFileName());
+        assertEquals(standalone.totalClasses(), nested.totalClasses());
+        assertEquals(standalone.abc(), nested.abc());
+        assertEquals(standalone.totalClasses(), fat.totalClasses());
+    }
+
+    @ParameterizedTest
+    @MethodSource("configurations")
+    void everyConfigurationMatchesTheSequentialBaseline(int threads, Ingestion ingestion, boolean streaming,
+                                                       Engine engine) throws IOException {
+        JarAnalyzer baseline = JarAnalyzer.builder().build();
+        JarAnalyzer analyzer = JarAnalyzer.builder()
+                .parallelism(threads)
+                .ingestion(ingestion)
+                .streaming(streaming)
+                .engine(engine)
+                .build();
+
+        for (Path jar : List.of(sampleJar(), jarOf(ObjectMapper.class), jarOf(LoggerContext.class))) {
+            assertEquals(baseline.analyze(jar), analyzer.analyze(jar), jar.getFileName().toString());
+        }
+    }
+
+    static Stream<Arguments> configurations() {
+        List<Arguments> configurations = new ArrayList<>();
+        for (int threads : new int[]{1, 4}) {
+            for (Ingestion ingestion : Ingestion.values()) {
+                for (boolean streaming : new boolean[]{false, true}) {
+                    for (Engine engine : Engine.values()) {
+                        configurations.add(Arguments.of(threads, ingestion, streaming, engine));
+                    }
+                }
+            }
+        }
+        return configurations.stream();
+    }
+
+    /**
+     * The jar a class on the test classpath was loaded from.
+     */
+    private static Path jarOf(Class<?> type) {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path sampleJar() {
+        try {
+            return Path.of(JarAnalyzerTest.class.getResource("/sample.jar").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.agent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+class CoverageTransformerTest {
+    private final CoverageTransformer transformer = new CoverageTransformer(CoverageOptions.parse("includes=coverage.*"));
+
+    @Test
+    void probesRecordTheLinesThatRan() throws ReflectiveOperationException {
+        TestLoader loader = new TestLoader();
+        byte[] instrumented = transformer.transform(loader, "coverage/Subject", null, null, subject(0));
+        assertNotNull(instrumented);
+        Class<?> type = loader.define("coverage.Subject", instrumented);
+
+        IntUnaryOperator subject = newSubject(type);
+        assertEquals(6, subject.applyAsInt(3));
+
+        CoverageRuntime.ClassProbes probes = CoverageRuntime.get(transformer.classId(type));
+        assertEquals("coverage/Subject", probes.className());
+        assertEquals("Subject.java", probes.sourceFile());
+        assertArrayEquals(new int[] {5, 10, 11, 12}, probes.probeLines());
+        assertArrayEquals(new boolean[] {true, true, true, false}, probes.probes());
+
+        assertEquals(3, subject.applyAsInt(-3));
+        assertArrayEquals(new boolean[] {true, true, true, true}, probes.probes());
+    }
+
+    @Test
+    void retransformationDropsFiredProbesAndKeepsTheArray() throws ReflectiveOperationException {
+        TestLoader loader = new TestLoader();
+        byte[] original = subject(0);
+        Class<?> type = loader.define("coverage.Subject", transformer.transform(loader, "coverage/Subject", null, null,
+                original));
+        newSubject(type).applyAsInt(3);
+        int classId = transformer.classId(type);
+
+        byte[] reinstrumented = transformer.transform(loader, "coverage/Subject", type, null, original);
+
+        assertEquals(1, probeCount(reinstrumented));
+        CoverageRuntime.ClassProbes probes = CoverageRuntime.get(classId);
+        assertEquals(3, probes.removedProbes());
+        // defined afresh, its static initializer fetches the array the JVM would have kept
+        IntUnaryOperator retransformed = newSubject(new TestLoader().define("coverage.Subject", reinstrumented));
+        assertEquals(3, retransformed.applyAsInt(-3));
+        assertArrayEquals(new boolean[] {true, true, true, true}, probes.probes());
+    }
+
+    @Test
+    void retransformationRejectsChangedLineNumbers() throws ReflectiveOperationException {
+        TestLoader loader = new TestLoader();
+        Class<?> type = loader.define("coverage.Subject", transformer.transform(loader, "coverage/Subject", null, null,
+                subject(0)));
+        newSubject(type).applyAsInt(3);
+        int classId = transformer.classId(type);
+
+        assertThrows(IllegalStateException.class, () -> CoverageTransformer.reinstrument(classId, subject(1)));
+        assertNull(transformer.transform(loader, "coverage/Subject", type, null, subject(1)));
+        assertEquals(0, CoverageRuntime.get(classId).removedProbes());
+    }
+
+    @Test
+    void classThatFailsToWriteIsNeitherInstrumentedNorReported() {
+        // fits as compiled, but eight bytes of probe per line push the method past 64 KiB
+        byte[] large = large(20_000);
+        int classCount = CoverageRuntime.snapshot().size();
+        TestLoader loader = new TestLoader();
+
+        assertNull(transformer.transform(loader, "coverage/Large", null, null, large));
+
+        Class<?> type = loader.define("coverage.Large", large);
+        assertEquals(-1, transformer.classId(type));
+        List<CoverageRuntime.ClassProbes> reserved = CoverageRuntime.snapshot();
+        for (CoverageRuntime.ClassProbes probes : reserved.subList(classCount, reserved.size())) {
+            assertEquals(0, probes.probeLines().length, probes.className());
+        }
+    }
+
+    @Test
+    void classesLeftUninstrumentedGiveTheirIdsBack() {
+        byte[] withoutLines = large(0);
+        byte[] tooLarge = large(20_000);
+        assertNull(transformer.transform(new TestLoader(), "coverage/Large", null, null, withoutLines));
+        int classCount = CoverageRuntime.snapshot().size();
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(transformer.transform(new TestLoader(), "coverage/Large", null, null, withoutLines));
+            assertNull(transformer.transform(new TestLoader(), "coverage/Large", null, null, tooLarge));
+        }
+        assertEquals(classCount, CoverageRuntime.snapshot().size());
+    }
+
+    private static IntUnaryOperator newSubject(Class<?> type) throws ReflectiveOperationException {
+        return (IntUnaryOperator) type.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Probes that write to the probe array, as opposed to the static initializer storing it.
+     */
+    private static int probeCount(byte[] bytes) {
+        int[] count = new int[1];
+        new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                             String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+                        if (opcode == Opcodes.GETSTATIC && name.equals(CoverageTransformer.PROBES_FIELD)) {
+                            count[0]++;
+                        }
+                    }
+                };
+            }
+        }, 0);
+        return count[0];
+    }
+
+    /**
+     * {@code int applyAsInt(int x)} returning {@code 2 * x} for positive {@code x}, else
+     * {@code -x}, its test on line 10 and its two returns on lines 11 and 12, and a constructor
+     * on line 5; all lines shifted by {@code shift}.
+     */
+    private static byte[] subject(int shift) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, "coverage/Subject", null, "java/lang/Object",
+                new String[] {Type.getInternalName(IntUnaryOperator.class)});
+        writer.visitSource("Subject.java", null);
+        MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        line(init, 5 + shift);
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor apply = writer.visitMethod(Opcodes.ACC_PUBLIC, "applyAsInt", "(I)I", null, null);
+        apply.visitCode();
+        Label negative = new Label();
+        line(apply, 10 + shift);
+        apply.visitVarInsn(Opcodes.ILOAD, 1);
+        apply.visitJumpInsn(Opcodes.IFLE, negative);
+        line(apply, 11 + shift);
+        apply.visitVarInsn(Opcodes.ILOAD, 1);
+        apply.visitInsn(Opcodes.ICONST_2);
+        apply.visitInsn(Opcodes.IMUL);
+        apply.visitInsn(Opcodes.IRETURN);
+        apply.visitLabel(negative);
+        line(apply, 12 + shift);
+        apply.visitVarInsn(Opcodes.ILOAD, 1);
+        apply.visitInsn(Opcodes.INEG);
+        apply.visitInsn(Opcodes.IRETURN);
+        apply.visitMaxs(0, 0);
+        apply.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * A class with one static method of {@code lines} lines, each a single {@code NOP}, and no
+     * line numbers at all for {@code 0}.
+     */
+    private static byte[] large(int lines) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, "coverage/Large", null, "java/lang/Object", null);
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_STATIC, "run", "()V", null, null);
+        method.visitCode();
+        for (int i = 1; i <= lines; i++) {
+            line(method, i);
+            method.visitInsn(Opcodes.NOP);
+        }
+        method.visitInsn(Opcodes.RETURN);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void line(MethodVisitor method, int line) {
+        Label label = new Label();
+        method.visitLabel(label);
+        method.visitLineNumber(line, label);
+    }
+
+    private static final class TestLoader extends ClassLoader {
+        TestLoader() {
+            super(CoverageTransformerTest.class.getClassLoader());
+        }
+
+        Class<?> define(String className, byte[] bytes) {
+            return defineClass(className, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ProbeRemoverTest {
+    private final ProbeRemover remover = new ProbeRemover(null, null);
+
+    @Test
+    void classIsDueOnceHalfOfItsRemainingProbesFired() {
+        assertEquals(BitSet.valueOf(new long[] {0b10}), remover.due(List.of(
+                probes(8, 3, 0),
+                probes(8, 4, 0))));
+    }
+
+    @Test
+    void classIsDueOnceItsHitsSettle() {
+        List<CoverageRuntime.ClassProbes> warmingUp = List.of(probes(8, 1, 0));
+        assertEquals(new BitSet(), remover.due(warmingUp));
+
+        assertEquals(BitSet.valueOf(new long[] {0b1}), remover.due(warmingUp));
+    }
+
+    @Test
+    void classWithoutNewlyFiredProbesIsNeverDue() {
+        List<CoverageRuntime.ClassProbes> idle = List.of(probes(8, 0, 0), probes(8, 3, 3));
+        remover.due(idle);
+
+        assertEquals(new BitSet(), remover.due(idle));
+    }
+
+    @Test
+    void removedProbesNoLongerCountAsRemaining() {
+        // 2 new hits out of the 4 probes the class still contains
+        assertEquals(BitSet.valueOf(new long[] {0b1}), remover.due(List.of(probes(8, 6, 4))));
+    }
+
+    private static CoverageRuntime.ClassProbes probes(int count, int hits, int removed) {
+        boolean[] probes = new boolean[count];
+        for (int i = 0; i < hits; i++) {
+            probes[i] = true;
+        }
+        return new CoverageRuntime.ClassProbes("p/C", "C.java", new int[count], probes, removed);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.example.plugin.AllocationSitesPlugin.AllocationSites;
+import org.example.plugin.AllocationSitesPlugin.ClassSites;
+import org.example.plugin.AllocationSitesPlugin.Sites;
+import org.example.service.MetricsAccumulator;
+import org.junit.jupiter.api.Test;
+
+class AllocationSitesPluginTest {
+    private final AllocationSitesPlugin plugin = new AllocationSitesPlugin();
+
+    @Test
+    void ranksClassesMergedAcrossWorkers() {
+        List<ClassSites> classes = new ArrayList<>();
+        for (int i = 0; i < 2 * MetricsAccumulator.HOTSPOT_COUNT; i++) {
+            classes.add(new ClassSites("c/C" + i, i % 7, i % 5));
+        }
+        Sites first = plugin.newAccumulator();
+        Sites second = plugin.newAccumulator();
+        for (int i = 0; i < classes.size(); i++) {
+            (i % 3 == 0 ? first : second).merge(sitesOf(classes.get(i)));
+        }
+        first.merge(second);
+
+        AllocationSites section = plugin.section(first);
+
+        List<ClassSites> expected = classes.stream()
+                .filter(sites -> sites.total() > 0)
+                .sorted(Comparator.comparingLong(ClassSites::total).reversed().thenComparing(ClassSites::className))
+                .limit(MetricsAccumulator.HOTSPOT_COUNT)
+                .toList();
+        assertEquals(classes.stream().mapToLong(ClassSites::objects).sum(), section.objects());
+        assertEquals(classes.stream().mapToLong(ClassSites::arrays).sum(), section.arrays());
+        assertEquals(expected, section.classesBySites());
+    }
+
+    @Test
+    void reportsASingleClassWithoutRanking() {
+        Sites sites = plugin.newAccumulator();
+        sites.merge(sitesOf(new ClassSites("c/Empty", 0, 0)));
+        sites.merge(sitesOf(new ClassSites("c/Only", 2, 1)));
+
+        assertEquals(new AllocationSites(2, 1, List.of(new ClassSites("c/Only", 2, 1))), plugin.section(sites));
+        assertEquals(List.of(), plugin.section(plugin.newAccumulator()).classesBySites());
+    }
+
+    private Sites sitesOf(ClassSites classSites) {
+        Sites sites = plugin.newAccumulator();
+        sites.add(classSites.className(), classSites.objects(), classSites.arrays());
+        return sites;
+    }
+}
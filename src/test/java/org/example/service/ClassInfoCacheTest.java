@@ -0,0 +1,84 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.example.model.ClassInfo;
+import org.example.model.JarAnalysisResult.CacheStatistics;
+import org.example.model.MethodInfo;
+import org.example.model.MethodMetrics;
+import org.example.util.SymbolTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClassInfoCacheTest {
+    private final SymbolTable symbols = new SymbolTable();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void statisticsCoverTheCurrentRun() {
+        ClassInfoCache cache = ClassInfoCache.inMemory(10);
+        ClassInfo classInfo = ClassInfo.builder(symbols).name("a/A").superName("java/lang/Object").build();
+        assertNull(cache.lookup("a/A.class", 1, 2, symbols));
+        cache.store("a/A.class", 1, 2, classInfo, 3_000_000);
+        assertNotNull(cache.lookup("a/A.class", 1, 2, symbols));
+
+        CacheStatistics finished = cache.nextRun();
+
+        assertEquals(new CacheStatistics(1, 1, 0.5, 3), finished);
+        assertEquals(new CacheStatistics(0, 0, 0, 0), cache.statistics());
+        assertNotNull(cache.lookup("a/A.class", 1, 2, symbols));
+        assertEquals(new CacheStatistics(1, 0, 1, 3), cache.statistics());
+    }
+
+    @Test
+    void nextRunEvictsLeastRecentlyUsedBeyondTheCap() {
+        ClassInfoCache cache = ClassInfoCache.inMemory(1);
+        cache.store("a/A.class", 1, 1, ClassInfo.builder(symbols).name("a/A").build(), 0);
+        cache.nextRun();
+        cache.store("a/B.class", 2, 2, ClassInfo.builder(symbols).name("a/B").build(), 0);
+
+        cache.nextRun();
+
+        assertNull(cache.lookup("a/A.class", 1, 1, symbols));
+        assertNotNull(cache.lookup("a/B.class", 2, 2, symbols));
+    }
+
+    @Test
+    void methodCountsSurviveSaveAndLoad() throws IOException {
+        ClassInfo classInfo = ClassInfo.builder(symbols).name("a/A").superName("java/lang/Object")
+                .addMethod("run", "(I)I").addMethodMetrics("run", "(I)I", 3, 2, 1)
+                .addMethod("<init>", "()V").addMethodMetrics("<init>", "()V", 0, 1, 0)
+                .addMethod("abstractOne", "()V")
+                .build();
+        Path file = dir.resolve("classes.cache");
+        ClassInfoCache cache = ClassInfoCache.load(file, 10);
+        cache.store("a/A.class", 1, 2, classInfo, 0);
+        cache.save();
+
+        SymbolTable loadedSymbols = new SymbolTable();
+        ClassInfo loaded = ClassInfoCache.load(file, 10).lookup("a/A.class", 1, 2, loadedSymbols);
+
+        assertNotNull(loaded);
+        assertEquals(classInfo.getMethods(), loaded.getMethods());
+        assertEquals(List.of("run(I)I 3 2 1", "<init>()V 0 1 0"), describe(loaded));
+    }
+
+    private static List<String> describe(ClassInfo classInfo) {
+        return classInfo.getMethodMetrics().stream()
+                .map(metrics -> describe(classInfo.getSymbols().signature(metrics.signatureId()), metrics))
+                .toList();
+    }
+
+    private static String describe(MethodInfo method, MethodMetrics metrics) {
+        return method.name() + method.descriptor() + " " + metrics.assignments() + " " + metrics.branches()
+                + " " + metrics.conditions();
+    }
+}
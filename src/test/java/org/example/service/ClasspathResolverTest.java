@@ -0,0 +1,54 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.example.service.ClasspathResolver.ClassHeader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClasspathResolverTest {
+    private static final String CLASS_NAME = ClasspathResolverTest.class.getName().replace('.', '/');
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsClassesInDirectories() throws IOException {
+        Path root = dir.resolve("classes");
+        copyClassTo(root.resolve(CLASS_NAME + ".class"));
+
+        try (ClasspathResolver resolver = ClasspathResolver.of(List.of(root.toString()))) {
+            ClassHeader header = resolver.find(CLASS_NAME);
+            assertEquals(CLASS_NAME, header.name());
+            assertEquals("java/lang/Object", header.superName());
+        }
+    }
+
+    @Test
+    void classNamesDoNotEscapeTheDirectory() throws IOException {
+        Path root = dir.resolve("classes");
+        Files.createDirectories(root);
+        Path outside = dir.resolve("Outside.class");
+        copyClassTo(outside);
+
+        try (ClasspathResolver resolver = ClasspathResolver.of(List.of(root.toString()))) {
+            assertNull(resolver.find("../Outside"));
+            assertNull(resolver.find("a/../../Outside"));
+            assertNull(resolver.find(outside.toAbsolutePath().toString().replace(".class", "")));
+        }
+    }
+
+    private static void copyClassTo(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (InputStream in = ClasspathResolverTest.class.getResourceAsStream("ClasspathResolverTest.class")) {
+            Files.copy(in, file);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.example.model.TypeNode;
+import org.example.util.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+class HierarchyIndexTest {
+    private final SymbolTable symbols = new SymbolTable();
+    private final Map<Integer, TypeNode> types = new HashMap<>();
+
+    @Test
+    void cyclesResolveTheSameWhicheverTypeIsLookedUpFirst() {
+        // A -> B -> C -> A, with D and E hanging off the cycle and F outside it
+        type("A", "B");
+        type("B", "C");
+        type("C", "A");
+        type("D", "A");
+        type("E", "D");
+        type("F", null);
+        Map<String, Integer> expected = Map.of("A", 3, "B", 3, "C", 3, "D", 4, "E", 5, "F", 1);
+        List<String> names = List.of("A", "B", "C", "D", "E", "F");
+
+        for (int first = 0; first < names.size(); first++) {
+            HierarchyIndex index = new HierarchyIndex(symbols, types::get);
+            List<String> order = new ArrayList<>(names.subList(first, names.size()));
+            order.addAll(names.subList(0, first));
+            for (String name : order) {
+                assertEquals(expected.get(name), index.depth(symbols.classId(name)), name + ", starting at " + order);
+            }
+            assertEquals(1, index.getCycles().size());
+            assertEquals(3, index.getCycles().get(0).size());
+        }
+    }
+
+    private void type(String name, String superName) {
+        int nameId = symbols.classId(name);
+        int superNameId = symbols.classId(superName == null ? "java/lang/Object" : superName);
+        types.put(nameId, new TypeNode(nameId, superNameId, new int[0], false, new int[0]));
+    }
+}
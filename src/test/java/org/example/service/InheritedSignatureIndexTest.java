@@ -0,0 +1,122 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.example.model.TypeNode;
+import org.example.util.PersistentIntSet;
+import org.example.util.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+class InheritedSignatureIndexTest {
+    private final SymbolTable symbols = new SymbolTable();
+    private final Map<Integer, TypeNode> types = new HashMap<>();
+
+    @Test
+    void cyclesResolveTheSameWhicheverTypeIsLookedUpFirst() {
+        // I1 -> I2 -> I3 -> I1 with I2 -> I4 leading out of the cycle,
+        // and A -> B -> C -> A with A implementing I4 and D extending into the cycle
+        type("I1", null, List.of("I2"), true, "m1");
+        type("I2", null, List.of("I3", "I4"), true, "m2");
+        type("I3", null, List.of("I1"), true, "m3");
+        type("I4", null, List.of(), true, "m4");
+        type("A", "B", List.of("I4"), false, "a");
+        type("B", "C", List.of(), false, "b");
+        type("C", "A", List.of(), false, "c");
+        type("D", "A", List.of(), false, "d");
+        Map<String, Set<String>> expected = new HashMap<>();
+        for (String name : List.of("I1", "I2", "I3")) {
+            expected.put("interface " + name, Set.of("m1", "m2", "m3", "m4"));
+        }
+        expected.put("interface I4", Set.of("m4"));
+        for (String name : List.of("A", "B", "C")) {
+            expected.put("superclass " + name, Set.of("a", "b", "c", "m4"));
+        }
+        expected.put("superclass D", Set.of("a", "b", "c", "d", "m4"));
+        List<String> lookups = new ArrayList<>(new TreeSet<>(expected.keySet()));
+
+        for (int first = 0; first < lookups.size(); first++) {
+            InheritedSignatureIndex index = new InheritedSignatureIndex(symbols, types::get);
+            List<String> order = new ArrayList<>(lookups.subList(first, lookups.size()));
+            order.addAll(lookups.subList(0, first));
+            for (String lookup : order) {
+                assertEquals(expected.get(lookup), names(lookup(index, lookup)), lookup + ", starting at " + order);
+            }
+            assertFalse(index.getCycles().isEmpty());
+        }
+    }
+
+    @Test
+    void deepChainsNeedNoDeepThreadStack() throws Throwable {
+        // superclass and superinterface chains far deeper than a small stack could follow recursively
+        int length = 100_000;
+        for (int i = 0; i < length; i++) {
+            type("C" + i, i == 0 ? null : "C" + (i - 1), List.of(), false, "c" + i);
+            type("I" + i, null, i == 0 ? List.of() : List.of("I" + (i - 1)), true, "i" + i);
+        }
+        type("Leaf", "C" + (length - 1), List.of("I" + (length - 1)), false, "leaf");
+        int leaf = symbols.classId("Leaf");
+        int deepestClass = symbols.classId("C" + (length - 1));
+        int deepestInterface = symbols.classId("I" + (length - 1));
+        int[] depth = new int[1];
+        PersistentIntSet[] inherited = new PersistentIntSet[2];
+
+        Throwable failure = runWithStack(256 * 1024, () -> {
+            depth[0] = new HierarchyIndex(symbols, types::get).depth(leaf);
+            InheritedSignatureIndex index = new InheritedSignatureIndex(symbols, types::get);
+            inherited[0] = index.fromSuperClass(deepestClass);
+            inherited[1] = index.fromInterface(deepestInterface);
+        });
+
+        if (failure != null) {
+            throw failure;
+        }
+        assertEquals(length + 1, depth[0]);
+        assertEquals(length, inherited[0].size());
+        assertTrue(inherited[0].contains(symbols.signatureId("c0", "()V")));
+        assertEquals(length, inherited[1].size());
+        assertTrue(inherited[1].contains(symbols.signatureId("i0", "()V")));
+    }
+
+    private static Throwable runWithStack(long stackSize, Runnable task) throws InterruptedException {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        }, "small-stack", stackSize);
+        thread.start();
+        thread.join();
+        return failure[0];
+    }
+
+    private PersistentIntSet lookup(InheritedSignatureIndex index, String lookup) {
+        String[] kindAndName = lookup.split(" ");
+        int id = symbols.classId(kindAndName[1]);
+        return kindAndName[0].equals("superclass") ? index.fromSuperClass(id) : index.fromInterface(id);
+    }
+
+    private void type(String name, String superName, List<String> interfaces, boolean isInterface, String method) {
+        int nameId = symbols.classId(name);
+        int[] interfaceIds = interfaces.stream().mapToInt(symbols::classId).toArray();
+        int superNameId = symbols.classId(superName == null ? "java/lang/Object" : superName);
+        int[] methodIds = {symbols.signatureId(method, "()V")};
+        types.put(nameId, new TypeNode(nameId, superNameId, interfaceIds, isInterface, methodIds));
+    }
+
+    private Set<String> names(PersistentIntSet signatures) {
+        Set<String> names = new TreeSet<>();
+        signatures.forEach(id -> names.add(symbols.signature(id).name()));
+        return names;
+    }
+}
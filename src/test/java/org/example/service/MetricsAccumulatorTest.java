@@ -0,0 +1,79 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.example.model.ClassInfo;
+import org.example.model.MethodInfo;
+import org.example.service.MetricsAccumulator.RankedMethod;
+import org.example.util.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+class MetricsAccumulatorTest {
+    @Test
+    void tiedHotspotsAreOrderedByClassAndSignatureText() {
+        // "$" sorts before "(", so "a$b()V" comes before "a()V" although "a" is a prefix of "a$b"
+        List<String> names = List.of("a", "a$b", "ab", "b", "a0");
+        List<String> descriptors = List.of("()V", "(I)V", "(Ljava/lang/String;)V");
+        List<String> expected = new ArrayList<>();
+        for (String className : List.of("p/B", "p/A")) {
+            for (String name : names) {
+                for (String descriptor : descriptors) {
+                    expected.add(className + "." + name + descriptor);
+                }
+            }
+        }
+        Collections.sort(expected);
+
+        for (boolean reversed : new boolean[]{false, true}) {
+            SymbolTable symbols = new SymbolTable();
+            List<String> interned = new ArrayList<>(expected);
+            if (reversed) {
+                Collections.reverse(interned);
+            }
+            MetricsAccumulator accumulator = new MetricsAccumulator(symbols);
+            for (String className : List.of("p/B", "p/A")) {
+                ClassInfo.Builder builder = ClassInfo.builder(symbols).name(className).superName("java/lang/Object");
+                for (String method : interned) {
+                    if (method.startsWith(className + ".")) {
+                        String signature = method.substring(className.length() + 1);
+                        int paren = signature.indexOf('(');
+                        builder.addMethod(signature.substring(0, paren), signature.substring(paren))
+                                .addMethodMetrics(signature.substring(0, paren), signature.substring(paren), 1, 1, 1);
+                    }
+                }
+                accumulator.add(builder.build());
+            }
+
+            List<String> ranked = new ArrayList<>();
+            for (RankedMethod method : accumulator.getMethodsByMagnitude()) {
+                MethodInfo signature = symbols.signature(method.metrics().signatureId());
+                ranked.add(symbols.className(method.classId()) + "." + signature);
+            }
+            assertEquals(expected.subList(0, Math.min(expected.size(), ranked.size())), ranked);
+        }
+    }
+
+    @Test
+    void typesAreFoundByIdAfterMergeWithTheLaterDuplicateWinning() {
+        SymbolTable symbols = new SymbolTable();
+        MetricsAccumulator first = new MetricsAccumulator(symbols);
+        first.add(ClassInfo.builder(symbols).name("p/A").superName("java/lang/Object").build());
+        first.add(ClassInfo.builder(symbols).name("p/B").superName("java/lang/Object").build());
+        MetricsAccumulator second = new MetricsAccumulator(symbols);
+        second.add(ClassInfo.builder(symbols).name("p/A").superName("p/B").build());
+
+        first.merge(second);
+
+        assertEquals(symbols.classId("p/B"), first.getType(symbols.classId("p/A")).superNameId());
+        assertNull(first.getType(symbols.classId("java/lang/Object")));
+
+        first.add(ClassInfo.builder(symbols).name("p/C").superName("p/A").build());
+
+        assertEquals(symbols.classId("p/A"), first.getType(symbols.classId("p/C")).superNameId());
+    }
+}
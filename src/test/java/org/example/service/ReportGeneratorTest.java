@@ -0,0 +1,38 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.JarAnalyzer;
+import org.example.model.JarAnalysisResult;
+import org.junit.jupiter.api.Test;
+
+class ReportGeneratorTest {
+    private final ReportGenerator reportGenerator = new ReportGenerator();
+
+    @Test
+    void jsonLinesLeadWithTheGivenPath() throws IOException {
+        JarAnalysisResult result = JarAnalyzer.builder().build().analyze(sampleJar());
+
+        String line = reportGenerator.toJsonLine("libs/v1/sample.jar", result);
+
+        assertTrue(line.startsWith("{\"jarPath\":\"libs/v1/sample.jar\",\"jarFileName\":\"sample.jar\","), line);
+        assertEquals(-1, line.indexOf('\n'));
+        ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        assertEquals(result, mapper.readValue(line, JarAnalysisResult.class));
+    }
+
+    private static Path sampleJar() {
+        try {
+            return Path.of(ReportGeneratorTest.class.getResource("/sample.jar").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.example.JarAnalyzer;
+import org.example.model.ABCMetrics;
+import org.example.model.ClassReport;
+import org.example.model.ClassReport.MethodReport;
+import org.example.model.JarAnalysisResult;
+import org.example.model.JarAnalysisResult.ABCSummary;
+import org.example.plugin.AllocationSitesPlugin.AllocationSites;
+import org.example.plugin.MetricPlugins;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ReportReaderTest {
+    private final ReportGenerator reportGenerator = new ReportGenerator();
+    private final ReportReader reportReader = new ReportReader();
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"report.json", "report.smile"})
+    void summaryRoundTripsWithoutPlugins(String fileName) throws IOException {
+        JarAnalysisResult result = JarAnalyzer.builder().build().analyze(sampleJar());
+        assertNull(result.plugins());
+
+        assertEquals(result, writeAndRead(result, fileName));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"report.json", "report.smile"})
+    void summaryRoundTripsWithPlugins(String fileName) throws IOException {
+        JarAnalysisResult result = JarAnalyzer.builder().plugins(MetricPlugins.discover()).build()
+                .analyze(sampleJar());
+        assertInstanceOf(AllocationSites.class, result.plugins().get("allocations"));
+
+        JarAnalysisResult read = writeAndRead(result, fileName);
+
+        assertInstanceOf(AllocationSites.class, read.plugins().get("allocations"));
+        assertEquals(result, read);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"report.json", "report.smile"})
+    void unknownPluginSectionsStayMaps(String fileName) throws IOException {
+        JarAnalysisResult result = JarAnalyzer.builder().plugins(MetricPlugins.discover()).build()
+                .analyze(sampleJar());
+        reportGenerator.writeReport(result, dir.resolve(fileName));
+
+        JarAnalysisResult read = new ReportReader(MetricPlugins.none()).readResult(dir.resolve(fileName));
+
+        assertInstanceOf(Map.class, read.plugins().get("allocations"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"details.ndjson", "details.ndjson.gz", "details.smile", "details.smile.gz"})
+    void detailsRoundTrip(String fileName) throws IOException {
+        List<ClassReport> reports = List.of(
+                new ClassReport("com/example/Base", "java/lang/Object", List.of("java/io/Serializable"), false,
+                        2, 0, 3, new ABCSummary(4, 5, 2, 6.7), List.of(
+                        MethodReport.from("<init>", "()V", new ABCMetrics(0, 1, 0)),
+                        MethodReport.from("run", "(I)I", new ABCMetrics(3, 4, 2)))),
+                new ClassReport("com/example/Api", "java/lang/Object", List.of(), true,
+                        1, 0, 0, new ABCSummary(0, 0, 0, 0), List.of()),
+                new ClassReport("java/lang/Object", null, List.of(), false,
+                        0, 0, 0, new ABCSummary(1, 1, 1, Math.sqrt(3)), List.of(
+                        MethodReport.from("hashCode", "()I", new ABCMetrics(1, 1, 1)))));
+        Path detailsPath = dir.resolve(fileName);
+        try (DetailedReportWriter details = reportGenerator.openDetailedReport(detailsPath)) {
+            for (ClassReport report : reports) {
+                details.write(report);
+            }
+        }
+
+        try (Stream<ClassReport> read = reportReader.readDetails(detailsPath)) {
+            assertEquals(reports, read.toList());
+        }
+    }
+
+    @Test
+    void detailsOfAJarReadBackTheSameFromBothFormats() throws IOException {
+        List<List<ClassReport>> read = new ArrayList<>();
+        for (String fileName : List.of("details.ndjson", "details.smile.gz")) {
+            Path detailsPath = dir.resolve(fileName);
+            try (DetailedReportWriter details = reportGenerator.openDetailedReport(detailsPath)) {
+                JarAnalyzer.builder().build().analyzeDetailed(sampleJar(), details);
+            }
+            try (Stream<ClassReport> reports = reportReader.readDetails(detailsPath)) {
+                read.add(reports.toList());
+            }
+        }
+
+        assertFalse(read.get(0).isEmpty());
+        assertEquals(read.get(0), read.get(1));
+    }
+
+    @Test
+    void detectsFormatFromContent() throws IOException {
+        JarAnalysisResult result = JarAnalyzer.builder().build().analyze(sampleJar());
+        Path smile = dir.resolve("report.smile");
+        reportGenerator.writeReport(result, smile);
+        Path misnamed = dir.resolve("report.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(misnamed))) {
+            Files.copy(smile, out);
+        }
+
+        assertEquals(result, reportReader.readResult(misnamed));
+    }
+
+    private JarAnalysisResult writeAndRead(JarAnalysisResult result, String fileName) throws IOException {
+        Path reportPath = dir.resolve(fileName);
+        reportGenerator.writeReport(result, reportPath);
+        JarAnalysisResult read = reportReader.readResult(reportPath);
+        assertNotNull(read);
+        return read;
+    }
+
+    private static Path sampleJar() {
+        try {
+            return Path.of(ReportReaderTest.class.getResource("/sample.jar").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+class ClassFileHeaderTest {
+    @Test
+    void matchesClassReaderOnJavaBase() throws IOException {
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        int compared = 0;
+        try (Stream<Path> files = Files.walk(jrt.getPath("/modules/java.base"))) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".class"))::iterator) {
+                assertSameHeader(file.toString(), Files.readAllBytes(file));
+                compared++;
+            }
+        }
+        assertTrue(compared > 1000, "only " + compared + " classes in java.base");
+    }
+
+    @Test
+    void matchesClassReaderOnSampleJar() throws IOException, URISyntaxException {
+        Path jar = Path.of(ClassFileHeaderTest.class.getResource("/sample.jar").toURI());
+        try (MappedZipFile zipFile = MappedZipFile.open(jar)) {
+            for (MappedZipFile.Entry entry : zipFile.entries()) {
+                if (entry.name().endsWith(".class")) {
+                    MappedZipFile.Bytes bytes = zipFile.read(entry);
+                    int end = bytes.offset() + bytes.length();
+                    assertSameHeader(entry.name(), Arrays.copyOfRange(bytes.array(), bytes.offset(), end));
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesClassReaderOnUnusualConstantPools() {
+        List<byte[]> classes = new ArrayList<>();
+        // names outside ASCII in modified UTF-8, including NUL and a supplementary character
+        classes.add(classFile("p/Café\u0000😀", "p/Über", new String[]{"p/中文"}));
+        // long and double constants, which take up two pool entries each, ahead of the names
+        classes.add(classFile("p/Wide", "java/lang/Object", manyInterfaces(300), 1L, 2.0, 3L));
+        classes.add(classFile("module-info", null, new String[0]));
+        for (byte[] classFile : classes) {
+            assertSameHeader(new ClassReader(classFile).getClassName(), classFile);
+        }
+    }
+
+    @Test
+    void readsAtAnOffset() {
+        byte[] classFile = classFile("p/A", "java/lang/Object", new String[]{"p/I"});
+        byte[] padded = new byte[classFile.length + 20];
+        System.arraycopy(classFile, 0, padded, 7, classFile.length);
+
+        ClassFileHeader header = ClassFileHeader.parse(padded, 7, classFile.length);
+
+        assertEquals("p/A", header.className());
+        assertArrayEquals(new String[]{"p/I"}, header.interfaces());
+    }
+
+    @Test
+    void rejectsTruncatedClassFiles() {
+        byte[] classFile = classFile("p/A", "java/lang/Object", new String[]{"p/I", "p/J"});
+
+        for (int length : new int[]{0, 9, 20, classFile.length / 2}) {
+            assertThrows(IllegalArgumentException.class, () -> ClassFileHeader.parse(classFile, 0, length));
+        }
+    }
+
+    @Test
+    void rejectsNamesEndingInsideAMultiByteCharacter() {
+        // "p/Aé" is 70 2F 41 C3 A9; keep its length but end it on a lead byte instead
+        byte[] utf8 = {1, 0, 5, 'p', '/', 'A', (byte) 0xC3, (byte) 0xA9};
+        byte[][] endings = {
+                {'p', '/', (byte) 0xC3, (byte) 0xA9, (byte) 0xC3},
+                {'p', '/', 'A', (byte) 0xE4, (byte) 0xB8},
+        };
+        for (byte[] ending : endings) {
+            byte[] classFile = classFile("p/A\u00e9", "java/lang/Object", new String[]{"p/I"});
+            int entry = indexOf(classFile, utf8);
+            System.arraycopy(ending, 0, classFile, entry + 3, ending.length);
+
+            ClassFileHeader header = ClassFileHeader.parse(classFile);
+            assertThrows(IllegalArgumentException.class, header::className);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Not found");
+    }
+
+    private static void assertSameHeader(String name, byte[] classFile) {
+        ClassReader reader = new ClassReader(classFile);
+        ClassFileHeader header = ClassFileHeader.parse(classFile);
+        ByteBuffer version = ByteBuffer.wrap(classFile, 4, 4);
+        assertEquals((version.getShort() & 0xFFFF) << 16 | (version.getShort() & 0xFFFF), header.version(), name);
+        assertEquals(reader.getAccess(), header.access(), name);
+        assertEquals((reader.getAccess() & Opcodes.ACC_INTERFACE) != 0, header.isInterface(), name);
+        assertEquals(reader.getClassName(), header.className(), name);
+        assertEquals(reader.getSuperName(), header.superName(), name);
+        assertArrayEquals(reader.getInterfaces(), header.interfaces(), name);
+    }
+
+    private static byte[] classFile(String name, String superName, String[] interfaces, Object... constants) {
+        ClassWriter writer = new ClassWriter(0);
+        for (Object constant : constants) {
+            writer.newConst(constant);
+        }
+        int access = name.equals("module-info") ? Opcodes.ACC_MODULE : Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER;
+        writer.visit(Opcodes.V17, access, name, null, superName, interfaces);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static String[] manyInterfaces(int count) {
+        String[] interfaces = new String[count];
+        for (int i = 0; i < count; i++) {
+            interfaces[i] = "p/I" + i;
+        }
+        return interfaces;
+    }
+}
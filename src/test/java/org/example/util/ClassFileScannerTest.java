@@ -0,0 +1,101 @@
+package org.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.example.model.ABCMetrics;
+import org.example.model.ClassInfo;
+import org.example.service.JarProcessor;
+import org.example.service.JarProcessor.Engine;
+import org.example.service.JarProcessor.Ingestion;
+import org.example.service.JarProcessor.ParseLevel;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class ClassFileScannerTest {
+    @TempDir
+    static Path dir;
+    private static Path javaBase;
+
+    @BeforeAll
+    static void packJavaBase() throws IOException {
+        // java.base as a jar: thousands of real classes from every corner of the class file format
+        javaBase = dir.resolve("java.base.jar");
+        FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        Path module = jrt.getPath("/modules/java.base");
+        try (OutputStream out = Files.newOutputStream(javaBase);
+             ZipOutputStream zip = new ZipOutputStream(out);
+             Stream<Path> files = Files.walk(module)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".class"))::iterator) {
+                zip.putNextEntry(new ZipEntry(module.relativize(file).toString()));
+                zip.write(Files.readAllBytes(file));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ParseLevel.class, names = {"MEMBERS", "CODE"})
+    void scannerMatchesAsmOnJavaBase(ParseLevel parseLevel) throws IOException {
+        assertEnginesAgree(javaBase, parseLevel, 1000);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ParseLevel.class, names = {"MEMBERS", "CODE"})
+    void scannerMatchesAsmOnSampleJar(ParseLevel parseLevel) throws IOException, URISyntaxException {
+        assertEnginesAgree(Path.of(ClassFileScannerTest.class.getResource("/sample.jar").toURI()), parseLevel, 1);
+    }
+
+    @Test
+    void rejectsUndefinedOpcodes() {
+        byte[] code = {0x03, (byte) 0xBA, 0, 0, 0, 0, (byte) 0xCB};
+
+        assertThrows(IllegalArgumentException.class, () -> ClassFileScanner.count(code, 0, code.length, new ABCMetrics()));
+    }
+
+    private static void assertEnginesAgree(Path jar, ParseLevel parseLevel, int minClasses) throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        List<ClassInfo> asm = parse(jar, parseLevel, Engine.ASM, symbols);
+        List<ClassInfo> scanner = parse(jar, parseLevel, Engine.SCANNER, symbols);
+
+        assertTrue(asm.size() >= minClasses, "only " + asm.size() + " classes");
+        assertEquals(asm.size(), scanner.size());
+        for (int i = 0; i < asm.size(); i++) {
+            ClassInfo expected = asm.get(i);
+            ClassInfo actual = scanner.get(i);
+            String name = expected.getName();
+            assertEquals(expected.getNameId(), actual.getNameId(), name);
+            assertEquals(expected.getSuperNameId(), actual.getSuperNameId(), name);
+            assertArrayEquals(expected.getInterfaceIds(), actual.getInterfaceIds(), name);
+            assertEquals(expected.isInterface(), actual.isInterface(), name);
+            assertEquals(expected.getFieldCount(), actual.getFieldCount(), name);
+            assertArrayEquals(expected.getMethodIds(), actual.getMethodIds(), name);
+            assertEquals(expected.getMethodMetrics(), actual.getMethodMetrics(), name);
+            assertEquals(expected.getAbcMetrics().toString(), actual.getAbcMetrics().toString(), name);
+        }
+    }
+
+    private static List<ClassInfo> parse(Path jar, ParseLevel parseLevel, Engine engine, SymbolTable symbols)
+            throws IOException {
+        JarProcessor processor = new JarProcessor(1, Ingestion.MAPPED, null, parseLevel, engine);
+        return processor.process(jar, symbols, ArrayList::new, List::add, List::addAll);
+    }
+}
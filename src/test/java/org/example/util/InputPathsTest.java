@@ -0,0 +1,54 @@
+package org.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InputPathsTest {
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void createJars() throws IOException {
+        for (String name : List.of("libs/a.jar", "libs/notes.txt", "libs/x/b.jar", "libs/x/y/c.jar")) {
+            Path file = dir.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.createFile(file);
+        }
+    }
+
+    @Test
+    void leadingDoubleStarAlsoMatchesTheBaseDirectory() throws IOException {
+        assertEquals(paths("libs/a.jar", "libs/x/b.jar", "libs/x/y/c.jar"), expand("libs/**/*.jar"));
+    }
+
+    @Test
+    void singleStarStaysInItsDirectory() throws IOException {
+        assertEquals(paths("libs/a.jar"), expand("libs/*.jar"));
+        assertEquals(paths("libs/x/b.jar"), expand("libs/*/*.jar"));
+    }
+
+    @Test
+    void listFilesAndPlainPathsKeepTheirOrderWithoutDuplicates() throws IOException {
+        Path list = Files.writeString(dir.resolve("jars.txt"),
+                "# jars\n" + dir.resolve("libs/x/b.jar") + "\n\n" + dir.resolve("libs/*.jar") + "\n");
+        assertEquals(paths("libs/x/b.jar", "libs/a.jar"),
+                InputPaths.expand(List.of("@" + list, dir.resolve("libs/a.jar").toString())));
+    }
+
+    private List<Path> expand(String glob) throws IOException {
+        return InputPaths.expand(List.of(dir + "/" + glob));
+    }
+
+    private List<Path> paths(String... names) {
+        return Arrays.stream(names).map(dir::resolve).toList();
+    }
+}
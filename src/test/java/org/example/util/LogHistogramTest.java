@@ -0,0 +1,95 @@
+package org.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LogHistogramTest {
+    @Test
+    void bucketsAreContiguousAndEachHighestValueMapsBack() {
+        assertEquals(0, LogHistogram.index(0));
+        for (int i = 0; i < LogHistogram.BUCKETS - 1; i++) {
+            long highest = LogHistogram.highestUnits(i);
+            assertEquals(i, LogHistogram.index(highest), "highest units of bucket " + i);
+            assertEquals(i + 1, LogHistogram.index(highest + 1), "first units after bucket " + i);
+        }
+    }
+
+    @Test
+    void valuesBelowTheSubBucketCountGetTheirOwnBucket() {
+        for (long units = 0; units < 128; units++) {
+            assertEquals(units, LogHistogram.index(units));
+            assertEquals(units, LogHistogram.highestUnits((int) units));
+        }
+        assertEquals(128, LogHistogram.index(128));
+        assertEquals(129, LogHistogram.highestUnits(128));
+    }
+
+    @Test
+    void valuesBeyondTheLastExponentShareTheLastBucket() {
+        int last = LogHistogram.BUCKETS - 1;
+        assertEquals((1L << 41) - 1, LogHistogram.highestUnits(last));
+        assertEquals(last, LogHistogram.index(1L << 41));
+        assertEquals(last, LogHistogram.index(Long.MAX_VALUE));
+
+        LogHistogram histogram = new LogHistogram(1);
+        histogram.record(1e15);
+        histogram.record(1e18);
+                histogram.record(100);
+        assertEquals(100, histogram.percentile(30));
+        // the last bucket has no upper bound, so all it can report is the maximum
+        assertEquals(1e18, histogram.percentile(50));
+        assertEquals(1e18, histogram.percentile(100));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {1, 0.01})
+    void percentilesAreWithinOneSixtyFourthOfTheSortedValues(double resolution) {
+        Random random = new Random(42);
+        double[] values = new double[20_000];
+        LogHistogram histogram = new LogHistogram(resolution);
+        for (int i = 0; i < values.length; i++) {
+            // log-uniform over eight orders of magnitude, rounded to the resolution
+            values[i] = Math.round(Math.pow(10, random.nextDouble() * 8) / resolution) * resolution;
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{0, 1, 10, 25, 50, 75, 90, 99, 99.9, 100}) {
+            double expected = values[(int) Math.max(0, Math.ceil(percentile / 100 * values.length) - 1)];
+            double actual = histogram.percentile(percentile);
+            assertTrue(actual >= expected - resolution / 2 && actual <= expected * (1 + 1.0 / 64) + resolution,
+                    "p" + percentile + ": " + actual + " for " + expected);
+        }
+        assertEquals(values[values.length - 1], histogram.percentile(100));
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    void mergingEqualsRecordingEverythingInOne() {
+        Random random = new Random(7);
+        LogHistogram all = new LogHistogram(0.01);
+        LogHistogram left = new LogHistogram(0.01);
+        LogHistogram right = new LogHistogram(0.01);
+        for (int i = 0; i < 5_000; i++) {
+            double value = random.nextDouble() * (i % 2 == 0 ? 10 : 100_000);
+            all.record(value);
+            (random.nextBoolean() ? left : right).record(value);
+        }
+        left.merge(right);
+
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMax(), left.getMax());
+        assertArrayEquals(all.powerOfTwoCounts(), left.powerOfTwoCounts());
+        for (int percentile = 0; percentile <= 100; percentile++) {
+            assertEquals(all.percentile(percentile), left.percentile(percentile));
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class MappedZipFileTest {
+    private static final byte[] LAUNCHER = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8);
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    @Test
+    void readsStoredAndDeflatedEntries() throws IOException {
+        byte[] zip = zip(List.of("a/Stored.class", "a/Deflated.class"), true);
+
+        MappedZipFile zipFile = MappedZipFile.of("test.jar", ByteBuffer.wrap(zip));
+
+        assertEquals(List.of("a/Stored.class", "a/Deflated.class"),
+                zipFile.entries().stream().map(MappedZipFile.Entry::name).toList());
+        for (MappedZipFile.Entry entry : zipFile.entries()) {
+            assertArrayEquals(content(entry.name()), bytes(zipFile.read(entry)));
+        }
+    }
+
+    @Test
+    void readsAgainAfterThreadResourcesAreReleased() throws IOException {
+        MappedZipFile zipFile = MappedZipFile.of("test.jar", ByteBuffer.wrap(zip(List.of("a/Deflated.class"), false)));
+        MappedZipFile.Entry entry = zipFile.entries().get(0);
+        bytes(zipFile.read(entry));
+
+        MappedZipFile.releaseThreadResources();
+
+        assertArrayEquals(content(entry.name()), bytes(zipFile.read(entry)));
+    }
+
+    @Test
+    void readAllBytesSurvivesLaterReads() throws IOException {
+        byte[] zip = zip(List.of("a/A.class", "b/B.class"), false);
+        MappedZipFile zipFile = MappedZipFile.of("test.jar", ByteBuffer.wrap(zip));
+
+        byte[] first = zipFile.readAllBytes(zipFile.entries().get(0));
+        MappedZipFile.Bytes second = zipFile.read(zipFile.entries().get(1));
+
+        assertArrayEquals(content("a/A.class"), first);
+        assertArrayEquals(content("b/B.class"), bytes(second));
+    }
+
+    @Test
+    void readsEntriesLargerThanTheRetainedBuffer() throws IOException {
+        byte[] large = "0123456789abcdef".repeat(200_000).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("large.bin"));
+            zip.write(large);
+            zip.putNextEntry(new ZipEntry("a/A.class"));
+            zip.write(content("a/A.class"));
+        }
+        MappedZipFile zipFile = MappedZipFile.of("test.jar", ByteBuffer.wrap(out.toByteArray()));
+
+        assertArrayEquals(large, bytes(zipFile.read(zipFile.entries().get(0))));
+        assertArrayEquals(content("a/A.class"), bytes(zipFile.read(zipFile.entries().get(1))));
+    }
+
+    @Test
+    void readsArchiveWithPrependedLauncher() throws IOException {
+        byte[] zip = prepend(LAUNCHER, zip(List.of("a/A.class", "b/B.class"), false));
+
+        MappedZipFile zipFile = MappedZipFile.of("launcher.jar", ByteBuffer.wrap(zip));
+
+        assertEquals(2, zipFile.entries().size());
+        MappedZipFile.Entry last = zipFile.entries().get(1);
+        assertArrayEquals(content(last.name()), bytes(zipFile.read(last)));
+    }
+
+    @Test
+    void readsZip64ArchiveWithPrependedLauncher() throws IOException {
+        // more entries than the classic end record can count makes the writer emit ZIP64 records
+        int count = 0x10000 + 10;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.setLevel(0);
+            for (int i = 0; i < count; i++) {
+                zip.putNextEntry(new ZipEntry("e/" + i));
+                zip.write(content("e/" + i));
+                zip.closeEntry();
+            }
+        }
+        byte[] plain = out.toByteArray();
+        assertEquals(ZIP64_LOCATOR_SIGNATURE, littleEndian(plain).getInt(plain.length - 22 - 20));
+        byte[] zip = prepend(LAUNCHER, plain);
+
+        MappedZipFile zipFile = MappedZipFile.of("launcher64.jar", ByteBuffer.wrap(zip));
+
+        assertEquals(count, zipFile.entries().size());
+        MappedZipFile.Entry last = zipFile.entries().get(count - 1);
+        assertEquals("e/" + (count - 1), last.name());
+        assertArrayEquals(content(last.name()), bytes(zipFile.read(last)));
+    }
+
+    @Test
+    void readsHandWrittenArchive() throws IOException {
+        byte[] data = content("A.class");
+
+        MappedZipFile zipFile = MappedZipFile.of("hand.jar", ByteBuffer.wrap(storedZip("A.class", data, data.length,
+                new byte[0])));
+
+        assertArrayEquals(data, bytes(zipFile.read(zipFile.entries().get(0))));
+    }
+
+    @Test
+    void truncatedZip64ExtraFieldFailsWithIOException() {
+        // size says "see ZIP64 extra", but the extra field holds 4 bytes instead of 8
+        byte[] extra = extra(0x0001, new byte[4], 4);
+
+        byte[] zip = storedZip("A.class", content("A.class"), -1, extra);
+
+        assertThrows(IOException.class, () -> MappedZipFile.of("bad.jar", ByteBuffer.wrap(zip)));
+    }
+
+    @Test
+    void extraFieldLongerThanExtraAreaFailsWithIOException() {
+        byte[] extra = extra(0x5455, new byte[4], 200);
+
+        byte[] zip = storedZip("A.class", content("A.class"), -1, extra);
+
+        assertThrows(IOException.class, () -> MappedZipFile.of("bad.jar", ByteBuffer.wrap(zip)));
+    }
+
+    @Test
+    void nameBeyondArchiveFailsWithIOException() {
+        byte[] data = content("A.class");
+        byte[] zip = storedZip("A.class", data, data.length, new byte[0]);
+        int central = indexOf(zip, 0x02014b50);
+        littleEndian(zip).putShort(central + 28, (short) 0xFFFF);
+
+        assertThrows(IOException.class, () -> MappedZipFile.of("bad.jar", ByteBuffer.wrap(zip)));
+    }
+
+    @Test
+    void zip64EndRecordOutsideArchiveFailsWithIOException() throws IOException {
+        byte[] zip = zip(List.of("a/A.class"), false);
+        // a locator in place of the bytes before the end record, pointing nowhere
+        int locator = zip.length - 22 - 20;
+        littleEndian(zip).putInt(locator, ZIP64_LOCATOR_SIGNATURE).putLong(locator + 8, Long.MAX_VALUE);
+
+        assertThrows(IOException.class, () -> MappedZipFile.of("bad.jar", ByteBuffer.wrap(zip)));
+    }
+
+    private static byte[] zip(List<String> names, boolean firstStored) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < names.size(); i++) {
+                byte[] data = content(names.get(i));
+                ZipEntry entry = new ZipEntry(names.get(i));
+                if (i == 0 && firstStored) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(data);
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * An archive of one STORED entry whose central directory header claims {@code centralSize}
+     * and carries {@code extra}, as zip writers other than the JDK's may produce them.
+     */
+    private static byte[] storedZip(String name, byte[] data, int centralSize, byte[] extra) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ByteBuffer zip = littleEndian(new byte[256 + nameBytes.length * 2 + data.length + extra.length]);
+        zip.putInt(0x04034b50).putShort((short) 20).putShort((short) 0).putShort((short) 0)
+                .putShort((short) 0).putShort((short) 0).putInt((int) crc.getValue())
+                .putInt(data.length).putInt(data.length).putShort((short) nameBytes.length).putShort((short) 0)
+                .put(nameBytes).put(data);
+        int central = zip.position();
+        zip.putInt(0x02014b50).putShort((short) 20).putShort((short) 20).putShort((short) 0).putShort((short) 0)
+                .putShort((short) 0).putShort((short) 0).putInt((int) crc.getValue())
+                .putInt(data.length).putInt(centralSize).putShort((short) nameBytes.length)
+                .putShort((short) extra.length).putShort((short) 0).putShort((short) 0).putShort((short) 0)
+                .putInt(0).putInt(0)
+                .put(nameBytes).put(extra);
+        int centralLength = zip.position() - central;
+        zip.putInt(0x06054b50).putShort((short) 0).putShort((short) 0).putShort((short) 1).putShort((short) 1)
+                .putInt(centralLength).putInt(central).putShort((short) 0);
+        return Arrays.copyOf(zip.array(), zip.position());
+    }
+
+    private static byte[] extra(int id, byte[] data, int declaredLength) {
+        ByteBuffer extra = littleEndian(new byte[4 + data.length]);
+        extra.putShort((short) id).putShort((short) declaredLength).put(data);
+        return extra.array();
+    }
+
+    private static byte[] content(String name) {
+        return ("content of " + name + " ").repeat(20).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(MappedZipFile.Bytes bytes) {
+        return Arrays.copyOfRange(bytes.array(), bytes.offset(), bytes.offset() + bytes.length());
+    }
+
+    private static byte[] prepend(byte[] prefix, byte[] zip) {
+        byte[] result = Arrays.copyOf(prefix, prefix.length + zip.length);
+        System.arraycopy(zip, 0, result, prefix.length, zip.length);
+        return result;
+    }
+
+    private static ByteBuffer littleEndian(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int indexOf(byte[] zip, int signature) {
+        ByteBuffer buffer = littleEndian(zip);
+        for (int i = 0; i + 4 <= zip.length; i++) {
+            if (buffer.getInt(i) == signature) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Signature not found");
+    }
+}
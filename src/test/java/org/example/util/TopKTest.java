@@ -0,0 +1,58 @@
+package org.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+    private record Ranked(int score, String name) {
+    }
+
+    // higher scores first, ties by name in ascending order, as the hotspot lists rank them
+    private static final Comparator<Ranked> ORDER = Comparator.comparingInt(Ranked::score)
+            .thenComparing(Ranked::name, Comparator.reverseOrder());
+
+    @Test
+    void keepsTheGreatestValuesGreatestFirst() {
+        TopK<Ranked> top = new TopK<>(3, ORDER);
+        for (int score : new int[]{5, 1, 9, 3, 7}) {
+            top.offer(new Ranked(score, "m" + score));
+        }
+        assertEquals(List.of(new Ranked(9, "m9"), new Ranked(7, "m7"), new Ranked(5, "m5")), top.toList());
+    }
+
+    @Test
+    void mergeKeepsTheGlobalTopKAndTieOrderWhateverTheSplit() {
+        Random random = new Random(3);
+        List<Ranked> values = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // few distinct scores, so most of the retained values tie
+            values.add(new Ranked(random.nextInt(6), "m" + i));
+        }
+        List<Ranked> expected = new ArrayList<>(values);
+        expected.sort(ORDER.reversed());
+        expected = expected.subList(0, 20);
+
+        for (int workers = 1; workers <= 5; workers++) {
+            Collections.shuffle(values, random);
+            List<TopK<Ranked>> parts = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                parts.add(new TopK<>(20, ORDER));
+            }
+            for (Ranked value : values) {
+                parts.get(random.nextInt(workers)).offer(value);
+            }
+            TopK<Ranked> merged = new TopK<>(20, ORDER);
+            for (TopK<Ranked> part : parts) {
+                merged.merge(part);
+            }
+            assertEquals(expected, merged.toList(), workers + " workers");
+        }
+    }
+}